@@ -0,0 +1,87 @@
+package minesweeper.benchmarks;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import minesweeper.MineField;
+import minesweeper.MineGenerator;
+import minesweeper.RandomMineGenerator;
+
+/**
+ * The board configuration shared by the benchmarks. Every benchmark is run
+ * for each combination of the board size and the mine density. The mine
+ * layout is generated once per trial from a fixed seed, so all of the
+ * benchmarks work with the same boards.
+ *
+ * @author Filip Nemec
+ */
+@State(Scope.Benchmark)
+public class BoardParameters {
+	
+	/** The size of the board, as {@code ROWSxCOLUMNS}. */
+	@Param({ "16x30", "256x256", "1024x1024" })
+	public String size;
+	
+	/** The ratio of mines to the total number of fields. */
+	@Param({ "0.05", "0.15", "0.21" })
+	public double density;
+	
+	/** The seed all of the layouts are generated from. */
+	public static final long SEED = 42;
+	
+	/** The number of rows. */
+	public int rows;
+	
+	/** The number of columns. */
+	public int columns;
+	
+	/** The number of mines. */
+	public int mineCount;
+	
+	/** The mine layout. */
+	public long[] mines;
+	
+	/** The index of a field with no mines around it, where cascades start. */
+	public int openField;
+	
+	/** The index of a mine. */
+	public int mineField;
+	
+	/**
+	 * Parses the parameters and generates the mine layout.
+	 */
+	@Setup
+	public void setUp() {
+		String[] dimensions = size.split("x");
+		rows = Integer.parseInt(dimensions[0]);
+		columns = Integer.parseInt(dimensions[1]);
+		mineCount = (int) (rows * columns * density);
+		
+		int center = (rows / 2) * columns + columns / 2;
+		mines = newGenerator().generate(rows, columns, mineCount, center);
+		
+		MineField field = newMineField();
+		openField = center;
+		mineField = -1;
+		
+		for(int i = 0; i < field.FIELD_COUNT && mineField < 0; i++) {
+			if(field.isMine(i)) mineField = i;
+		}
+	}
+	
+	/**
+	 * @return a new generator seeded with {@link #SEED}
+	 */
+	public MineGenerator newGenerator() {
+		return new RandomMineGenerator(SEED);
+	}
+	
+	/**
+	 * @return a new, untouched mine-field with the generated layout
+	 */
+	public MineField newMineField() {
+		return new MineField(rows, columns, mines);
+	}
+}
@@ -0,0 +1,64 @@
+package minesweeper.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.MineField;
+
+/**
+ * Measures the cost of setting up a new board: generating the mine layout,
+ * and constructing the mine-field from it (which includes counting the
+ * mines around every field).
+ *
+ * @author Filip Nemec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+	
+	/**
+	 * Generates a new mine layout.
+	 *
+	 * @param board the board parameters
+	 * @return the generated layout
+	 */
+	@Benchmark
+	public long[] generateMines(BoardParameters board) {
+		return board.newGenerator().generate(board.rows, board.columns, board.mineCount, board.openField);
+	}
+	
+	/**
+	 * Constructs the mine-field from a ready layout.
+	 *
+	 * @param board the board parameters
+	 * @return the constructed mine-field
+	 */
+	@Benchmark
+	public MineField construct(BoardParameters board) {
+		return board.newMineField();
+	}
+	
+	/**
+	 * Constructs the mine-field whose mines get placed on the first click,
+	 * and clicks on it.
+	 *
+	 * @param board the board parameters
+	 * @return the constructed mine-field
+	 */
+	@Benchmark
+	public MineField constructAndClick(BoardParameters board) {
+		MineField field = new MineField(board.rows, board.columns, board.mineCount, board.newGenerator());
+		field.toggleField(field.rowOf(board.openField), field.columnOf(board.openField));
+		return field;
+	}
+}
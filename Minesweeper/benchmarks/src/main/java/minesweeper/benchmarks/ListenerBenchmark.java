@@ -0,0 +1,106 @@
+package minesweeper.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import minesweeper.ChangeSet;
+import minesweeper.JMineField;
+import minesweeper.JMineFieldListener;
+import minesweeper.MineField;
+
+/**
+ * Measures dispatching the change events to the listeners. Toggling a flag
+ * is the cheapest action there is, so its cost is dominated by notifying
+ * the listeners of the model, or by publishing the change set a view
+ * picks up on the event dispatch thread.
+ *
+ * @author Filip Nemec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class ListenerBenchmark {
+	
+	/** The number of listeners registered on the model. */
+	@Param({ "1", "8" })
+	public int listenerCount;
+	
+	/** The mine-field observed only by the plain listeners. */
+	private MineField model;
+	
+	/** The mine-field observed by a painted view. */
+	private MineField viewModel;
+	
+	/**
+	 * Constructs the mine-fields and registers the listeners.
+	 *
+	 * @param board the board parameters
+	 * @param blackhole consumes the events
+	 */
+	@Setup(Level.Trial)
+	public void setUp(BoardParameters board, Blackhole blackhole) {
+		model = board.newMineField();
+		
+		for(int i = 0; i < listenerCount; i++) {
+			model.addMineFieldListener(blackhole::consume);
+		}
+		
+		viewModel = board.newMineField();
+		JMineField view = new JMineField(viewModel, JMineField.Mode.PAINTED);
+		
+		for(int i = 0; i < listenerCount; i++) {
+			view.addJMineFieldListener(new JMineFieldListener() {
+				
+				@Override
+				public void onMineFieldChange(JMineField field, ChangeSet changes) {
+					blackhole.consume(changes);
+				}
+				
+				@Override
+				public void onExplode() {
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Toggles the flag on the model observed by the plain listeners.
+	 *
+	 * @return the number of flags
+	 */
+	@Benchmark
+	public int model() {
+		model.toggleFlag(0, 0);
+		return model.getFlagCount();
+	}
+	
+	/**
+	 * Toggles the flag on the model observed by the painted view. Its
+	 * engine turns every event into a change set and hands it over to the
+	 * event dispatch thread, which forwards it to the listeners of the
+	 * view.
+	 *
+	 * @return the number of flags
+	 */
+	@Benchmark
+	public int view() {
+		viewModel.toggleFlag(0, 0);
+		return viewModel.getFlagCount();
+	}
+}
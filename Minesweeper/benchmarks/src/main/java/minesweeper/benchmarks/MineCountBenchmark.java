@@ -0,0 +1,90 @@
+package minesweeper.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.MineField;
+
+/**
+ * Measures reading the number of mines around every field of the board,
+ * and counting them all again.
+ *
+ * @author Filip Nemec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MineCountBenchmark {
+	
+	/** The mine-field that is read. */
+	private MineField field;
+	
+	/**
+	 * Constructs the mine-field.
+	 *
+	 * @param board the board parameters
+	 */
+	@Setup
+	public void setUp(BoardParameters board) {
+		field = board.newMineField();
+	}
+	
+	/**
+	 * Reads the counts by the field index.
+	 *
+	 * @return the sum of all the counts
+	 */
+	@Benchmark
+	public int byIndex() {
+		int sum = 0;
+		
+		for(int i = 0; i < field.FIELD_COUNT; i++) {
+			sum += field.getMineCountAround(i);
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Reads the counts by the row and the column.
+	 *
+	 * @return the sum of all the counts
+	 */
+	@Benchmark
+	public int byRowAndColumn() {
+		int sum = 0;
+		
+		for(int r = 0; r < field.ROWS; r++) {
+			for(int c = 0; c < field.COLUMNS; c++) {
+				sum += field.getMineCountAround(r, c);
+			}
+		}
+		
+		return sum;
+	}
+	
+	/**
+	 * Drops the counts and counts all of them again, as done after the
+	 * mines are placed or a game is loaded.
+	 *
+	 * @return the count of the first field
+	 */
+	@Benchmark
+	public int countAll() {
+		field.trim();
+		return field.getMineCountAround(0);
+	}
+}
@@ -0,0 +1,71 @@
+package minesweeper.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minesweeper.MineField;
+
+/**
+ * Measures the two actions that change the most fields at once: the
+ * flood fill cascade when a field with no mines around it is discovered,
+ * and revealing the whole board after stepping on a mine. Every
+ * invocation works on a fresh, untouched board.
+ *
+ * @author Filip Nemec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RevealBenchmark {
+	
+	/** The mine-field the action is performed on. */
+	private MineField field;
+	
+	/**
+	 * Constructs a fresh mine-field before every invocation.
+	 *
+	 * @param board the board parameters
+	 */
+	@Setup(Level.Invocation)
+	public void setUp(BoardParameters board) {
+		field = board.newMineField();
+	}
+	
+	/**
+	 * Discovers the field with no mines around it.
+	 *
+	 * @param board the board parameters
+	 * @return the number of discovered fields
+	 */
+	@Benchmark
+	public int discoverCascade(BoardParameters board) {
+		field.toggleField(field.rowOf(board.openField), field.columnOf(board.openField));
+		return field.getDiscoveredCount();
+	}
+	
+	/**
+	 * Steps on a mine, which reveals the whole board.
+	 *
+	 * @param board the board parameters
+	 * @return {@code true} once the board has exploded
+	 */
+	@Benchmark
+	public boolean explode(BoardParameters board) {
+		field.toggleField(field.rowOf(board.mineField), field.columnOf(board.mineField));
+		return field.isExploded();
+	}
+}
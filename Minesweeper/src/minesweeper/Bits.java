@@ -0,0 +1,92 @@
+package minesweeper;
+
+/**
+ * Utility methods for working with bit-sets packed into {@code long}
+ * words. Bit {@code i} is stored in word {@code i / 64} at position
+ * {@code i % 64}.
+ *
+ * @author Filip Nemec
+ */
+final class Bits {
+	
+	/** Number of bits in a single word. */
+	static final int WORD_SIZE = Long.SIZE;
+	
+	/**
+	 * Disables instantiation.
+	 */
+	private Bits() {
+	}
+	
+	/**
+	 * Allocates a new bit-set capable of holding {@code size} bits.
+	 *
+	 * @param size the number of bits
+	 * @return the new, cleared bit-set
+	 */
+	static long[] create(int size) {
+		return new long[(size + WORD_SIZE - 1) / WORD_SIZE];
+	}
+	
+	/**
+	 * Returns the bit at the given {@code index}.
+	 *
+	 * @param bits the bit-set
+	 * @param index the index of the bit
+	 * @return {@code true} if the bit is set, {@code false} otherwise
+	 */
+	static boolean get(long[] bits, int index) {
+		return (bits[index >>> 6] & (1L << index)) != 0;
+	}
+	
+	/**
+	 * Sets the bit at the given {@code index}.
+	 *
+	 * @param bits the bit-set
+	 * @param index the index of the bit
+	 */
+	static void set(long[] bits, int index) {
+		bits[index >>> 6] |= 1L << index;
+	}
+	
+	/**
+	 * Clears the bit at the given {@code index}.
+	 *
+	 * @param bits the bit-set
+	 * @param index the index of the bit
+	 */
+	static void clear(long[] bits, int index) {
+		bits[index >>> 6] &= ~(1L << index);
+	}
+	
+	/**
+	 * Sets the bit at the given {@code index} to the given {@code value}.
+	 *
+	 * @param bits the bit-set
+	 * @param index the index of the bit
+	 * @param value the new value of the bit
+	 */
+	static void set(long[] bits, int index, boolean value) {
+		if(value) {
+			set(bits, index);
+		} else {
+			clear(bits, index);
+		}
+	}
+	
+	/**
+	 * Returns the number of set bits.
+	 *
+	 * @param bits the bit-set
+	 * @return the number of set bits
+	 */
+	static int cardinality(long[] bits) {
+		int count = 0;
+		
+		for(long word : bits) {
+			count += Long.bitCount(word);
+		}
+		
+		return count;
+	}
+}
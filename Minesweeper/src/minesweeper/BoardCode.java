@@ -0,0 +1,232 @@
+package minesweeper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * A short code a board can be recreated from. The size of the board, the
+ * number of mines, the seed and the safe field fully determine the layout
+ * generated by a {@link RandomMineGenerator}, so the code holds just those,
+ * in a handful of bytes, rather than the whole layout. No-guess boards
+ * keep the seed of the solvable layout that was found, so they are
+ * recreated without searching again.
+ * <p>
+ * The code is written as URL-safe Base64 of a version byte, the rows, the
+ * columns, the mines and the safe field plus one as variable-length
+ * integers, and the 8 byte seed. The codes of the boards that are not
+ * {@link Topology#SQUARE} have a later version, followed by the topology
+ * byte. Codes are immutable and can be used as keys.
+ *
+ * @author Filip Nemec
+ */
+public final class BoardCode {
+	
+	/** The version of the code of a square board. */
+	private static final int VERSION = 1;
+	
+	/** The version of the code that has the topology after the version byte. */
+	private static final int TOPOLOGY_VERSION = 2;
+	
+	/** The number of rows. */
+	public final int rows;
+	
+	/** The number of columns. */
+	public final int columns;
+	
+	/** The number of mines. */
+	public final int mines;
+	
+	/** The seed of the layout. */
+	public final long seed;
+	
+	/**
+	 * The safe field the layout is generated around, or
+	 * {@code MineGenerator.NO_SAFE_FIELD} if the layout is generated around
+	 * the first field the player clicks on.
+	 */
+	public final int safeField;
+	
+	/** The topology of the board. */
+	public final Topology topology;
+	
+	/**
+	 * Creates a new code of a square board.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @param seed the seed of the layout
+	 * @param safeField the safe field the layout is generated around, or
+	 *        {@code MineGenerator.NO_SAFE_FIELD}
+	 */
+	public BoardCode(int rows, int columns, int mines, long seed, int safeField) {
+		this(rows, columns, mines, seed, safeField, Topology.SQUARE);
+	}
+	
+	/**
+	 * Creates a new code.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @param seed the seed of the layout
+	 * @param safeField the safe field the layout is generated around, or
+	 *        {@code MineGenerator.NO_SAFE_FIELD}
+	 * @param topology the topology of the board
+	 */
+	public BoardCode(int rows, int columns, int mines, long seed, int safeField, Topology topology) {
+		if(rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid board size: " + rows + "x" + columns + ".");
+		}
+		
+		if(mines < 0 || mines >= rows * columns) {
+			throw new IllegalArgumentException("Invalid number of mines: " + mines + ".");
+		}
+		
+		if(safeField < MineGenerator.NO_SAFE_FIELD || safeField >= rows * columns) {
+			throw new IllegalArgumentException("Invalid safe field: " + safeField + ".");
+		}
+		
+		topology.checkShape(rows, columns);
+		
+		this.rows = rows;
+		this.columns = columns;
+		this.mines = mines;
+		this.seed = seed;
+		this.safeField = safeField;
+		this.topology = topology;
+	}
+	
+	/**
+	 * Parses the code.
+	 *
+	 * @param code the code, as returned by {@link #toString()}
+	 * @return the parsed code
+	 * @throws IllegalArgumentException if the code is not valid
+	 */
+	public static BoardCode parse(String code) {
+		ByteBuffer buffer;
+		
+		try {
+			buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(code.trim()));
+		} catch(IllegalArgumentException ex) {
+			throw new IllegalArgumentException("Invalid board code: " + code);
+		}
+		
+		int version = buffer.hasRemaining() ? buffer.get() : -1;
+		if(version != VERSION && version != TOPOLOGY_VERSION) throw new IllegalArgumentException("Invalid board code: " + code);
+		
+		Topology topology = Topology.SQUARE;
+		if(version == TOPOLOGY_VERSION) {
+			int ordinal = buffer.hasRemaining() ? buffer.get() : -1;
+			if(ordinal < 0 || ordinal >= Topology.values().length) throw new IllegalArgumentException("Invalid board code: " + code);
+			
+			topology = Topology.values()[ordinal];
+		}
+		
+		int rows = readVarInt(buffer, code);
+		int columns = readVarInt(buffer, code);
+		int mines = readVarInt(buffer, code);
+		int safeField = readVarInt(buffer, code) - 1;
+		
+		if(buffer.remaining() != Long.BYTES) throw new IllegalArgumentException("Invalid board code: " + code);
+		
+		return new BoardCode(rows, columns, mines, buffer.getLong(), safeField, topology);
+	}
+	
+	/**
+	 * Creates the board. If the code has a safe field, the mines are placed
+	 * right away and the safe field is discovered, leaving the clock to
+	 * start on the first move of the player, otherwise they are placed on
+	 * the first click.
+	 *
+	 * @return the new board
+	 */
+	public MineField createBoard() {
+		MineField field = new MineField(rows, columns, mines, new RandomMineGenerator(seed), topology);
+		
+		if(safeField != MineGenerator.NO_SAFE_FIELD) {
+			field.toggleField(field.rowOf(safeField), field.columnOf(safeField));
+			field.resetClock();
+		}
+		
+		return field;
+	}
+	
+	/**
+	 * Writes the value as a variable-length integer, 7 bits per byte.
+	 *
+	 * @param out the output
+	 * @param value the non-negative value
+	 */
+	private static void writeVarInt(ByteArrayOutputStream out, int value) {
+		for(; value >= 0x80; value >>>= 7) {
+			out.write(value & 0x7F | 0x80);
+		}
+		
+		out.write(value);
+	}
+	
+	/**
+	 * Reads a variable-length integer, 7 bits per byte.
+	 *
+	 * @param buffer the input
+	 * @param code the code being parsed, for the error message
+	 * @return the value
+	 */
+	private static int readVarInt(ByteBuffer buffer, String code) {
+		int value = 0;
+		
+		for(int shift = 0; shift < Integer.SIZE; shift += 7) {
+			if(!buffer.hasRemaining()) break;
+			
+			int b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) return value;
+		}
+		
+		throw new IllegalArgumentException("Invalid board code: " + code);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(rows, columns, mines, seed, safeField, topology);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof BoardCode))
+			return false;
+		BoardCode other = (BoardCode) obj;
+		return rows == other.rows && columns == other.columns && mines == other.mines
+				&& seed == other.seed && safeField == other.safeField && topology == other.topology;
+	}
+	
+	/**
+	 * @return the code
+	 */
+	@Override
+	public String toString() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(24);
+		if(topology == Topology.SQUARE) {
+			out.write(VERSION);
+		} else {
+			out.write(TOPOLOGY_VERSION);
+			out.write(topology.ordinal());
+		}
+		
+		writeVarInt(out, rows);
+		writeVarInt(out, columns);
+		writeVarInt(out, mines);
+		writeVarInt(out, safeField + 1);
+		
+		ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(seed);
+		out.write(buffer.array(), 0, Long.BYTES);
+		
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(out.toByteArray());
+	}
+}
@@ -0,0 +1,118 @@
+package minesweeper;
+
+import java.util.Objects;
+
+/**
+ * The configuration of a new board: its size, the number of mines, the
+ * way the mines are placed and the way the fields are connected.
+ * Configurations are immutable and can be used as keys.
+ *
+ * @author Filip Nemec
+ */
+public final class BoardConfiguration {
+	
+	/** The number of rows. */
+	public final int rows;
+	
+	/** The number of columns. */
+	public final int columns;
+	
+	/** The number of mines. */
+	public final int mines;
+	
+	/** The way the mines are placed. */
+	public final GenerationMode mode;
+	
+	/** The way the fields are connected. */
+	public final Topology topology;
+	
+	/**
+	 * Creates a new configuration of a square board.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @param mode the way the mines are placed
+	 */
+	public BoardConfiguration(int rows, int columns, int mines, GenerationMode mode) {
+		this(rows, columns, mines, mode, Topology.SQUARE);
+	}
+	
+	/**
+	 * Creates a new configuration.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @param mode the way the mines are placed
+	 * @param topology the way the fields are connected
+	 */
+	public BoardConfiguration(int rows, int columns, int mines, GenerationMode mode, Topology topology) {
+		this.rows = rows;
+		this.columns = columns;
+		this.mines = mines;
+		this.mode = Objects.requireNonNull(mode);
+		this.topology = Objects.requireNonNull(topology);
+	}
+	
+	/**
+	 * Creates a new board that is ready to be played.
+	 * <p>
+	 * Random boards place their mines on the first click, which keeps the
+	 * first click safe wherever it is. A no-guess board has to be checked
+	 * from a known starting field, which is potentially expensive, so the
+	 * layout is generated here, around the center of the board, and the
+	 * center is already discovered when the board is handed out, with the
+	 * clock still at zero until the player makes a move. The board
+	 * then places the layout again from the seed it was found with, which
+	 * costs next to nothing, so the board knows its seed like any other.
+	 * The number of layouts the search tried, and whether it found one in
+	 * time, are kept with the board.
+	 *
+	 * @return the new board
+	 */
+	public GeneratedBoard createBoard() {
+		MineGenerator generator = mode.createGenerator();
+		if(mode == GenerationMode.RANDOM) return new GeneratedBoard(new MineField(rows, columns, mines, generator, topology), 0, 0, true);
+		
+		NoGuessMineGenerator search = (NoGuessMineGenerator) generator;
+		int row = rows / 2;
+		int column = columns / 2;
+		
+		long start = Metrics.time();
+		search.generate(topology, rows, columns, mines, row * columns + column);
+		if(Metrics.ENABLED) {
+			Metrics.NO_GUESS_SEARCH_TIME.recordSince(start);
+			Metrics.NO_GUESS_ATTEMPTS.record(search.getLastAttempts());
+			Metrics.NO_GUESS_RATE.record(Math.round(search.getAttemptsPerSecond()));
+		}
+		
+		MineField field = new MineField(rows, columns, mines, new RandomMineGenerator(search.getSeed()), topology);
+		field.toggleField(row, column);
+		field.resetClock();
+		
+		return new GeneratedBoard(field, search.getLastAttempts(), search.getAttemptsPerSecond(), search.isLastGuaranteed());
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(rows, columns, mines, mode, topology);
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof BoardConfiguration))
+			return false;
+		BoardConfiguration other = (BoardConfiguration) obj;
+		return rows == other.rows && columns == other.columns && mines == other.mines && mode == other.mode
+				&& topology == other.topology;
+	}
+	
+	@Override
+	public String toString() {
+		String text = rows + "x" + columns + ", " + mines + " mines, " + mode;
+		return topology == Topology.SQUARE ? text : text + ", " + topology;
+	}
+}
@@ -0,0 +1,106 @@
+package minesweeper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Generates boards in the background, so that a new game can start
+ * without waiting for its board to be generated.
+ * <p>
+ * Every time a board is taken, the next board of the same configuration
+ * starts generating right away. One board is kept ready for each of the
+ * most recently used configurations; when there are too many of them, the
+ * least recently used one is dropped. Only the {@link GenerationMode#NO_GUESS}
+ * boards are worth keeping ready: a random board places its mines on the
+ * first click, so creating it is just allocating its bit-sets, and it is
+ * created on the spot instead of waiting behind a search.
+ *
+ * @author Filip Nemec
+ */
+public class BoardPrefetcher {
+	
+	/** The default number of configurations kept ready. */
+	public static final int DEFAULT_CAPACITY = 4;
+	
+	/** The executor the boards are generated on. */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "board-prefetcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/** The boards kept ready, by configuration, in the order of use. */
+	private final Map<BoardConfiguration, CompletableFuture<GeneratedBoard>> boards;
+	
+	/**
+	 * Creates a new prefetcher with the default capacity.
+	 */
+	public BoardPrefetcher() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Creates a new prefetcher.
+	 *
+	 * @param capacity the number of configurations kept ready
+	 */
+	public BoardPrefetcher(int capacity) {
+		this.boards = new LinkedHashMap<>(16, 0.75f, true) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<BoardConfiguration, CompletableFuture<GeneratedBoard>> eldest) {
+				if(size() <= capacity) return false;
+				
+				eldest.getValue().cancel(false);
+				return true;
+			}
+		};
+	}
+	
+	/**
+	 * Takes the board of the given configuration and starts generating
+	 * the next one. If no board is ready, one is generated first.
+	 *
+	 * @param configuration the configuration of the board
+	 * @return the board, once it is ready
+	 */
+	public synchronized CompletableFuture<GeneratedBoard> take(BoardConfiguration configuration) {
+		if(configuration.mode == GenerationMode.RANDOM) return CompletableFuture.completedFuture(configuration.createBoard());
+		
+		CompletableFuture<GeneratedBoard> board = boards.remove(configuration);
+		if(board == null) board = generate(configuration);
+		
+		boards.put(configuration, generate(configuration));
+		return board;
+	}
+	
+	/**
+	 * Starts generating the board of the given configuration, unless one
+	 * is already being kept ready or it is a random board.
+	 *
+	 * @param configuration the configuration of the board
+	 */
+	public synchronized void prefetch(BoardConfiguration configuration) {
+		if(configuration.mode == GenerationMode.RANDOM) return;
+		
+		boards.computeIfAbsent(configuration, this::generate);
+	}
+	
+	private CompletableFuture<GeneratedBoard> generate(BoardConfiguration configuration) {
+		return CompletableFuture.supplyAsync(configuration::createBoard, executor);
+	}
+	
+	/**
+	 * Drops all of the boards kept ready and stops generating new ones.
+	 */
+	public synchronized void shutdown() {
+		boards.values().forEach(board -> board.cancel(false));
+		boards.clear();
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,157 @@
+package minesweeper;
+
+import java.util.List;
+
+/**
+ * The fields changed by one or more player actions, together with their
+ * new states, published by the {@link GameEngine} for the views.
+ * Unlike a {@link MineFieldEvent}, a change set carries everything the
+ * views need, so they never have to look at the model, which is owned by
+ * the engine thread.
+ * <p>
+ * Change sets are immutable.
+ *
+ * @author Filip Nemec
+ */
+public final class ChangeSet {
+	
+	/** The indices of the changed fields. */
+	private final int[] fields;
+	
+	/** The new states of the changed fields, see {@link FieldState}. */
+	private final byte[] states;
+	
+	/** The number of discovered fields after the change. */
+	private final int discoveredCount;
+	
+	/** The number of flags after the change. */
+	private final int flagCount;
+	
+	/** Flag indicating whether the player stepped on a mine in this change. */
+	private final boolean explosion;
+	
+	/**
+	 * Constructs a new change set. The arrays are not copied and must not
+	 * be modified afterwards.
+	 *
+	 * @param fields the indices of the changed fields
+	 * @param states the new states of the changed fields
+	 * @param discoveredCount the number of discovered fields after the change
+	 * @param flagCount the number of flags after the change
+	 * @param explosion {@code true} if the player stepped on a mine
+	 */
+	ChangeSet(int[] fields, byte[] states, int discoveredCount, int flagCount, boolean explosion) {
+		this.fields = fields;
+		this.states = states;
+		this.discoveredCount = discoveredCount;
+		this.flagCount = flagCount;
+		this.explosion = explosion;
+	}
+	
+	/**
+	 * Creates the change set describing the event, reading the new states
+	 * from the mine-field that fired it.
+	 *
+	 * @param event the change of the mine-field
+	 * @return the change set
+	 */
+	static ChangeSet of(MineFieldEvent event) {
+		MineField field = event.getSource();
+		int count = event.getChangedFieldCount();
+		int[] fields = new int[count];
+		byte[] states = new byte[count];
+		
+		for(int i = 0; i < count; i++) {
+			fields[i] = event.getChangedField(i);
+			states[i] = FieldState.of(field, fields[i]);
+		}
+		
+		return new ChangeSet(fields, states, event.getDiscoveredCount(), event.getFlagCount(),
+				event.getType() == MineFieldEvent.Type.EXPLODE);
+	}
+	
+	/**
+	 * Merges the consecutive change sets into one. A field changed more
+	 * than once appears more than once, and the later state wins when the
+	 * changes are applied in order.
+	 *
+	 * @param changes the change sets, in the order they happened
+	 * @return the merged change set
+	 */
+	static ChangeSet merge(List<ChangeSet> changes) {
+		if(changes.size() == 1) return changes.get(0);
+		
+		int count = 0;
+		boolean explosion = false;
+		
+		for(ChangeSet change : changes) {
+			count += change.fields.length;
+			explosion |= change.explosion;
+		}
+		
+		int[] fields = new int[count];
+		byte[] states = new byte[count];
+		int offset = 0;
+		
+		for(ChangeSet change : changes) {
+			System.arraycopy(change.fields, 0, fields, offset, change.fields.length);
+			System.arraycopy(change.states, 0, states, offset, change.states.length);
+			offset += change.fields.length;
+		}
+		
+		ChangeSet last = changes.get(changes.size() - 1);
+		return new ChangeSet(fields, states, last.discoveredCount, last.flagCount, explosion);
+	}
+	
+	/**
+	 * @return the number of changed fields
+	 */
+	public int getChangedFieldCount() {
+		return fields.length;
+	}
+	
+	/**
+	 * @param i the position of the changed field, from 0 to
+	 *        {@link #getChangedFieldCount()} - 1
+	 * @return the index of the changed field
+	 */
+	public int getChangedField(int i) {
+		return fields[i];
+	}
+	
+	/**
+	 * @param i the position of the changed field, from 0 to
+	 *        {@link #getChangedFieldCount()} - 1
+	 * @return the new state of the changed field, see {@link FieldState}
+	 */
+	public byte getState(int i) {
+		return states[i];
+	}
+	
+	/**
+	 * @return the number of discovered fields after the change
+	 */
+	public int getDiscoveredCount() {
+		return discoveredCount;
+	}
+	
+	/**
+	 * @return the number of flags after the change
+	 */
+	public int getFlagCount() {
+		return flagCount;
+	}
+	
+	/**
+	 * @return {@code true} if the player stepped on a mine in this change
+	 */
+	public boolean isExplosion() {
+		return explosion;
+	}
+	
+	@Override
+	public String toString() {
+		return "ChangeSet[" + fields.length + " fields, discovered=" + discoveredCount + ", flags=" + flagCount
+				+ (explosion ? ", explosion" : "") + "]";
+	}
+}
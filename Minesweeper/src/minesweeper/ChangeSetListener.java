@@ -0,0 +1,18 @@
+package minesweeper;
+
+/**
+ * Listens to the change sets published by the {@link GameEngine}. The
+ * listeners are always notified on the event dispatch thread.
+ *
+ * @author Filip Nemec
+ */
+public interface ChangeSetListener {
+	
+	/**
+	 * Called on the event dispatch thread with the changes made since the
+	 * last call, after the state of the engine has been updated.
+	 *
+	 * @param changes the changes
+	 */
+	void onChange(ChangeSet changes);
+}
@@ -0,0 +1,630 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A headless model of a mine-field without borders. The board is split
+ * into chunks of {@value #CHUNK_SIZE}x{@value #CHUNK_SIZE} fields, which
+ * are only created once something reaches them: the flood fill, a player
+ * action, or a view asking for the state of one of their fields. The
+ * mines of a chunk are generated from the seed of the board and the
+ * coordinates of the chunk alone, so any chunk can be dropped and
+ * generated again with the very same mines.
+ * <p>
+ * Every row of a chunk is a single {@code long} word in each of the
+ * bit-sets, like the bit-sets of {@link MineField}. Only a limited number
+ * of chunks are kept as they are. Once there are more, the least recently
+ * used one is evicted: a chunk the player has not touched is simply
+ * dropped, and the flags and discovered fields of the other ones are kept
+ * compressed. The memory taken by the board thus grows with the explored
+ * area only.
+ * <p>
+ * The fields around the origin are never mines, so the game starts by
+ * discovering the origin. The mine density is bounded from below, since
+ * on a sparse enough board the empty areas join into one that never ends,
+ * and so would the flood fill.
+ * <p>
+ * The model is not thread-safe; it is meant to be used by a single
+ * thread, usually the event dispatch thread.
+ *
+ * @author Filip Nemec
+ */
+public class EndlessMineField {
+	
+	/** The number of bits a coordinate is shifted by to get the chunk coordinate. */
+	private static final int CHUNK_SHIFT = 6;
+	
+	/** The number of rows and columns in a single chunk. */
+	public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	
+	/** The mask of the coordinate within its chunk. */
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	
+	/**
+	 * The smallest allowed mine density. Below roughly 12%, the empty
+	 * fields form an area without end.
+	 */
+	public static final double MIN_DENSITY = 0.15;
+	
+	/** The default mine density, a bit below that of the expert board. */
+	public static final double DEFAULT_DENSITY = 0.18;
+	
+	/** The largest allowed mine density. */
+	public static final double MAX_DENSITY = 0.5;
+	
+	/** The default number of chunks kept uncompressed. */
+	public static final int DEFAULT_HOT_CHUNKS = 1024;
+	
+	/** The seed the mines are generated from. */
+	private final long seed;
+	
+	/** The number of mines in every chunk. */
+	private final int minesPerChunk;
+	
+	/** The uncompressed chunks, from the least to the most recently used. */
+	private final Map<Long, Chunk> hot;
+	
+	/** The flags and the discovered fields of the evicted chunks, compressed. */
+	private final Map<Long, byte[]> cold = new HashMap<>();
+	
+	/** The total size of the compressed chunks, in bytes. */
+	private long coldBytes;
+	
+	/** The key of the chunk last looked up. */
+	private long lastKey;
+	
+	/** The chunk last looked up, or {@code null}. */
+	private Chunk lastChunk;
+	
+	/** The stack of the fields still to be expanded by the flood fill. */
+	private long[] stack = new long[256];
+	
+	/** Compresses the evicted chunks. */
+	private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+	
+	/** Decompresses the chunks being used again. */
+	private final Inflater inflater = new Inflater();
+	
+	/** The buffer chunks are compressed from and decompressed to. */
+	private final byte[] buffer = new byte[2 * CHUNK_SIZE * Long.BYTES];
+	
+	/** The number of discovered fields. */
+	private long discoveredCount;
+	
+	/** The number of flags. */
+	private long flagCount;
+	
+	/** Flag indicating whether the player has stepped on a mine. */
+	private boolean exploded;
+	
+	/** The row of the mine the player has stepped on. */
+	private int explodedRow;
+	
+	/** The column of the mine the player has stepped on. */
+	private int explodedColumn;
+	
+	/**
+	 * Constructs a new endless board and discovers its origin.
+	 *
+	 * @param seed the seed the mines are generated from
+	 * @param density the share of the fields that are mines, from
+	 *        {@value #MIN_DENSITY} to {@value #MAX_DENSITY}
+	 */
+	public EndlessMineField(long seed, double density) {
+		this(seed, density, DEFAULT_HOT_CHUNKS);
+	}
+	
+	/**
+	 * Constructs a new endless board and discovers its origin.
+	 *
+	 * @param seed the seed the mines are generated from
+	 * @param density the share of the fields that are mines, from
+	 *        {@value #MIN_DENSITY} to {@value #MAX_DENSITY}
+	 * @param hotLimit the largest number of chunks kept uncompressed
+	 */
+	public EndlessMineField(long seed, double density, int hotLimit) {
+		if(!(density >= MIN_DENSITY && density <= MAX_DENSITY)) {
+			throw new IllegalArgumentException("Mine density must be from " + MIN_DENSITY + " to " + MAX_DENSITY + ", was " + density + ".");
+		}
+		
+		if(hotLimit < 16) throw new IllegalArgumentException("At least 16 chunks have to be kept, was " + hotLimit + ".");
+		
+		this.seed = seed;
+		this.minesPerChunk = (int) Math.round(density * CHUNK_SIZE * CHUNK_SIZE);
+		this.hot = new LinkedHashMap<>(64, 0.75f, true) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+				if(size() <= hotLimit) return false;
+				
+				evict(eldest.getKey(), eldest.getValue());
+				return true;
+			}
+		};
+		
+		toggleField(0, 0);
+	}
+	
+	//------------------------------------------------------------
+	//							Chunks
+	//------------------------------------------------------------
+	
+	/**
+	 * A single chunk of the board.
+	 */
+	private static final class Chunk {
+		
+		/** Bit-set of the mines, one word per row. */
+		final long[] mines = new long[CHUNK_SIZE];
+		
+		/** Bit-set of the flags, one word per row, or {@code null} if there are none yet. */
+		long[] flags;
+		
+		/** Bit-set of the discovered fields, one word per row, or {@code null} if there are none yet. */
+		long[] discovered;
+	}
+	
+	/**
+	 * @param chunkRow the row of the chunk
+	 * @param chunkColumn the column of the chunk
+	 * @return the key of the chunk
+	 */
+	private static long keyOf(int chunkRow, int chunkColumn) {
+		return (long) chunkRow << 32 | chunkColumn & 0xFFFFFFFFL;
+	}
+	
+	/**
+	 * Returns the chunk holding the given field, creating it if needed.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the chunk
+	 */
+	private Chunk chunk(int row, int column) {
+		long key = keyOf(row >> CHUNK_SHIFT, column >> CHUNK_SHIFT);
+		if(lastChunk != null && lastKey == key) return lastChunk;
+		
+		Chunk chunk = hot.get(key);
+		if(chunk == null) {
+			chunk = create(row >> CHUNK_SHIFT, column >> CHUNK_SHIFT, key);
+			hot.put(key, chunk);
+		}
+		
+		lastKey = key;
+		lastChunk = chunk;
+		return chunk;
+	}
+	
+	/**
+	 * Creates the chunk: generates its mines and restores its flags and
+	 * discovered fields, if it has been evicted before.
+	 *
+	 * @param chunkRow the row of the chunk
+	 * @param chunkColumn the column of the chunk
+	 * @param key the key of the chunk
+	 * @return the new chunk
+	 */
+	private Chunk create(int chunkRow, int chunkColumn, long key) {
+		Chunk chunk = new Chunk();
+		generate(chunk.mines, chunkRow, chunkColumn);
+		
+		byte[] compressed = cold.remove(key);
+		if(compressed != null) {
+			coldBytes -= compressed.length;
+			decompress(compressed, chunk);
+		}
+		
+		return chunk;
+	}
+	
+	/**
+	 * Generates the mines of the chunk from the seed of the board and the
+	 * coordinates of the chunk, using Floyd's algorithm. The fields around
+	 * the origin are cleared afterwards.
+	 *
+	 * @param mines the bit-set of the mines
+	 * @param chunkRow the row of the chunk
+	 * @param chunkColumn the column of the chunk
+	 */
+	private void generate(long[] mines, int chunkRow, int chunkColumn) {
+		SplittableRandom random = new SplittableRandom(seed ^ chunkRow * 0x9E3779B97F4A7C15L ^ chunkColumn * 0xC2B2AE3D27D4EB4FL);
+		int fieldCount = CHUNK_SIZE * CHUNK_SIZE;
+		
+		for(int j = fieldCount - minesPerChunk; j < fieldCount; j++) {
+			int index = random.nextInt(j + 1);
+			if(Bits.get(mines, index)) index = j;
+			Bits.set(mines, index);
+		}
+		
+		for(int r = -1; r <= 1; r++) {
+			for(int c = -1; c <= 1; c++) {
+				if(r >> CHUNK_SHIFT == chunkRow && c >> CHUNK_SHIFT == chunkColumn) {
+					mines[r & CHUNK_MASK] &= ~(1L << (c & CHUNK_MASK));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Evicts the chunk. A chunk the player has not touched is simply
+	 * dropped, the flags and the discovered fields of the other ones are
+	 * compressed.
+	 *
+	 * @param key the key of the chunk
+	 * @param chunk the chunk
+	 */
+	private void evict(long key, Chunk chunk) {
+		if(chunk == lastChunk) lastChunk = null;
+		
+		if(chunk.flags != null || chunk.discovered != null) {
+			byte[] compressed = compress(chunk);
+			cold.put(key, compressed);
+			coldBytes += compressed.length;
+		}
+	}
+	
+	/**
+	 * @param chunk the chunk
+	 * @return the flags and the discovered fields of the chunk, compressed
+	 */
+	private byte[] compress(Chunk chunk) {
+		Arrays.fill(buffer, (byte) 0);
+		put(chunk.flags, 0);
+		put(chunk.discovered, CHUNK_SIZE * Long.BYTES);
+		
+		deflater.reset();
+		deflater.setInput(buffer);
+		deflater.finish();
+		
+		byte[] compressed = new byte[buffer.length + 64];
+		int length = deflater.deflate(compressed);
+		
+		return Arrays.copyOf(compressed, length);
+	}
+	
+	/**
+	 * Restores the flags and the discovered fields of the chunk.
+	 *
+	 * @param compressed the compressed flags and discovered fields
+	 * @param chunk the chunk
+	 */
+	private void decompress(byte[] compressed, Chunk chunk) {
+		inflater.reset();
+		inflater.setInput(compressed);
+		
+		try {
+			inflater.inflate(buffer);
+		} catch(DataFormatException ex) {
+			throw new IllegalStateException("Corrupted chunk.", ex);
+		}
+		
+		chunk.flags = get(0);
+		chunk.discovered = get(CHUNK_SIZE * Long.BYTES);
+	}
+	
+	/**
+	 * Copies the bit-set into the buffer.
+	 *
+	 * @param bits the bit-set, or {@code null} if empty
+	 * @param offset the offset in the buffer
+	 */
+	private void put(long[] bits, int offset) {
+		if(bits == null) return;
+		
+		for(int i = 0; i < CHUNK_SIZE; i++) {
+			for(int b = 0; b < Long.BYTES; b++) {
+				buffer[offset + i * Long.BYTES + b] = (byte) (bits[i] >>> 8 * b);
+			}
+		}
+	}
+	
+	/**
+	 * Copies a bit-set out of the buffer.
+	 *
+	 * @param offset the offset in the buffer
+	 * @return the bit-set, or {@code null} if empty
+	 */
+	private long[] get(int offset) {
+		long[] bits = new long[CHUNK_SIZE];
+		boolean empty = true;
+		
+		for(int i = 0; i < CHUNK_SIZE; i++) {
+			for(int b = 0; b < Long.BYTES; b++) {
+				bits[i] |= (buffer[offset + i * Long.BYTES + b] & 0xFFL) << 8 * b;
+			}
+			
+			empty &= bits[i] == 0;
+		}
+		
+		return empty ? null : bits;
+	}
+	
+	//------------------------------------------------------------
+	//						  Field state
+	//------------------------------------------------------------
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return {@code true} if the field is a mine
+	 */
+	public boolean isMine(int row, int column) {
+		return (chunk(row, column).mines[row & CHUNK_MASK] & 1L << column) != 0;
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return {@code true} if the field is flagged
+	 */
+	public boolean isFlagged(int row, int column) {
+		long[] flags = chunk(row, column).flags;
+		return flags != null && (flags[row & CHUNK_MASK] & 1L << column) != 0;
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return {@code true} if the field has been discovered
+	 */
+	public boolean isDiscovered(int row, int column) {
+		long[] discovered = chunk(row, column).discovered;
+		return discovered != null && (discovered[row & CHUNK_MASK] & 1L << column) != 0;
+	}
+	
+	/**
+	 * Returns the number of mines around the given field. The mines of the
+	 * neighbouring chunks are generated if needed.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the number of mines around the field
+	 */
+	public int getMineCountAround(int row, int column) {
+		int count = 0;
+		
+		for(int r = row - 1; r <= row + 1; r++) {
+			for(int c = column - 1; c <= column + 1; c++) {
+				if(isMine(r, c)) count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Returns the state the field is displayed in. Once the player has
+	 * stepped on a mine, the mines and the wrong flags are revealed.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the state of the field, see {@link FieldState}
+	 */
+	public byte getState(int row, int column) {
+		if(isDiscovered(row, column)) return (byte) getMineCountAround(row, column);
+		
+		if(exploded) {
+			boolean mine = isMine(row, column);
+			
+			if(isFlagged(row, column)) return mine ? FieldState.FLAGGED : FieldState.WRONG_FLAG;
+			if(mine) return row == explodedRow && column == explodedColumn ? FieldState.EXPLODED : FieldState.MINE;
+		}
+		
+		return isFlagged(row, column) ? FieldState.FLAGGED : FieldState.UNDISCOVERED;
+	}
+	
+	//------------------------------------------------------------
+	//						Player actions
+	//------------------------------------------------------------
+	
+	/**
+	 * Discovers the given field, unless it has already been discovered or
+	 * is flagged. If there are no mines around it, the area around it is
+	 * flood filled, across as many chunks as it takes.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void toggleField(int row, int column) {
+		if(exploded || isDiscovered(row, column) || isFlagged(row, column)) return;
+		
+		if(isMine(row, column)) {
+			explode(row, column);
+		} else {
+			setDiscovered(row, column);
+			stack[0] = pack(row, column);
+			flood(1);
+		}
+	}
+	
+	/**
+	 * Toggles the flag on the given field, unless it has been discovered.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void toggleFlag(int row, int column) {
+		if(exploded || isDiscovered(row, column)) return;
+		
+		Chunk chunk = chunk(row, column);
+		if(chunk.flags == null) chunk.flags = new long[CHUNK_SIZE];
+		
+		chunk.flags[row & CHUNK_MASK] ^= 1L << column;
+		flagCount += (chunk.flags[row & CHUNK_MASK] & 1L << column) != 0 ? 1 : -1;
+	}
+	
+	/**
+	 * Chords the discovered number on the given field: if as many of its
+	 * neighbours are flagged as there are mines around it, all of its other
+	 * undiscovered neighbours are discovered in a single flood fill. If any
+	 * of the flags is wrong, the player steps on a mine.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void chord(int row, int column) {
+		if(exploded || !isDiscovered(row, column)) return;
+		
+		int mineCount = getMineCountAround(row, column);
+		int flagged = 0;
+		int seeds = 0;
+		
+		for(int r = row - 1; r <= row + 1; r++) {
+			for(int c = column - 1; c <= column + 1; c++) {
+				if(isFlagged(r, c)) {
+					flagged++;
+				} else if(!isDiscovered(r, c)) {
+					stack[seeds++] = pack(r, c);
+				}
+			}
+		}
+		
+		if(mineCount == 0 || flagged != mineCount || seeds == 0) return;
+		
+		for(int i = 0; i < seeds; i++) {
+			int r = (int) (stack[i] >> 32);
+			int c = (int) stack[i];
+			
+			if(isMine(r, c)) {
+				explode(r, c);
+				return;
+			}
+		}
+		
+		for(int i = 0; i < seeds; i++) {
+			setDiscovered((int) (stack[i] >> 32), (int) stack[i]);
+		}
+		
+		flood(seeds);
+	}
+	
+	/**
+	 * Flood fills from the seeds at the bottom of the stack, which have
+	 * already been marked as discovered. Fields are marked as discovered as
+	 * soon as they are pushed, so no field is pushed twice.
+	 *
+	 * @param seeds the number of seeds on the stack
+	 */
+	private void flood(int seeds) {
+		int size = seeds;
+		
+		while(size > 0) {
+			long field = stack[--size];
+			int row = (int) (field >> 32);
+			int column = (int) field;
+			
+			if(getMineCountAround(row, column) != 0) continue;
+			
+			for(int r = row - 1; r <= row + 1; r++) {
+				for(int c = column - 1; c <= column + 1; c++) {
+					if(isDiscovered(r, c) || isFlagged(r, c)) continue;
+					
+					setDiscovered(r, c);
+					if(size == stack.length) stack = Arrays.copyOf(stack, size * 2);
+					stack[size++] = pack(r, c);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Marks the field as discovered.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	private void setDiscovered(int row, int column) {
+		Chunk chunk = chunk(row, column);
+		if(chunk.discovered == null) chunk.discovered = new long[CHUNK_SIZE];
+		
+		chunk.discovered[row & CHUNK_MASK] |= 1L << column;
+		discoveredCount++;
+	}
+	
+	/**
+	 * Steps on the mine. The mines are revealed lazily, by
+	 * {@link #getState(int, int)}.
+	 *
+	 * @param row the row of the mine
+	 * @param column the column of the mine
+	 */
+	private void explode(int row, int column) {
+		exploded = true;
+		explodedRow = row;
+		explodedColumn = column;
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the field packed into a single {@code long}
+	 */
+	private static long pack(int row, int column) {
+		return (long) row << 32 | column & 0xFFFFFFFFL;
+	}
+	
+	//------------------------------------------------------------
+	//							Getters
+	//------------------------------------------------------------
+	
+	/**
+	 * @return the seed the mines are generated from
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * @return the number of discovered fields
+	 */
+	public long getDiscoveredCount() {
+		return discoveredCount;
+	}
+	
+	/**
+	 * @return the number of flags
+	 */
+	public long getFlagCount() {
+		return flagCount;
+	}
+	
+	/**
+	 * @return {@code true} if the player has stepped on a mine
+	 */
+	public boolean isExploded() {
+		return exploded;
+	}
+	
+	/**
+	 * @return the number of chunks kept uncompressed
+	 */
+	public int getHotChunkCount() {
+		return hot.size();
+	}
+	
+	/**
+	 * @return the number of evicted chunks kept compressed
+	 */
+	public int getColdChunkCount() {
+		return cold.size();
+	}
+	
+	/**
+	 * Estimates the memory taken by this board, in bytes.
+	 *
+	 * @return the estimated size
+	 */
+	public long footprint() {
+		long chunk = 64 + 3 * (16 + CHUNK_SIZE * Long.BYTES);
+		return hot.size() * chunk + coldBytes + cold.size() * 64L + stack.length * (long) Long.BYTES;
+	}
+}
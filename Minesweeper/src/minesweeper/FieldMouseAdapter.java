@@ -0,0 +1,87 @@
+package minesweeper;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Turns the mouse clicks on a field into the player actions: the left
+ * button discovers the field, the right button flags it, and the middle
+ * button, or both the left and the right button pressed together, chords
+ * it.
+ * <p>
+ * A chord with both buttons is made once both of them are released, and
+ * the clicks of the two buttons are then ignored.
+ *
+ * @author Filip Nemec
+ */
+abstract class FieldMouseAdapter extends MouseAdapter {
+	
+	/** The mask of both of the buttons that chord together. */
+	private static final int BOTH_BUTTONS = MouseEvent.BUTTON1_DOWN_MASK | MouseEvent.BUTTON3_DOWN_MASK;
+	
+	/** Flag indicating whether both of the buttons are being held. */
+	private boolean chording;
+	
+	/** Flag indicating whether the clicks of the last chord are still to be ignored. */
+	private boolean chorded;
+	
+	@Override
+	public void mousePressed(MouseEvent e) {
+		int buttons = e.getModifiersEx() & BOTH_BUTTONS;
+		
+		if(buttons == BOTH_BUTTONS) {
+			chording = true;
+		} else if(!chording) {
+			chorded = false;
+		}
+	}
+	
+	@Override
+	public void mouseReleased(MouseEvent e) {
+		if(chording && (e.getModifiersEx() & BOTH_BUTTONS) == 0) {
+			chording = false;
+			chorded = true;
+			
+			if(Metrics.ENABLED) Metrics.clicked();
+			chord(e);
+		}
+	}
+	
+	@Override
+	public void mouseClicked(MouseEvent e) {
+		if(chording || chorded) return;
+		if(Metrics.ENABLED) Metrics.clicked();
+		
+		if(e.getButton() == MouseEvent.BUTTON1) {
+			reveal(e);
+			
+		} else if(e.getButton() == MouseEvent.BUTTON2) {
+			chord(e);
+			
+		} else if(e.getButton() == MouseEvent.BUTTON3) {
+			flag(e);
+			
+		}
+	}
+	
+	/**
+	 * Discovers the field that was clicked.
+	 *
+	 * @param e the mouse event
+	 */
+	abstract void reveal(MouseEvent e);
+	
+	/**
+	 * Toggles the flag on the field that was clicked.
+	 *
+	 * @param e the mouse event
+	 */
+	abstract void flag(MouseEvent e);
+	
+	/**
+	 * Chords the field that was clicked.
+	 *
+	 * @param e the mouse event
+	 */
+	abstract void chord(MouseEvent e);
+}
@@ -0,0 +1,57 @@
+package minesweeper;
+
+/**
+ * The states a field can be displayed in, encoded in a single byte so
+ * that whole boards of them can be copied around cheaply. A discovered
+ * field that is not a mine is encoded as the number of mines around it,
+ * from 0 to {@link Topology#MAX_NEIGHBOURS}; the other states follow, so
+ * that no count of any topology is mistaken for one of them.
+ *
+ * @author Filip Nemec
+ */
+public final class FieldState {
+	
+	/** The field has not been discovered. */
+	public static final byte UNDISCOVERED = Topology.MAX_NEIGHBOURS + 1;
+	
+	/** The field has not been discovered and is flagged. */
+	public static final byte FLAGGED = UNDISCOVERED + 1;
+	
+	/** The field has been revealed as a mine. */
+	public static final byte MINE = UNDISCOVERED + 2;
+	
+	/** The mine the player has stepped on. */
+	public static final byte EXPLODED = UNDISCOVERED + 3;
+	
+	/** The field is flagged, but has been revealed not to be a mine. */
+	public static final byte WRONG_FLAG = UNDISCOVERED + 4;
+	
+	/**
+	 * Disable instantiation.
+	 */
+	private FieldState() {}
+	
+	/**
+	 * Returns the state the field of the mine-field is displayed in.
+	 *
+	 * @param field the mine-field
+	 * @param index the index of the field
+	 * @return the state of the field
+	 */
+	public static byte of(MineField field, int index) {
+		if(!field.isDiscovered(index)) return field.isFlagged(index) ? FLAGGED : UNDISCOVERED;
+		if(field.isWrongFlag(index)) return WRONG_FLAG;
+		if(field.isMine(index)) return index == field.getExplodedField() ? EXPLODED : MINE;
+		
+		return (byte) field.getMineCountAround(index);
+	}
+	
+	/**
+	 * @param state the state of the field
+	 * @return {@code true} if the state is a discovered field that is not
+	 *         a mine
+	 */
+	public static boolean isDiscovered(byte state) {
+		return state < UNDISCOVERED;
+	}
+}
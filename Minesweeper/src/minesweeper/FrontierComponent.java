@@ -0,0 +1,530 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+
+/**
+ * An independent part of the frontier: a set of undiscovered fields
+ * together with all of the constraints (discovered numbers) that mention
+ * them. No constraint of one component mentions a field of another, so
+ * the components can be solved separately, and in parallel.
+ * <p>
+ * The component is solved by enumerating every mine assignment of its
+ * fields that satisfies all of its constraints.
+ * <p>
+ * For the mine probabilities, the solutions are also weighed by the number
+ * of mines they have, since a solution with fewer mines leaves more of them
+ * to the rest of the board. Small components are weighed exactly; the
+ * components with too many solutions to enumerate are sampled instead,
+ * drawing one field after another from the exact odds of its values.
+ *
+ * @author Filip Nemec
+ */
+final class FrontierComponent {
+	
+	/** The board indices of the fields of this component. */
+	final int[] fields;
+	
+	/** For every constraint, the local indices of the fields it mentions. */
+	private final int[][] constraintFields;
+	
+	/** For every constraint, the number of mines among its fields. */
+	private final int[] constraintMines;
+	
+	/** For every field, the indices of the constraints that mention it. */
+	private final int[][] fieldConstraints;
+	
+	/** The number of the assignments that satisfy all of the constraints. */
+	long solutions;
+	
+	/** For every field, the number of the solutions it is a mine in. */
+	final long[] mineSolutions;
+	
+	/** The current value of every field while enumerating. */
+	private final boolean[] assignment;
+	
+	/** The number of fields assigned so far, for every constraint. */
+	private final int[] assigned;
+	
+	/** The number of mines assigned so far, for every constraint. */
+	private final int[] assignedMines;
+	
+	/** The smallest number of mines of the solutions weighed. */
+	int minMines;
+	
+	/**
+	 * For every number of mines from {@link #minMines}, the relative number
+	 * of the solutions with that many mines.
+	 */
+	double[] ways;
+	
+	/**
+	 * For every number of mines from {@link #minMines}, the relative number
+	 * of the solutions with that many mines every field is a mine in, or
+	 * {@code null} if there are no such solutions.
+	 */
+	double[][] fieldWays;
+	
+	/** Whether the weights have been counted exactly rather than sampled. */
+	boolean exact;
+	
+	/** The number of steps left before the weighing gives up. */
+	private long steps;
+	
+	/** The local indices of the fields in the order they are sampled, or {@code null} if not found yet. */
+	private int[] order;
+	
+	/** For every layer of the order, the constraints mentioning a field before it and a field in it or after it. */
+	private int[][] open;
+	
+	/** For every constraint, the number of bits its number of mines takes. */
+	private int[] bits;
+	
+	/**
+	 * For every layer, by the mines of its open constraints, the logarithm
+	 * of the weight counted while sampling, and the probability of a mine on
+	 * the field of the layer.
+	 */
+	private List<Map<Long, double[]>> memo;
+	
+	/**
+	 * Creates a new component.
+	 *
+	 * @param fields the board indices of the fields
+	 * @param constraintFields for every constraint, the local indices of
+	 *        the fields it mentions
+	 * @param constraintMines for every constraint, the number of mines
+	 *        among its fields
+	 */
+	FrontierComponent(int[] fields, int[][] constraintFields, int[] constraintMines) {
+		this.fields = fields;
+		this.constraintFields = constraintFields;
+		this.constraintMines = constraintMines;
+		this.mineSolutions = new long[fields.length];
+		this.assignment = new boolean[fields.length];
+		this.assigned = new int[constraintMines.length];
+		this.assignedMines = new int[constraintMines.length];
+		
+		int[] counts = new int[fields.length];
+		for(int[] constraint : constraintFields) {
+			for(int field : constraint) counts[field]++;
+		}
+		
+		this.fieldConstraints = new int[fields.length][];
+		for(int i = 0; i < fields.length; i++) {
+			fieldConstraints[i] = new int[counts[i]];
+		}
+		
+		for(int c = 0; c < constraintFields.length; c++) {
+			for(int field : constraintFields[c]) {
+				fieldConstraints[field][--counts[field]] = c;
+			}
+		}
+	}
+	
+	/**
+	 * @return the number of fields in this component
+	 */
+	int size() {
+		return fields.length;
+	}
+	
+	/**
+	 * Enumerates all of the assignments that satisfy the constraints,
+	 * counting the solutions and how many of them every field is a mine in.
+	 */
+	void enumerate() {
+		solutions = 0;
+		Arrays.fill(mineSolutions, 0);
+		assign(0);
+	}
+	
+	private void assign(int field) {
+		if(field == fields.length) {
+			solutions++;
+			
+			for(int i = 0; i < fields.length; i++) {
+				if(assignment[i]) mineSolutions[i]++;
+			}
+			
+			return;
+		}
+		
+		for(int value = 0; value <= 1; value++) {
+			assignment[field] = value == 1;
+			
+			if(place(field, value)) {
+				assign(field + 1);
+			}
+			
+			unplace(field, value);
+		}
+	}
+	
+	/**
+	 * Assigns the value to the field and checks whether every constraint
+	 * mentioning the field can still be satisfied.
+	 *
+	 * @param field the local index of the field
+	 * @param value {@code 1} for a mine, {@code 0} for a safe field
+	 * @return {@code true} if no constraint has been violated
+	 */
+	private boolean place(int field, int value) {
+		boolean feasible = true;
+		
+		for(int c : fieldConstraints[field]) {
+			assigned[c]++;
+			assignedMines[c] += value;
+			
+			int unassigned = constraintFields[c].length - assigned[c];
+			if(assignedMines[c] > constraintMines[c] || assignedMines[c] + unassigned < constraintMines[c]) {
+				feasible = false;
+			}
+		}
+		
+		return feasible;
+	}
+	
+	private void unplace(int field, int value) {
+		for(int c : fieldConstraints[field]) {
+			assigned[c]--;
+			assignedMines[c] -= value;
+		}
+	}
+	
+	//------------------------------------------------------------
+	//				   Weighing by the number of mines
+	//------------------------------------------------------------
+	
+	/**
+	 * Enumerates all of the solutions, counting them, and the solutions
+	 * every field is a mine in, separately for every number of mines.
+	 *
+	 * @param maxSteps the largest number of partial assignments tried
+	 * @return {@code false} if the component has more partial assignments,
+	 *         in which case the weights are left as they were
+	 */
+	boolean weigh(long maxSteps) {
+		double[] ways = new double[fields.length + 1];
+		double[][] fieldWays = new double[fields.length + 1][];
+		steps = maxSteps;
+		
+		if(!weigh(0, 0, ways, fieldWays) || !setWays(ways, fieldWays, 1)) return false;
+		
+		exact = true;
+		return true;
+	}
+	
+	/**
+	 * Assigns both values to the field in turn and weighs the assignments
+	 * of the rest of the fields.
+	 *
+	 * @param field the local index of the field
+	 * @param mines the number of mines assigned so far
+	 * @param ways receives the number of solutions of every number of mines
+	 * @param fieldWays receives, for every number of mines, the number of
+	 *        solutions every field is a mine in
+	 * @return {@code false} if the steps ran out
+	 */
+	private boolean weigh(int field, int mines, double[] ways, double[][] fieldWays) {
+		if(field == fields.length) {
+			record(mines, ways, fieldWays);
+			return true;
+		}
+		
+		if(--steps < 0) return false;
+		
+		boolean finished = true;
+		for(int value = 0; value <= 1 && finished; value++) {
+			assignment[field] = value == 1;
+			
+			if(place(field, value)) {
+				finished = weigh(field + 1, mines + value, ways, fieldWays);
+			}
+			
+			unplace(field, value);
+		}
+		
+		return finished;
+	}
+	
+	/**
+	 * Samples the solutions, a solution with one mine more being
+	 * {@code lambda} times as likely to be drawn. The counts of the samples
+	 * are then divided by {@code lambda} to the power of their number of
+	 * mines, so that they estimate the same relative numbers of solutions
+	 * {@link #weigh(long)} counts. The closer {@code lambda} is to the odds
+	 * of a mine on the rest of the board, the more of the samples have a
+	 * likely number of mines.
+	 * <p>
+	 * The fields are drawn one by one, in a breadth-first order, each from
+	 * the exact odds of its values given the fields drawn before it, so the
+	 * samples are independent and every solution can be drawn, however far
+	 * it is from the others. The odds come from the weight of the solutions
+	 * of the rest of the fields, which depends only on the numbers of mines
+	 * already assigned to the constraints mentioning fields on both sides,
+	 * and is therefore counted only once for every layer and every such
+	 * numbers of mines.
+	 *
+	 * @param lambda how many times a solution with one mine more is more
+	 *        likely to be drawn
+	 * @param samples the number of samples
+	 * @param random the source of randomness
+	 * @param maxStates the largest number of weights of the partial
+	 *        assignments counted
+	 * @param cancelled checked before every sample
+	 * @return {@code false} if the component has more partial assignments
+	 *         to count, or the sampling has been cancelled, in which case the
+	 *         weights are left as they were
+	 */
+	boolean sample(double lambda, int samples, SplittableRandom random, long maxStates, BooleanSupplier cancelled) {
+		if(!order()) return false;
+		
+		double logLambda = Math.log(lambda);
+		steps = maxStates;
+		memo = new ArrayList<>(Collections.nCopies(fields.length, null));
+		
+		boolean finished = logWeight(0, logLambda) > Double.NEGATIVE_INFINITY && steps >= 0;
+		double[] ways = new double[fields.length + 1];
+		double[][] fieldWays = new double[fields.length + 1][];
+		
+		for(int s = 0; s < samples && finished; s++) {
+			if(cancelled.getAsBoolean()) {
+				finished = false;
+				break;
+			}
+			
+			int mines = 0;
+			
+			for(int i = 0; i < fields.length; i++) {
+				int field = order[i];
+				int value = random.nextDouble() < memo.get(i).get(key(i))[1] ? 1 : 0;
+				
+				assignment[field] = value == 1;
+				place(field, value);
+				mines += value;
+			}
+			
+			record(mines, ways, fieldWays);
+			
+			for(int i = 0; i < fields.length; i++) {
+				unplace(i, assignment[i] ? 1 : 0);
+			}
+		}
+		
+		memo = null;
+		if(!finished || !setWays(ways, fieldWays, lambda)) return false;
+		
+		exact = false;
+		return true;
+	}
+	
+	/**
+	 * Returns the logarithm of the weight of the assignments of the fields
+	 * from the given layer on that satisfy the constraints, given the fields
+	 * placed before it, every mine weighing {@code lambda}.
+	 *
+	 * @param layer the position of the first field in the breadth-first order
+	 * @param logLambda the logarithm of the weight of a mine
+	 * @return the logarithm of the weight, or negative infinity if there
+	 *         are no such assignments or the steps ran out
+	 */
+	private double logWeight(int layer, double logLambda) {
+		if(layer == fields.length) return 0;
+		
+		long key = key(layer);
+		Map<Long, double[]> weights = memo.get(layer);
+		if(weights == null) memo.set(layer, weights = new HashMap<>());
+		
+		double[] known = weights.get(key);
+		if(known != null) return known[0];
+		if(--steps < 0) return Double.NEGATIVE_INFINITY;
+		
+		int field = order[layer];
+		double safe = place(field, 0) ? logWeight(layer + 1, logLambda) : Double.NEGATIVE_INFINITY;
+		unplace(field, 0);
+		double mine = place(field, 1) ? logLambda + logWeight(layer + 1, logLambda) : Double.NEGATIVE_INFINITY;
+		unplace(field, 1);
+		
+		double max = Math.max(safe, mine);
+		double weight = max == Double.NEGATIVE_INFINITY ? max : max + Math.log(Math.exp(safe - max) + Math.exp(mine - max));
+		
+		weights.put(key, new double[] {weight, Math.exp(mine - weight)});
+		return weight;
+	}
+	
+	/**
+	 * @param layer the layer
+	 * @return the numbers of mines of the constraints open at the layer,
+	 *         packed together
+	 */
+	private long key(int layer) {
+		long key = 0;
+		for(int c : open[layer]) {
+			key = key << bits[c] | assignedMines[c];
+		}
+		
+		return key;
+	}
+	
+	/**
+	 * Orders the fields breadth-first, from a field as far from the others
+	 * as it can be found, and finds the constraints open at every layer:
+	 * those mentioning a field of an earlier layer and a field of this
+	 * layer or a later one.
+	 *
+	 * @return {@code false} if the numbers of mines of the constraints open
+	 *         at once do not fit into a {@code long}
+	 */
+	private boolean order() {
+		if(order != null) return true;
+		
+		int[] order = breadthFirst(breadthFirst(0)[fields.length - 1]);
+		int[] layers = new int[fields.length];
+		
+		for(int i = 0; i < order.length; i++) {
+			layers[order[i]] = i;
+		}
+		
+		int[] opened = new int[fields.length + 1];
+		int[] closed = new int[fields.length + 1];
+		int[] openedBits = new int[fields.length + 1];
+		int[] closedBits = new int[fields.length + 1];
+		int[] first = new int[constraintFields.length];
+		int[] last = new int[constraintFields.length];
+		int[] bits = new int[constraintFields.length];
+		
+		for(int c = 0; c < constraintFields.length; c++) {
+			first[c] = fields.length;
+			bits[c] = Integer.SIZE - Integer.numberOfLeadingZeros(constraintMines[c]);
+			
+			for(int field : constraintFields[c]) {
+				first[c] = Math.min(first[c], layers[field]);
+				last[c] = Math.max(last[c], layers[field]);
+			}
+			
+			if(first[c] < last[c]) {
+				opened[first[c] + 1]++;
+				closed[last[c] + 1]++;
+				openedBits[first[c] + 1] += bits[c];
+				closedBits[last[c] + 1] += bits[c];
+			}
+		}
+		
+		int[][] open = new int[fields.length + 1][];
+		int[] counts = new int[fields.length + 1];
+		
+		for(int layer = 1, count = 0, used = 0; layer <= fields.length; layer++) {
+			count += opened[layer] - closed[layer];
+			used += openedBits[layer] - closedBits[layer];
+			if(used > Long.SIZE) return false;
+			
+			open[layer] = new int[count];
+		}
+		open[0] = new int[0];
+		
+		for(int c = 0; c < constraintFields.length; c++) {
+			for(int layer = first[c] + 1; layer <= last[c]; layer++) {
+				open[layer][counts[layer]++] = c;
+			}
+		}
+		
+		this.order = order;
+		this.open = open;
+		this.bits = bits;
+		return true;
+	}
+	
+	/**
+	 * @param start the local index of the first field
+	 * @return the local indices of the fields, in the order they are
+	 *         reached by a breadth-first search through the constraints
+	 */
+	private int[] breadthFirst(int start) {
+		int[] queue = new int[fields.length];
+		boolean[] reached = new boolean[fields.length];
+		int size = 0;
+		
+		queue[size++] = start;
+		reached[start] = true;
+		
+		for(int head = 0; head < size; head++) {
+			for(int c : fieldConstraints[queue[head]]) {
+				for(int field : constraintFields[c]) {
+					if(!reached[field]) {
+						reached[field] = true;
+						queue[size++] = field;
+					}
+				}
+			}
+		}
+		
+		return queue;
+	}
+	
+	/**
+	 * Adds the current assignment to the counts.
+	 *
+	 * @param mines the number of mines of the assignment
+	 * @param ways the number of solutions of every number of mines
+	 * @param fieldWays for every number of mines, the number of solutions
+	 *        every field is a mine in
+	 */
+	private void record(int mines, double[] ways, double[][] fieldWays) {
+		ways[mines]++;
+		
+		double[] counts = fieldWays[mines];
+		if(counts == null) counts = fieldWays[mines] = new double[fields.length];
+		
+		for(int i = 0; i < fields.length; i++) {
+			if(assignment[i]) counts[i]++;
+		}
+	}
+	
+	/**
+	 * Keeps the counts of the numbers of mines that have any solutions,
+	 * divided by {@code lambda} to the power of the number of mines above
+	 * the smallest one.
+	 *
+	 * @param ways the number of solutions of every number of mines
+	 * @param fieldWays for every number of mines, the number of solutions
+	 *        every field is a mine in
+	 * @param lambda the weight of a mine the counts were taken with
+	 * @return {@code false} if there are no solutions at all
+	 */
+	private boolean setWays(double[] ways, double[][] fieldWays, double lambda) {
+		int min = 0;
+		int max = ways.length - 1;
+		
+		while(min <= max && ways[min] == 0) min++;
+		while(max >= min && ways[max] == 0) max--;
+		
+		if(min > max) return false;
+		
+		this.minMines = min;
+		this.ways = new double[max - min + 1];
+		this.fieldWays = new double[max - min + 1][];
+		
+		for(int k = min; k <= max; k++) {
+			double scale = Math.pow(lambda, min - k);
+			this.ways[k - min] = ways[k] * scale;
+			
+			double[] counts = fieldWays[k];
+			if(counts == null) continue;
+			
+			for(int i = 0; i < counts.length; i++) {
+				counts[i] *= scale;
+			}
+			
+			this.fieldWays[k - min] = counts;
+		}
+		
+		return true;
+	}
+}
@@ -0,0 +1,133 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A blocking client of the {@link GameServer}. Every call sends one
+ * request and waits for its answer.
+ * <p>
+ * A client is not thread-safe; it is meant to be used by one thread.
+ *
+ * @author Filip Nemec
+ */
+public class GameClient implements Closeable {
+	
+	/** The connection to the server. */
+	private final SocketChannel channel;
+	
+	/** The buffer the length of every answer is read into. */
+	private final ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+	
+	/**
+	 * Connects to the server.
+	 *
+	 * @param host the host of the server
+	 * @param port the port of the server
+	 * @throws IOException if the server can not be reached
+	 */
+	public GameClient(String host, int port) throws IOException {
+		this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+		channel.socket().setTcpNoDelay(true);
+	}
+	
+	/**
+	 * Starts a new game.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @return the new game, whose id is {@link StateDiff#getGame()}
+	 * @throws IOException if the connection fails
+	 */
+	public StateDiff newGame(int rows, int columns, int mines) throws IOException {
+		return call(GameProtocol.newGame(rows, columns, mines));
+	}
+	
+	/**
+	 * Discovers the field.
+	 *
+	 * @param game the id of the game
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the fields that changed
+	 * @throws IOException if the connection fails
+	 */
+	public StateDiff reveal(long game, int row, int column) throws IOException {
+		return call(GameProtocol.action(GameProtocol.REVEAL, game, row, column));
+	}
+	
+	/**
+	 * Toggles the flag on the field.
+	 *
+	 * @param game the id of the game
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the fields that changed
+	 * @throws IOException if the connection fails
+	 */
+	public StateDiff flag(long game, int row, int column) throws IOException {
+		return call(GameProtocol.action(GameProtocol.FLAG, game, row, column));
+	}
+	
+	/**
+	 * Discovers the neighbours of the number whose mines are all flagged.
+	 *
+	 * @param game the id of the game
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the fields that changed
+	 * @throws IOException if the connection fails
+	 */
+	public StateDiff chord(long game, int row, int column) throws IOException {
+		return call(GameProtocol.action(GameProtocol.CHORD, game, row, column));
+	}
+	
+	/**
+	 * Asks for every field that is not undiscovered.
+	 *
+	 * @param game the id of the game
+	 * @return the visible state of the game
+	 * @throws IOException if the connection fails
+	 */
+	public StateDiff state(long game) throws IOException {
+		return call(GameProtocol.state(game));
+	}
+	
+	/**
+	 * Sends the request and waits for the answer.
+	 *
+	 * @param request the request frame
+	 * @return the answer
+	 * @throws IOException if the connection fails
+	 * @throws IllegalArgumentException if the server rejects the request
+	 */
+	private StateDiff call(ByteBuffer request) throws IOException {
+		while(request.hasRemaining()) {
+			channel.write(request);
+		}
+		
+		length.clear();
+		readFully(length);
+		
+		ByteBuffer frame = ByteBuffer.allocate(length.flip().getInt());
+		readFully(frame);
+		
+		return StateDiff.decode(frame.flip());
+	}
+	
+	private void readFully(ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer) < 0) throw new EOFException("The server closed the connection.");
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,348 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs the game off the event dispatch thread. The engine owns the
+ * {@link MineField}: every player action is sent to the engine thread as
+ * a command, and only that thread ever touches the model, so a huge flood
+ * fill never blocks the user interface.
+ * <p>
+ * Every change of the model is turned into an immutable
+ * {@link ChangeSet} and handed over to the event dispatch thread. Changes
+ * published while the event dispatch thread is busy are coalesced, so the
+ * views are updated in batches, with a single {@code invokeLater} per
+ * batch. The engine also keeps a copy of the state of every field on the
+ * event dispatch thread, which is what the views display.
+ *
+ * @author Filip Nemec
+ */
+public class GameEngine implements MineFieldListener {
+	
+	/** The number of rows. */
+	public final int ROWS;
+	
+	/** The number of columns. */
+	public final int COLUMNS;
+	
+	/** The total number of fields. */
+	public final int FIELD_COUNT;
+	
+	/** The model, touched only by the engine thread. */
+	private final MineField model;
+	
+	/** The engine thread. */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "game-engine");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/** The change sets not yet handed over to the event dispatch thread. */
+	private final List<ChangeSet> pending = new ArrayList<>();
+	
+	/** Flag indicating whether the pending change sets are about to be handed over. */
+	private boolean handOverScheduled;
+	
+	/** The state of every field, as seen by the event dispatch thread. */
+	private final byte[] states;
+	
+	/** The number of discovered fields, as seen by the event dispatch thread. */
+	private int discoveredCount;
+	
+	/** The number of flags, as seen by the event dispatch thread. */
+	private int flagCount;
+	
+	/** Flag indicating whether the event dispatch thread has seen the explosion. */
+	private boolean exploded;
+	
+	/** Records the game, touched only by the engine thread. */
+	private JournalWriter journal;
+	
+	/** A list of all the listeners. */
+	private List<ChangeSetListener> listeners = new LinkedList<>();
+	
+	/**
+	 * Creates a new engine that takes over the given model. From now on,
+	 * the model must not be touched by anyone else.
+	 *
+	 * @param model the model of the game
+	 */
+	public GameEngine(MineField model) {
+		this.model = model;
+		this.ROWS = model.ROWS;
+		this.COLUMNS = model.COLUMNS;
+		this.FIELD_COUNT = model.FIELD_COUNT;
+		
+		this.states = new byte[FIELD_COUNT];
+		for(int i = 0; i < FIELD_COUNT; i++) {
+			states[i] = FieldState.of(model, i);
+		}
+		
+		this.discoveredCount = model.getDiscoveredCount();
+		this.flagCount = model.getFlagCount();
+		this.exploded = model.isExploded();
+		
+		model.addMineFieldListener(this);
+	}
+	
+	//------------------------------------------------------------
+	//						   Commands
+	//------------------------------------------------------------
+	
+	/**
+	 * Discovers the field on the engine thread.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void toggleField(int row, int column) {
+		executor.execute(() -> model.toggleField(row, column));
+	}
+	
+	/**
+	 * Toggles the flag on the field on the engine thread.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void toggleFlag(int row, int column) {
+		executor.execute(() -> model.toggleFlag(row, column));
+	}
+	
+	/**
+	 * Chords the field on the engine thread.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void chord(int row, int column) {
+		executor.execute(() -> model.chord(row, column));
+	}
+	
+	/**
+	 * Saves the game on the engine thread, in between the player actions.
+	 *
+	 * @param file the file the game is saved to
+	 * @return completes once the game is saved, or exceptionally with an
+	 *         {@code UncheckedIOException} if it could not be saved
+	 * @see GameFile
+	 */
+	public CompletableFuture<Void> save(Path file) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				GameFile.save(model, file);
+			} catch(IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}, executor);
+	}
+	
+	/**
+	 * Returns the code the board can be recreated from, read on the engine
+	 * thread.
+	 *
+	 * @return completes with the board code, or with {@code null} if the
+	 *         board can not be recreated
+	 * @see MineField#getBoardCode()
+	 */
+	public CompletableFuture<BoardCode> getBoardCode() {
+		return CompletableFuture.supplyAsync(model::getBoardCode, executor);
+	}
+	
+	/**
+	 * Starts recording the game to a journal, on the engine thread. The
+	 * journal is closed once the engine is shut down.
+	 *
+	 * @param file the journal file
+	 * @return completes once the recording has started, or exceptionally
+	 *         with an {@code UncheckedIOException} if it could not be
+	 *         started
+	 * @see Journal
+	 */
+	public CompletableFuture<Void> record(Path file) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				closeJournal();
+				journal = new JournalWriter(model, file, JournalWriter.DEFAULT_SNAPSHOT_INTERVAL);
+			} catch(IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+		}, executor);
+	}
+	
+	/**
+	 * Closes the journal, if the game is being recorded.
+	 *
+	 * @throws IOException if the journal could not be written
+	 */
+	private void closeJournal() throws IOException {
+		if(journal == null) return;
+		
+		JournalWriter closed = journal;
+		journal = null;
+		closed.close();
+	}
+	
+	/**
+	 * Stops the engine thread, once the commands sent so far have been
+	 * run, and closes the journal. Commands sent afterwards are rejected.
+	 */
+	public void shutdown() {
+		executor.execute(() -> {
+			try {
+				closeJournal();
+			} catch(IOException ex) {
+				System.err.println("Could not write the journal: " + ex.getMessage());
+			}
+		});
+		executor.shutdown();
+	}
+	
+	//------------------------------------------------------------
+	//					  Handing the changes over
+	//------------------------------------------------------------
+	
+	@Override
+	public void onMineFieldChange(MineFieldEvent event) {
+		publish(ChangeSet.of(event));
+	}
+	
+	/**
+	 * Queues the change set for the event dispatch thread, scheduling the
+	 * hand-over unless one is already scheduled.
+	 *
+	 * @param changes the change set
+	 */
+	private synchronized void publish(ChangeSet changes) {
+		pending.add(changes);
+		
+		if(!handOverScheduled) {
+			handOverScheduled = true;
+			SwingUtilities.invokeLater(this::handOver);
+		}
+	}
+	
+	/**
+	 * Applies all of the pending change sets at once and notifies the
+	 * listeners. Runs on the event dispatch thread.
+	 */
+	private void handOver() {
+		ChangeSet changes;
+		
+		synchronized(this) {
+			changes = ChangeSet.merge(pending);
+			pending.clear();
+			handOverScheduled = false;
+		}
+		
+		for(int i = 0, n = changes.getChangedFieldCount(); i < n; i++) {
+			states[changes.getChangedField(i)] = changes.getState(i);
+		}
+		
+		discoveredCount = changes.getDiscoveredCount();
+		flagCount = changes.getFlagCount();
+		exploded |= changes.isExplosion();
+		
+		listeners.forEach(l -> l.onChange(changes));
+		if(Metrics.ENABLED) Metrics.changesApplied();
+	}
+	
+	//------------------------------------------------------------
+	//				  State on the event dispatch thread
+	//------------------------------------------------------------
+	
+	/**
+	 * @param index the index of the field
+	 * @return the state of the field, see {@link FieldState}
+	 */
+	public byte getState(int index) {
+		return states[index];
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the state of the field, see {@link FieldState}
+	 */
+	public byte getState(int row, int column) {
+		return states[row * COLUMNS + column];
+	}
+	
+	/**
+	 * @return a copy of the state of every field, see {@link FieldState}
+	 */
+	byte[] copyStates() {
+		return states.clone();
+	}
+	
+	/**
+	 * @return the number of mines
+	 */
+	public int getMineCount() {
+		return model.getMineCount();
+	}
+	
+	/**
+	 * Returns the neighbour table of the board. The table is immutable, so
+	 * it can be used on any thread.
+	 *
+	 * @return the neighbour table
+	 */
+	public Neighbours getNeighbours() {
+		return model.getNeighbours();
+	}
+	
+	/**
+	 * @return the number of discovered fields
+	 */
+	public int getDiscoveredCount() {
+		return discoveredCount;
+	}
+	
+	/**
+	 * @return the number of flags
+	 */
+	public int getFlagCount() {
+		return flagCount;
+	}
+	
+	/**
+	 * @return {@code true} if the player has stepped on a mine
+	 */
+	public boolean isExploded() {
+		return exploded;
+	}
+	
+	//------------------------------------------------------------
+	//					  Listener registration
+	//------------------------------------------------------------
+	
+	/**
+	 * Adds a new listener, notified on the event dispatch thread.
+	 *
+	 * @param l the listener to be added
+	 */
+	public void addChangeSetListener(ChangeSetListener l) {
+		listeners.add(l);
+	}
+	
+	/**
+	 * Removes the given listener.
+	 *
+	 * @param l the listener to be removed
+	 */
+	public void removeChangeSetListener(ChangeSetListener l) {
+		listeners.remove(l);
+	}
+}
@@ -0,0 +1,221 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saves and loads games. A saved game is a small header followed by three
+ * bit-planes - the mines, the flags and the discovered fields - exactly
+ * as they are kept by {@link MineField}, so the planes are copied in bulk
+ * between the file and the bit-sets of the board, with no per-field work.
+ * The file is memory-mapped, which makes saving and loading even a board
+ * of millions of fields a matter of milliseconds.
+ * <p>
+ * All numbers are little-endian. The header takes {@value #HEADER_SIZE}
+ * bytes, so the planes that follow it are aligned:
+ * <pre>
+ * magic:int version:short state:byte reveal:byte
+ * rows:int columns:int mines:int discovered:int exploded:int generation:byte topology:byte (reserved:byte){2}
+ * seed:long elapsed:long seedField:int (reserved:byte){12}
+ * mines:long{n} flags:long{n} discovered:long{n}
+ * </pre>
+ * where {@code n} is the number of words needed for one bit per field.
+ * The lowest bit of the {@code state} tells whether the mines have been
+ * placed, and the next one whether the seed of the layout, and the safe
+ * field it was generated around, are known. A random board that has not
+ * placed its mines yet keeps the seed of its generator. The games saved
+ * before boards had a {@link Topology} have a zero in its place, which is
+ * {@link Topology#SQUARE}.
+ *
+ * @author Filip Nemec
+ */
+public final class GameFile {
+	
+	/** The extension of the saved games. */
+	public static final String EXTENSION = ".msw";
+	
+	/** The magic number every saved game starts with, {@code "MSWF"}. */
+	static final int MAGIC = 0x4D535746;
+	
+	/** The version of the format. */
+	static final short VERSION = 1;
+	
+	/** The size of the header, in bytes. */
+	static final int HEADER_SIZE = 64;
+	
+	/** The state bit telling whether the mines have been placed. */
+	private static final int MINES_PLACED = 1;
+	
+	/** The state bit telling whether the seed is known. */
+	private static final int SEEDED = 2;
+	
+	/**
+	 * Disables instantiation.
+	 */
+	private GameFile() {
+	}
+	
+	/**
+	 * Saves the game to the given file, replacing it if it exists. The
+	 * board must not be changed while it is being saved.
+	 *
+	 * @param field the board to be saved
+	 * @param file the file the game is saved to
+	 * @throws IOException if the file could not be written
+	 */
+	public static void save(MineField field, Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+																StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			write(field, channel.map(FileChannel.MapMode.READ_WRITE, 0, sizeOf(field)));
+		}
+	}
+	
+	/**
+	 * Loads the game from the given file.
+	 *
+	 * @param file the file the game was saved to
+	 * @return the board of the loaded game
+	 * @throws IOException if the file could not be read or is not a saved
+	 *         game
+	 */
+	public static MineField load(Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+	
+	/**
+	 * @param field the board
+	 * @return the number of bytes the saved board takes
+	 */
+	static long sizeOf(MineField field) {
+		return HEADER_SIZE + 3L * field.planeLength() * Long.BYTES;
+	}
+	
+	/**
+	 * Writes the board to the given buffer, starting at its position,
+	 * which is then moved past the written board.
+	 *
+	 * @param field the board to be written
+	 * @param buffer the buffer with at least {@link #sizeOf(MineField)}
+	 *        bytes remaining
+	 */
+	static void write(MineField field, ByteBuffer buffer) {
+		int start = buffer.position();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		
+		buffer.putInt(MAGIC)
+			  .putShort(VERSION)
+			  .put((byte) ((field.areMinesPlaced() ? MINES_PLACED : 0) | (field.isSeeded() ? SEEDED : 0)))
+			  .put((byte) field.getRevealMode().ordinal())
+			  .putInt(field.ROWS)
+			  .putInt(field.COLUMNS)
+			  .putInt(field.getMineCount())
+			  .putInt(field.getDiscoveredCount())
+			  .putInt(field.getExplodedField())
+			  .put((byte) GenerationMode.of(field.getGenerator()).ordinal())
+			  .put((byte) field.getTopology().ordinal())
+			  .position(start + 32);
+		buffer.putLong(field.isSeeded() || field.getGenerator() == null ? field.getSeed() : field.getGenerator().getSeed())
+			  .putLong(field.getElapsedTime())
+			  .putInt(field.getSeedField());
+		
+		field.writePlanes(planes(buffer, start));
+		buffer.position((int) (start + sizeOf(field)));
+	}
+	
+	/**
+	 * Reads a board from the given buffer, starting at its position,
+	 * which is then moved past the read board.
+	 *
+	 * @param buffer the buffer holding the saved board
+	 * @return the read board
+	 * @throws IOException if the buffer does not hold a saved board
+	 */
+	static MineField read(ByteBuffer buffer) throws IOException {
+		int start = buffer.position();
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		
+		if(buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) throw new IOException("Not a saved game.");
+		
+		short version = buffer.getShort();
+		if(version != VERSION) throw new IOException("Unsupported version of the saved game: " + version);
+		
+		int state = buffer.get();
+		boolean minesPlaced = (state & MINES_PLACED) != 0;
+		int reveal = buffer.get();
+		int rows = buffer.getInt();
+		int columns = buffer.getInt();
+		int mines = buffer.getInt();
+		int discovered = buffer.getInt();
+		int exploded = buffer.getInt();
+		int generation = buffer.get();
+		int topology = buffer.get();
+		long seed = buffer.getLong(start + 32);
+		long elapsedTime = buffer.getLong(start + 40);
+		int seedField = buffer.getInt(start + 48);
+		
+		long fieldCount = (long) rows * columns;
+		if(rows <= 0 || columns <= 0 || fieldCount > Integer.MAX_VALUE || mines < 0 || mines >= fieldCount
+				|| discovered < 0 || discovered > fieldCount - mines || exploded < -1 || exploded >= fieldCount
+				|| reveal < 0 || reveal >= MineField.RevealMode.values().length
+				|| generation < 0 || generation >= GenerationMode.values().length
+				|| topology < 0 || topology >= Topology.values().length
+				|| seedField < MineGenerator.NO_SAFE_FIELD || seedField >= fieldCount) {
+			throw new IOException("Corrupted saved game.");
+		}
+		
+		GenerationMode mode = GenerationMode.values()[generation];
+		MineGenerator generator = minesPlaced ? null : mode == GenerationMode.RANDOM ? new RandomMineGenerator(seed) : mode.createGenerator();
+		MineField field;
+		
+		try {
+			field = new MineField(rows, columns, mines, generator, Topology.values()[topology]);
+		} catch(IllegalArgumentException ex) {
+			throw new IOException("Corrupted saved game.", ex);
+		}
+		
+		long size = sizeOf(field);
+		if(buffer.limit() - start < size) throw new IOException("Truncated saved game.");
+		
+		if(minesPlaced && countMines(planes(buffer, start), field.planeLength()) != mines) {
+			throw new IOException("Corrupted saved game.");
+		}
+		
+		field.readPlanes(planes(buffer, start), minesPlaced, discovered, exploded, elapsedTime);
+		field.setRevealMode(MineField.RevealMode.values()[reveal]);
+		if((state & SEEDED) != 0) field.setSeed(seed, seedField);
+		buffer.position((int) (start + size));
+		
+		return field;
+	}
+	
+	/**
+	 * @param planes the bit-planes, starting with the mines
+	 * @param length the number of words in a single bit-plane
+	 * @return the number of mines in the mine bit-plane
+	 */
+	private static int countMines(LongBuffer planes, int length) {
+		int count = 0;
+		
+		for(int i = 0; i < length; i++) {
+			count += Long.bitCount(planes.get(i));
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * @param buffer the buffer holding the saved board
+	 * @param start the position the saved board starts at
+	 * @return the view of the bit-planes that follow the header
+	 */
+	private static LongBuffer planes(ByteBuffer buffer, int start) {
+		return buffer.position(start + HEADER_SIZE).slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+	}
+}
@@ -0,0 +1,168 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary protocol spoken between the {@link GameServer} and its
+ * clients.
+ * <p>
+ * Every message is a frame: a 4 byte length of the rest of the frame,
+ * a 1 byte opcode and the payload. All numbers are big-endian.
+ * <pre>
+ * NEW_GAME  rows:int columns:int mines:int
+ * REVEAL    game:long row:int column:int
+ * FLAG      game:long row:int column:int
+ * CHORD     game:long row:int column:int
+ * STATE     game:long
+ * </pre>
+ * Every request is answered by exactly one response, in order:
+ * <pre>
+ * DIFF      game:long status:byte discovered:int flags:int count:int (field:int state:byte){count}
+ * ERROR     game:long length:short message:utf8
+ * </pre>
+ * A {@code DIFF} lists the fields changed by the request, with their new
+ * {@link FieldState}; the answer to {@code STATE} lists every field that
+ * is not undiscovered. A new game has at most {@value #MAX_SIZE} rows and
+ * as many columns.
+ *
+ * @author Filip Nemec
+ */
+public final class GameProtocol {
+	
+	/** The default port of the server. */
+	public static final int DEFAULT_PORT = 7463;
+	
+	/**
+	 * The largest number of rows or columns of a game. A single request
+	 * must not make the server allocate more than a few megabytes.
+	 */
+	public static final int MAX_SIZE = 1000;
+	
+	/** Starts a new game. */
+	public static final byte NEW_GAME = 1;
+	
+	/** Discovers a field. */
+	public static final byte REVEAL = 2;
+	
+	/** Toggles the flag on a field. */
+	public static final byte FLAG = 3;
+	
+	/** Discovers the neighbours of a satisfied number. */
+	public static final byte CHORD = 4;
+	
+	/** Asks for the whole visible state of the game. */
+	public static final byte STATE = 5;
+	
+	/** The fields changed by the request. */
+	public static final byte DIFF = 64;
+	
+	/** The request could not be carried out. */
+	public static final byte ERROR = 65;
+	
+	/** The largest request frame, without the length. */
+	static final int MAX_REQUEST_SIZE = 1 + Long.BYTES + 2 * Integer.BYTES;
+	
+	/** The size of the {@code DIFF} frame without the changed fields. */
+	static final int DIFF_HEADER_SIZE = Integer.BYTES + 1 + Long.BYTES + 1 + 3 * Integer.BYTES;
+	
+	/** The size of one changed field in a {@code DIFF} frame. */
+	static final int FIELD_SIZE = Integer.BYTES + 1;
+	
+	/**
+	 * Disable instantiation.
+	 */
+	private GameProtocol() {}
+	
+	//------------------------------------------------------------
+	//						   Requests
+	//------------------------------------------------------------
+	
+	/**
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @return the {@code NEW_GAME} frame, ready to be written
+	 */
+	public static ByteBuffer newGame(int rows, int columns, int mines) {
+		ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + 1 + 3 * Integer.BYTES);
+		frame.putInt(frame.capacity() - Integer.BYTES).put(NEW_GAME).putInt(rows).putInt(columns).putInt(mines);
+		return frame.flip();
+	}
+	
+	/**
+	 * @param opcode {@link #REVEAL}, {@link #FLAG} or {@link #CHORD}
+	 * @param game the id of the game
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the frame, ready to be written
+	 */
+	public static ByteBuffer action(byte opcode, long game, int row, int column) {
+		ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + MAX_REQUEST_SIZE);
+		frame.putInt(MAX_REQUEST_SIZE).put(opcode).putLong(game).putInt(row).putInt(column);
+		return frame.flip();
+	}
+	
+	/**
+	 * @param game the id of the game
+	 * @return the {@code STATE} frame, ready to be written
+	 */
+	public static ByteBuffer state(long game) {
+		ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + 1 + Long.BYTES);
+		frame.putInt(1 + Long.BYTES).put(STATE).putLong(game);
+		return frame.flip();
+	}
+	
+	//------------------------------------------------------------
+	//						   Responses
+	//------------------------------------------------------------
+	
+	/**
+	 * Encodes the {@code DIFF} frame.
+	 *
+	 * @param game the id of the game
+	 * @param field the mine-field of the game
+	 * @param fields the indices of the changed fields
+	 * @param count the number of changed fields
+	 * @return the frame, ready to be written
+	 */
+	static ByteBuffer diff(long game, MineField field, int[] fields, int count) {
+		ByteBuffer frame = ByteBuffer.allocate(DIFF_HEADER_SIZE + count * FIELD_SIZE);
+		
+		frame.putInt(frame.capacity() - Integer.BYTES).put(DIFF).putLong(game)
+			 .put(statusOf(field)).putInt(field.getDiscoveredCount()).putInt(field.getFlagCount()).putInt(count);
+		
+		for(int i = 0; i < count; i++) {
+			frame.putInt(fields[i]).put(FieldState.of(field, fields[i]));
+		}
+		
+		return frame.flip();
+	}
+	
+	/**
+	 * Encodes the {@code ERROR} frame.
+	 *
+	 * @param game the id of the game, or {@code 0}
+	 * @param message the description of the error
+	 * @return the frame, ready to be written
+	 */
+	static ByteBuffer error(long game, String message) {
+		byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(bytes.length, Short.MAX_VALUE);
+		ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + 1 + Long.BYTES + Short.BYTES + length);
+		
+		frame.putInt(frame.capacity() - Integer.BYTES).put(ERROR).putLong(game).putShort((short) length).put(bytes, 0, length);
+		return frame.flip();
+	}
+	
+	/**
+	 * @param field the mine-field
+	 * @return the status of the game, as sent in the {@code DIFF} frame
+	 */
+	static byte statusOf(MineField field) {
+		if(field.isExploded()) return (byte) StateDiff.Status.LOST.ordinal();
+		if(field.isWon()) return (byte) StateDiff.Status.WON.ordinal();
+		
+		return (byte) StateDiff.Status.PLAYING.ordinal();
+	}
+}
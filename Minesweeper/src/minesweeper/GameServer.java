@@ -0,0 +1,372 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Serves games to thin clients over the {@link GameProtocol}.
+ * <p>
+ * A single thread serves every connection with a non-blocking selector,
+ * and every game is just a headless {@link MineField} held by the
+ * {@link SessionRegistry}, so a connection or an idle game costs a few
+ * hundred bytes rather than a thread. Requests are carried out in the
+ * order they arrive. A connection is not read while its last answer is
+ * still being written, so a client that does not read its answers can
+ * not make the server queue more than one of them.
+ *
+ * @author Filip Nemec
+ */
+public class GameServer implements Runnable, Closeable {
+	
+	/** The size of the buffer each connection reads its requests into. */
+	private static final int READ_BUFFER_SIZE = 256;
+	
+	/** The selector serving all of the connections. */
+	private final Selector selector;
+	
+	/** The channel accepting new connections. */
+	private final ServerSocketChannel server;
+	
+	/** The games being played. */
+	private final SessionRegistry sessions;
+	
+	/**
+	 * Creates a new server listening on the given port of all interfaces,
+	 * with a registry of the default limits.
+	 *
+	 * @param port the port, or {@code 0} for any free port
+	 * @throws IOException if the port can not be bound
+	 */
+	public GameServer(int port) throws IOException {
+		this(port, new SessionRegistry());
+	}
+	
+	/**
+	 * Creates a new server listening on the given port of all interfaces.
+	 * The registry is closed together with the server.
+	 *
+	 * @param port the port, or {@code 0} for any free port
+	 * @param sessions the registry holding the games
+	 * @throws IOException if the port can not be bound
+	 */
+	public GameServer(int port, SessionRegistry sessions) throws IOException {
+		this.sessions = sessions;
+		this.selector = Selector.open();
+		this.server = ServerSocketChannel.open();
+		
+		server.bind(new InetSocketAddress(port));
+		server.configureBlocking(false);
+		server.register(selector, SelectionKey.OP_ACCEPT);
+	}
+	
+	/**
+	 * @return the port the server is listening on
+	 */
+	public int getPort() {
+		return server.socket().getLocalPort();
+	}
+	
+	/**
+	 * Serves the connections on a new daemon thread.
+	 *
+	 * @return this server
+	 */
+	public GameServer start() {
+		Thread thread = new Thread(this, "game-server");
+		thread.setDaemon(true);
+		thread.start();
+		return this;
+	}
+	
+	/**
+	 * Serves the connections on the current thread, until the server is
+	 * closed.
+	 */
+	@Override
+	public void run() {
+		try {
+			while(selector.isOpen()) {
+				selector.select();
+				
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				
+				while(keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					
+					try {
+						if(key.isAcceptable()) accept();
+						if(key.isValid() && key.isReadable()) read(key);
+						if(key.isValid() && key.isWritable()) serve(key);
+						
+					} catch(IOException | CancelledKeyException ex) {
+						key.channel().close();
+					}
+				}
+			}
+		} catch(ClosedSelectorException ex) {
+			// Closed while selecting.
+			
+		} catch(IOException ex) {
+			System.err.println("Game server stopped: " + ex.getMessage());
+		}
+	}
+	
+	/**
+	 * @return the registry holding the games
+	 */
+	public SessionRegistry getSessions() {
+		return sessions;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		selector.close();
+		server.close();
+		sessions.close();
+	}
+	
+	//------------------------------------------------------------
+	//						  Connections
+	//------------------------------------------------------------
+	
+	private void accept() throws IOException {
+		SocketChannel channel = server.accept();
+		if(channel == null) return;
+		
+		channel.configureBlocking(false);
+		channel.socket().setTcpNoDelay(true);
+		channel.register(selector, SelectionKey.OP_READ, new Connection());
+	}
+	
+	/**
+	 * Reads what has arrived and answers the complete requests.
+	 *
+	 * @param key the key of the connection
+	 * @throws IOException if the connection is broken or violates the protocol
+	 */
+	private void read(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		
+		if(((SocketChannel) key.channel()).read(connection.in) < 0) {
+			throw new IOException("Connection closed.");
+		}
+		
+		serve(key);
+	}
+	
+	/**
+	 * Answers the complete requests one by one, as long as the client takes
+	 * the answers. Once an answer can not be written at once, the
+	 * connection stops being read until the answer is gone, so a client
+	 * that does not read its answers holds at most one of them in the
+	 * memory of the server, and is left with its own requests piling up in
+	 * the socket.
+	 *
+	 * @param key the key of the connection
+	 * @throws IOException if the connection is broken or violates the protocol
+	 */
+	private void serve(SelectionKey key) throws IOException {
+		Connection connection = (Connection) key.attachment();
+		SocketChannel channel = (SocketChannel) key.channel();
+		ByteBuffer in = connection.in;
+		
+		in.flip();
+		
+		while(flush(connection, channel) && in.remaining() >= Integer.BYTES) {
+			int length = in.getInt(in.position());
+			
+			if(length < 1 || length > GameProtocol.MAX_REQUEST_SIZE) {
+				throw new IOException("Invalid request length: " + length);
+			}
+			
+			if(in.remaining() < Integer.BYTES + length) break;
+			
+			in.position(in.position() + Integer.BYTES);
+			ByteBuffer request = in.slice();
+			request.limit(length);
+			in.position(in.position() + length);
+			
+			connection.out.add(handle(request));
+		}
+		
+		in.compact();
+		key.interestOps(connection.out.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+	}
+	
+	/**
+	 * Writes as much of the queued answers as the connection takes.
+	 *
+	 * @param connection the connection
+	 * @param channel the channel of the connection
+	 * @return {@code true} if every answer has been written
+	 * @throws IOException if the connection is broken
+	 */
+	private static boolean flush(Connection connection, SocketChannel channel) throws IOException {
+		while(!connection.out.isEmpty()) {
+			ByteBuffer frame = connection.out.peek();
+			channel.write(frame);
+			
+			if(frame.hasRemaining()) return false;
+			connection.out.poll();
+		}
+		
+		return true;
+	}
+	
+	//------------------------------------------------------------
+	//						   Requests
+	//------------------------------------------------------------
+	
+	/**
+	 * Carries out the request.
+	 *
+	 * @param request the request without its length
+	 * @return the answer, ready to be written
+	 */
+	private ByteBuffer handle(ByteBuffer request) {
+		try {
+			return execute(request);
+		} catch(BufferUnderflowException ex) {
+			return GameProtocol.error(0, "Malformed request.");
+		} catch(NoSuchElementException ex) {
+			return GameProtocol.error(0, ex.getMessage());
+		}
+	}
+	
+	private ByteBuffer execute(ByteBuffer request) {
+		byte opcode = request.get();
+		
+		if(opcode == GameProtocol.NEW_GAME) {
+			return newGame(request.getInt(), request.getInt(), request.getInt());
+		}
+		
+		long id = request.getLong();
+		
+		switch(opcode) {
+			case GameProtocol.STATE:
+				return sessions.execute(id, session -> state(id, session.getField()));
+				
+			case GameProtocol.REVEAL:
+			case GameProtocol.FLAG:
+			case GameProtocol.CHORD:
+				int row = request.getInt();
+				int column = request.getInt();
+				
+				return sessions.execute(id, session -> {
+					MineField field = session.getField();
+					
+					if(row < 0 || row >= field.ROWS || column < 0 || column >= field.COLUMNS) {
+						return GameProtocol.error(id, "No such field: " + row + ", " + column);
+					}
+					
+					if(opcode == GameProtocol.REVEAL) {
+						field.toggleField(row, column);
+					} else if(opcode == GameProtocol.FLAG) {
+						field.toggleFlag(row, column);
+					} else {
+						field.chord(row, column);
+					}
+					
+					return diff(session);
+				});
+				
+			default:
+				return GameProtocol.error(id, "Unknown request: " + opcode);
+		}
+	}
+	
+	/**
+	 * Starts a new game, unless the board is invalid or too large for the
+	 * server. The size is checked before anything is allocated, so no
+	 * request can exhaust the memory shared by all of the sessions.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @return the {@code DIFF} frame of the new game, or an {@code ERROR}
+	 */
+	private ByteBuffer newGame(int rows, int columns, int mines) {
+		if(rows <= 0 || columns <= 0 || mines < 0 || (long) mines >= (long) rows * columns) {
+			return GameProtocol.error(0, "Invalid board: " + rows + "x" + columns + ", " + mines + " mines.");
+		}
+		
+		if(rows > GameProtocol.MAX_SIZE || columns > GameProtocol.MAX_SIZE) {
+			return GameProtocol.error(0, "The board may have at most " + GameProtocol.MAX_SIZE + " rows and columns.");
+		}
+		
+		if(!sessions.admits(MineField.footprint(rows, columns))) {
+			return GameProtocol.error(0, "The board does not fit in the memory of the server.");
+		}
+		
+		Session session = sessions.create(new MineField(rows, columns, mines));
+		return GameProtocol.diff(session.getId(), session.getField(), new int[0], 0);
+	}
+	
+	/**
+	 * @param session the session
+	 * @return the {@code DIFF} frame of the change caused by the current
+	 *         command
+	 */
+	private ByteBuffer diff(Session session) {
+		MineFieldEvent change = session.getLastChange();
+		int count = change == null ? 0 : change.getChangedFieldCount();
+		int[] fields = new int[count];
+		
+		for(int i = 0; i < count; i++) {
+			fields[i] = change.getChangedField(i);
+		}
+		
+		return GameProtocol.diff(session.getId(), session.getField(), fields, count);
+	}
+	
+	private ByteBuffer state(long id, MineField field) {
+		int[] fields = new int[field.FIELD_COUNT];
+		int count = 0;
+		
+		for(int i = 0; i < field.FIELD_COUNT; i++) {
+			if(FieldState.of(field, i) != FieldState.UNDISCOVERED) fields[count++] = i;
+		}
+		
+		return GameProtocol.diff(id, field, fields, count);
+	}
+	
+	/**
+	 * The state of a single connection.
+	 */
+	private static class Connection {
+		
+		/** The requests read so far. */
+		final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		
+		/** The answer waiting to be written. */
+		final ArrayDeque<ByteBuffer> out = new ArrayDeque<>(1);
+	}
+	
+	/**
+	 * Runs the server on its own, without the user interface.
+	 *
+	 * @param args the port, {@value GameProtocol#DEFAULT_PORT} by default
+	 * @throws IOException if the port can not be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : GameProtocol.DEFAULT_PORT;
+		
+		try(GameServer server = new GameServer(port)) {
+			System.out.println("Game server listening on port " + server.getPort());
+			server.run();
+		}
+	}
+}
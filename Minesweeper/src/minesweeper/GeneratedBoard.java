@@ -0,0 +1,54 @@
+package minesweeper;
+
+/**
+ * A board created from a {@link BoardConfiguration}, together with what
+ * it took to generate it.
+ * <p>
+ * A no-guess board is searched for within a time budget, and when the
+ * budget runs out, the board is an ordinary random one. The player is
+ * told about that, since the board no longer keeps the promise of its
+ * generation mode.
+ *
+ * @author Filip Nemec
+ */
+public final class GeneratedBoard {
+	
+	/** The board, ready to be played. */
+	public final MineField field;
+	
+	/** The number of candidate layouts tried, {@code 0} for a random board. */
+	public final long attempts;
+	
+	/** The number of candidate layouts tried per second, {@code 0} for a random board. */
+	public final double attemptsPerSecond;
+	
+	/**
+	 * Flag indicating whether the board keeps the promise of its
+	 * generation mode; {@code false} only for a no-guess board whose
+	 * search ran out of time.
+	 */
+	public final boolean guaranteed;
+	
+	/**
+	 * Creates a new generated board.
+	 *
+	 * @param field the board
+	 * @param attempts the number of candidate layouts tried
+	 * @param attemptsPerSecond the number of candidate layouts tried per second
+	 * @param guaranteed whether the board keeps the promise of its generation mode
+	 */
+	public GeneratedBoard(MineField field, long attempts, double attemptsPerSecond, boolean guaranteed) {
+		this.field = field;
+		this.attempts = attempts;
+		this.attemptsPerSecond = attemptsPerSecond;
+		this.guaranteed = guaranteed;
+	}
+	
+	@Override
+	public String toString() {
+		if(guaranteed && attempts == 0) return "Random board";
+		
+		return String.format("No-guess board: %d attempts (%.0f attempts/s)%s",
+				attempts, attemptsPerSecond, guaranteed ? "" : ", not guaranteed");
+	}
+}
@@ -0,0 +1,47 @@
+package minesweeper;
+
+/**
+ * The ways the mines can be placed on a new board.
+ *
+ * @author Filip Nemec
+ */
+public enum GenerationMode {
+	
+	/** Mines are placed uniformly at random. */
+	RANDOM("Random"),
+	
+	/** The board can always be solved without guessing. */
+	NO_GUESS("No guessing");
+	
+	/** The name shown to the player. */
+	private final String name;
+	
+	/**
+	 * @param name the name shown to the player
+	 */
+	GenerationMode(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * @return a new generator that places the mines in this mode
+	 */
+	public MineGenerator createGenerator() {
+		return this == NO_GUESS ? new NoGuessMineGenerator() : new RandomMineGenerator();
+	}
+	
+	/**
+	 * Returns the mode the given generator places the mines in.
+	 *
+	 * @param generator the generator
+	 * @return the mode of the generator
+	 */
+	public static GenerationMode of(MineGenerator generator) {
+		return generator instanceof NoGuessMineGenerator ? NO_GUESS : RANDOM;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,146 @@
+package minesweeper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, used by the
+ * {@link Metrics}. Values are counted in power-of-two buckets, so
+ * recording a value costs a couple of atomic additions, and percentiles
+ * are known up to a factor of two.
+ *
+ * @author Filip Nemec
+ */
+public final class Histogram implements HistogramMBean {
+	
+	/** The name of the histogram. */
+	private final String name;
+	
+	/** The unit of the recorded values. */
+	private final String unit;
+	
+	/** Bucket {@code b} counts the values that need exactly {@code b} bits. */
+	private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+	
+	/** The sum of the recorded values. */
+	private final LongAdder sum = new LongAdder();
+	
+	/** The largest recorded value. */
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+	
+	/**
+	 * Creates a new, empty histogram.
+	 *
+	 * @param name the name of the histogram
+	 * @param unit the unit of the recorded values
+	 */
+	Histogram(String name, String unit) {
+		this.name = name;
+		this.unit = unit;
+	}
+	
+	/**
+	 * Records the value; negative values are recorded as zero.
+	 *
+	 * @param value the value to be recorded
+	 */
+	void record(long value) {
+		value = Math.max(value, 0);
+		
+		buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+		sum.add(value);
+		max.accumulate(value);
+	}
+	
+	/**
+	 * Records the time passed since the given {@link System#nanoTime()}.
+	 *
+	 * @param start the time the measurement started at
+	 */
+	void recordSince(long start) {
+		record(System.nanoTime() - start);
+	}
+	
+	/**
+	 * @return the name of the histogram
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	@Override
+	public String getUnit() {
+		return unit;
+	}
+	
+	@Override
+	public long getCount() {
+		long count = 0;
+		
+		for(int b = 0; b < buckets.length(); b++) {
+			count += buckets.get(b);
+		}
+		
+		return count;
+	}
+	
+	@Override
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : sum.doubleValue() / count;
+	}
+	
+	@Override
+	public long getP50() {
+		return percentile(0.5);
+	}
+	
+	@Override
+	public long getP99() {
+		return percentile(0.99);
+	}
+	
+	@Override
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * Returns the upper bound of the bucket the given share of the values
+	 * falls into.
+	 *
+	 * @param share the share of the values, from 0 to 1
+	 * @return the upper bound of the percentile
+	 */
+	public long percentile(double share) {
+		long count = getCount();
+		if(count == 0) return 0;
+		
+		long rank = (long) Math.ceil(share * count);
+		long seen = 0;
+		
+		for(int b = 0; b < buckets.length(); b++) {
+			seen += buckets.get(b);
+			if(seen >= rank) return Math.min(b == Long.SIZE ? Long.MAX_VALUE : (1L << b) - 1, getMax());
+		}
+		
+		return getMax();
+	}
+	
+	@Override
+	public void reset() {
+		for(int b = 0; b < buckets.length(); b++) {
+			buckets.set(b, 0);
+		}
+		
+		sum.reset();
+		max.reset();
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%s (%s): count=%d, mean=%.1f, p50<=%d, p99<=%d, max=%d",
+				name, unit, getCount(), getMean(), getP50(), getP99(), getMax());
+	}
+}
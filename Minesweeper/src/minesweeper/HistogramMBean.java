@@ -0,0 +1,44 @@
+package minesweeper;
+
+/**
+ * The management interface of a {@link Histogram}, as seen through JMX.
+ *
+ * @author Filip Nemec
+ */
+public interface HistogramMBean {
+	
+	/**
+	 * @return the unit of the recorded values
+	 */
+	String getUnit();
+	
+	/**
+	 * @return the number of recorded values
+	 */
+	long getCount();
+	
+	/**
+	 * @return the mean of the recorded values
+	 */
+	double getMean();
+	
+	/**
+	 * @return the upper bound of the median
+	 */
+	long getP50();
+	
+	/**
+	 * @return the upper bound of the 99th percentile
+	 */
+	long getP99();
+	
+	/**
+	 * @return the largest recorded value
+	 */
+	long getMax();
+	
+	/**
+	 * Forgets all of the recorded values.
+	 */
+	void reset();
+}
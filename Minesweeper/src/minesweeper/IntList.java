@@ -0,0 +1,93 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive {@code int} values, used wherever field
+ * indices have to be collected without boxing them. It can also be used
+ * as a stack.
+ *
+ * @author Filip Nemec
+ */
+final class IntList {
+	
+	/** The values; only the first {@code size} are used. */
+	private int[] values;
+	
+	/** The number of values in the list. */
+	private int size;
+	
+	/**
+	 * Creates a new, empty list.
+	 */
+	IntList() {
+		this(16);
+	}
+	
+	/**
+	 * Creates a new, empty list with the given initial capacity.
+	 *
+	 * @param capacity the initial capacity
+	 */
+	IntList(int capacity) {
+		this.values = new int[Math.max(capacity, 1)];
+	}
+	
+	/**
+	 * Appends the value to the end of the list.
+	 *
+	 * @param value the value to be added
+	 */
+	void add(int value) {
+		if(size == values.length) {
+			values = Arrays.copyOf(values, size * 2);
+		}
+		
+		values[size++] = value;
+	}
+	
+	/**
+	 * @param i the position of the value
+	 * @return the value at the given position
+	 */
+	int get(int i) {
+		return values[i];
+	}
+	
+	/**
+	 * Removes and returns the last value.
+	 *
+	 * @return the last value
+	 */
+	int pop() {
+		return values[--size];
+	}
+	
+	/**
+	 * @return the number of values in the list
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * @return {@code true} if the list is empty
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Removes all of the values, keeping the capacity.
+	 */
+	void clear() {
+		size = 0;
+	}
+	
+	/**
+	 * @return a new array holding the values of this list
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+}
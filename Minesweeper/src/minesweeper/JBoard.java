@@ -0,0 +1,803 @@
+package minesweeper;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JScrollPane;
+import javax.swing.JViewport;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * A single component that paints the whole mine-field straight from the
+ * state kept by the {@code GameEngine}. Unlike the grid of {@code JField} buttons, the
+ * cost of this component does not depend on the number of fields: only
+ * the fields inside the clip are painted, one mouse listener serves the
+ * whole board and only the changed area gets repainted.
+ * <p>
+ * The fields are painted into tiles of {@value #TILE_SIZE} pixels, which
+ * are kept until a field on them changes, so scrolling only paints the
+ * tiles that come into view. Once a field is smaller than
+ * {@value #OVERVIEW_FIELD_SIZE} pixels, the board is painted from an
+ * overview image instead, with one pixel for a block of fields.
+ * <p>
+ * Inside a scroll pane, the board fills the viewport until the player
+ * zooms in with the mouse wheel or the keyboard while holding
+ * <i>Ctrl</i>, after which it is scrolled around.
+ *
+ * @author Filip Nemec
+ */
+public class JBoard extends JComponent implements ChangeSetListener, Scrollable {
+	
+	/** Used for serialization. */
+	private static final long serialVersionUID = -2378406213944624417L;
+	
+	/** The smallest field size (in pixels) that still gets a text. */
+	private static final int MIN_TEXT_SIZE = 8;
+	
+	/** The largest field size (in pixels) the board can be zoomed to. */
+	private static final int MAX_FIELD_SIZE = 64;
+	
+	/** The field size (in pixels) below which the overview is painted. */
+	private static final int OVERVIEW_FIELD_SIZE = 2;
+	
+	/** The largest width and height of the overview image, in pixels. */
+	private static final int OVERVIEW_SIZE = 2048;
+	
+	/** The width and height of a tile, in pixels. */
+	private static final int TILE_SIZE = 256;
+	
+	/** The largest number of tiles kept, about 32 MB worth of them. */
+	private static final int MAX_TILES = 128;
+	
+	/** The factor a single zoom step changes the field size by. */
+	private static final double ZOOM_STEP = 1.25;
+	
+	/** The color of the border around each field. */
+	private static final Color BORDER = new Color(0, 0, 0, 60);
+	
+	/** The background colors of the fields, indexed by their state. */
+	private static final int[] FIELD_RGB = backgroundTable();
+	
+	/**
+	 * The borders blended over the backgrounds of the fields, indexed by
+	 * their state. Painting an opaque border is many times faster than
+	 * blending the translucent one, and looks the same.
+	 */
+	private static final Color[] FIELD_BORDERS = borderTable();
+	
+	/** The borders blended over the undiscovered fields, indexed by their percentage of a mine. */
+	private static final Color[] PROBABILITY_BORDERS = probabilityBorderTable();
+	
+	/** The engine running the game on this board. */
+	private final GameEngine engine;
+	
+	/** Whether the odd rows are shifted right by half a field, as on a {@link Topology#HEX} board. */
+	private final boolean shifted;
+	
+	/** The width of the board, in halves of a field. */
+	private final int halfColumns;
+	
+	/** The font the text is currently painted with. */
+	private Font font;
+	
+	/** The smaller font the probabilities are currently painted with. */
+	private Font probabilityFont;
+	
+	/** The probabilities painted over the undiscovered fields, or {@code null} if none are. */
+	private MineProbabilities probabilities;
+	
+	/**
+	 * The size of a field, in pixels, or {@code 0} while the board is
+	 * stretched over the whole viewport.
+	 */
+	private double fieldSize;
+	
+	/** The painted tiles, by their position, the least recently used first. */
+	private final Map<Long, BufferedImage> tiles = new LinkedHashMap<Long, BufferedImage>(MAX_TILES, 0.75f, true) {
+		
+		/** Used for serialization. */
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+			if(size() <= MAX_TILES) return false;
+			
+			spareTile = eldest.getValue();
+			return true;
+		}
+	};
+	
+	/** The image of the last evicted tile, reused for the next one. */
+	private BufferedImage spareTile;
+	
+	/** The width of the board the tiles were painted for. */
+	private int tilesWidth;
+	
+	/** The height of the board the tiles were painted for. */
+	private int tilesHeight;
+	
+	/** The overview of the board, or {@code null} until it is needed. */
+	private BufferedImage overview;
+	
+	/** The number of rows and columns in a block of fields of the overview. */
+	private final int blockSize;
+	
+	/** The number of blocks in a row of the overview. */
+	private final int blockColumns;
+	
+	/** The number of blocks in a column of the overview. */
+	private final int blockRows;
+	
+	/** The blocks of the overview that need to be painted again. */
+	private final long[] dirtyBlocks;
+	
+	/** The indices of the dirty blocks. */
+	private final IntList dirtyBlockList = new IntList();
+	
+	/**
+	 * Creates a new board that paints the game run by the given engine.
+	 *
+	 * @param engine the engine running the game
+	 */
+	public JBoard(GameEngine engine) {
+		this.engine = engine;
+		this.shifted = engine.getNeighbours().TOPOLOGY == Topology.HEX;
+		this.halfColumns = engine.COLUMNS * 2 + (shifted ? 1 : 0);
+		this.blockSize = (Math.max(engine.ROWS, engine.COLUMNS) + OVERVIEW_SIZE - 1) / OVERVIEW_SIZE;
+		this.blockColumns = (engine.COLUMNS + blockSize - 1) / blockSize;
+		this.blockRows = (engine.ROWS + blockSize - 1) / blockSize;
+		this.dirtyBlocks = Bits.create(blockColumns * blockRows);
+		
+		setOpaque(true);
+		engine.addChangeSetListener(this);
+		
+		addMouseWheelListener(this::mouseWheelMoved);
+		
+		getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_EQUALS, InputEvent.CTRL_DOWN_MASK), "zoomIn");
+		getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_ADD, InputEvent.CTRL_DOWN_MASK), "zoomIn");
+		getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_MINUS, InputEvent.CTRL_DOWN_MASK), "zoomOut");
+		getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_SUBTRACT, InputEvent.CTRL_DOWN_MASK), "zoomOut");
+		getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_0, InputEvent.CTRL_DOWN_MASK), "fit");
+		getActionMap().put("zoomIn", zoomAction(ZOOM_STEP));
+		getActionMap().put("zoomOut", zoomAction(1 / ZOOM_STEP));
+		getActionMap().put("fit", zoomAction(0));
+		
+		addMouseListener(new FieldMouseAdapter() {
+			
+			@Override
+			void reveal(MouseEvent e) {
+				int row = rowAt(e.getY());
+				int column = columnAt(e.getX(), row);
+				if(row >= 0 && column >= 0) engine.toggleField(row, column);
+			}
+			
+			@Override
+			void flag(MouseEvent e) {
+				int row = rowAt(e.getY());
+				int column = columnAt(e.getX(), row);
+				if(row >= 0 && column >= 0) engine.toggleFlag(row, column);
+			}
+			
+			@Override
+			void chord(MouseEvent e) {
+				int row = rowAt(e.getY());
+				int column = columnAt(e.getX(), row);
+				if(row >= 0 && column >= 0) engine.chord(row, column);
+			}
+		});
+	}
+	
+	//------------------------------------------------------------
+	//						   Zooming
+	//------------------------------------------------------------
+	
+	/**
+	 * Creates the action that zooms around the middle of the visible
+	 * part of the board.
+	 *
+	 * @param factor the factor the field size is multiplied by, or
+	 *        {@code 0} to fit the board into the viewport
+	 * @return the zoom action
+	 */
+	private AbstractAction zoomAction(double factor) {
+		return new AbstractAction() {
+			
+			/** Used for serialization. */
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				Rectangle visible = getVisibleRect();
+				zoom(factor, new Point(visible.x + visible.width / 2, visible.y + visible.height / 2));
+			}
+		};
+	}
+	
+	/**
+	 * Zooms around the mouse if <i>Ctrl</i> is held, and otherwise passes
+	 * the event on, so that the enclosing scroll pane can scroll.
+	 *
+	 * @param e the mouse wheel event
+	 */
+	private void mouseWheelMoved(MouseWheelEvent e) {
+		if(e.isControlDown()) {
+			zoom(Math.pow(ZOOM_STEP, -e.getPreciseWheelRotation()), e.getPoint());
+		} else if(getParent() != null) {
+			getParent().dispatchEvent(SwingUtilities.convertMouseEvent(this, e, getParent()));
+		}
+	}
+	
+	/**
+	 * Changes the size of the fields, keeping the given point of the board
+	 * in place on the screen. Once the whole board fits into the viewport,
+	 * it goes back to being stretched over it. Does nothing if the board is
+	 * not inside a viewport.
+	 *
+	 * @param factor the factor the field size is multiplied by, or
+	 *        {@code 0} to fit the board into the viewport
+	 * @param anchor the point of the board that stays in place
+	 */
+	public void zoom(double factor, Point anchor) {
+		if(!(getParent() instanceof JViewport) || getWidth() == 0 || getHeight() == 0) return;
+		
+		JViewport viewport = (JViewport) getParent();
+		Dimension extent = viewport.getExtentSize();
+		Point position = viewport.getViewPosition();
+		
+		double current = Math.min(2.0 * getWidth() / halfColumns, (double) getHeight() / engine.ROWS);
+		double size = Math.min(current * factor, MAX_FIELD_SIZE);
+		
+		if(size * halfColumns / 2 <= extent.width && size * engine.ROWS <= extent.height) {
+			fieldSize = 0;
+			revalidate();
+			repaint();
+			return;
+		}
+		
+		double anchorX = (double) anchor.x / getWidth();
+		double anchorY = (double) anchor.y / getHeight();
+		
+		fieldSize = size;
+		Dimension board = getPreferredSize();
+		setSize(board);
+		
+		int x = (int) Math.round(anchorX * board.width) - (anchor.x - position.x);
+		int y = (int) Math.round(anchorY * board.height) - (anchor.y - position.y);
+		x = Math.max(0, Math.min(x, board.width - extent.width));
+		y = Math.max(0, Math.min(y, board.height - extent.height));
+		
+		viewport.setViewPosition(new Point(x, y));
+		revalidate();
+		repaint();
+	}
+	
+	@Override
+	public Dimension getPreferredScrollableViewportSize() {
+		return getPreferredSize();
+	}
+	
+	@Override
+	public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+		return Math.max((int) fieldSize, MIN_TEXT_SIZE * 2);
+	}
+	
+	@Override
+	public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+		int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+		return Math.max(extent - getScrollableUnitIncrement(visibleRect, orientation, direction), 1);
+	}
+	
+	@Override
+	public boolean getScrollableTracksViewportWidth() {
+		return fieldSize == 0 || getParent() instanceof JViewport && getParent().getWidth() > getPreferredSize().width;
+	}
+	
+	@Override
+	public boolean getScrollableTracksViewportHeight() {
+		return fieldSize == 0 || getParent() instanceof JViewport && getParent().getHeight() > getPreferredSize().height;
+	}
+	
+	//------------------------------------------------------------
+	//					  Field geometry
+	//------------------------------------------------------------
+	
+	/**
+	 * @param row the row of the field
+	 * @return the y coordinate of the top edge of the given row
+	 */
+	private int rowY(int row) {
+		return (int) ((long) row * getHeight() / engine.ROWS);
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the x coordinate of the left edge of the given field
+	 */
+	private int columnX(int row, int column) {
+		return halfX(column * 2 + shiftOf(row));
+	}
+	
+	/**
+	 * @param half the position in halves of a field
+	 * @return the x coordinate of the position
+	 */
+	private int halfX(int half) {
+		return (int) ((long) half * getWidth() / halfColumns);
+	}
+	
+	/**
+	 * @param row the row
+	 * @return {@code 1} if the row is shifted right by half a field,
+	 *         {@code 0} otherwise
+	 */
+	private int shiftOf(int row) {
+		return shifted ? row & 1 : 0;
+	}
+	
+	/**
+	 * @param y the y coordinate
+	 * @return the row at the given coordinate, or {@code -1} if outside
+	 */
+	private int rowAt(int y) {
+		if(y < 0 || y >= getHeight()) return -1;
+		return (int) ((((long) y + 1) * engine.ROWS - 1) / getHeight());
+	}
+	
+	/**
+	 * @param x the x coordinate, inside the board
+	 * @return the half of a field at the given coordinate, the exact
+	 *         inverse of {@link #halfX(int)}
+	 */
+	private int halfAt(int x) {
+		return (int) ((((long) x + 1) * halfColumns - 1) / getWidth());
+	}
+	
+	/**
+	 * @param x the x coordinate
+	 * @param row the row the coordinate is in
+	 * @return the column at the given coordinate, or {@code -1} if outside
+	 */
+	private int columnAt(int x, int row) {
+		if(x < 0 || x >= getWidth() || row < 0) return -1;
+		
+		int half = halfAt(x) - shiftOf(row);
+		return half < 0 || half / 2 >= engine.COLUMNS ? -1 : half / 2;
+	}
+	
+	//------------------------------------------------------------
+	//						  Painting
+	//------------------------------------------------------------
+	
+	@Override
+	public Dimension getPreferredSize() {
+		if(isPreferredSizeSet()) return super.getPreferredSize();
+		if(fieldSize == 0) return new Dimension(engine.COLUMNS * 20, engine.ROWS * 20);
+		
+		return new Dimension((int) Math.ceil(halfColumns * fieldSize / 2), (int) Math.ceil(engine.ROWS * fieldSize));
+	}
+	
+	@Override
+	protected void paintComponent(Graphics g) {
+		if(getWidth() == 0 || getHeight() == 0) return;
+		
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+		clip = clip.intersection(new Rectangle(0, 0, getWidth(), getHeight()));
+		if(clip.isEmpty()) return;
+		
+		if(getWidth() * 2 < halfColumns * OVERVIEW_FIELD_SIZE || getHeight() < engine.ROWS * OVERVIEW_FIELD_SIZE) {
+			paintOverview(g);
+			return;
+		}
+		
+		if(tilesWidth != getWidth() || tilesHeight != getHeight()) {
+			tiles.clear();
+			tilesWidth = getWidth();
+			tilesHeight = getHeight();
+		}
+		
+		for(int ty = clip.y / TILE_SIZE; ty <= (clip.y + clip.height - 1) / TILE_SIZE; ty++) {
+			for(int tx = clip.x / TILE_SIZE; tx <= (clip.x + clip.width - 1) / TILE_SIZE; tx++) {
+				g.drawImage(tile(tx, ty), tx * TILE_SIZE, ty * TILE_SIZE, null);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the tile at the given position, painting it first if it is
+	 * not in the cache.
+	 *
+	 * @param tx the column of the tile
+	 * @param ty the row of the tile
+	 * @return the image of the tile
+	 */
+	private BufferedImage tile(int tx, int ty) {
+		long key = (long) ty << 32 | tx;
+		
+		BufferedImage tile = tiles.get(key);
+		if(tile != null) return tile;
+		
+		if(spareTile != null) {
+			tile = spareTile;
+			spareTile = null;
+		} else {
+			tile = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		}
+		
+		Graphics2D g = tile.createGraphics();
+		g.translate(-tx * TILE_SIZE, -ty * TILE_SIZE);
+		paintFields(g, new Rectangle(tx * TILE_SIZE, ty * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+		g.dispose();
+		
+		tiles.put(key, tile);
+		return tile;
+	}
+	
+	/**
+	 * Paints the fields inside the given area of the board.
+	 *
+	 * @param g the graphics to paint with
+	 * @param area the area of the board
+	 */
+	private void paintFields(Graphics g, Rectangle area) {
+		int fromRow = rowAt(area.y);
+		int toRow = rowAt(Math.min(area.y + area.height, getHeight()) - 1);
+		int fromHalf = halfAt(area.x);
+		int toHalf = halfAt(Math.min(area.x + area.width, getWidth()) - 1);
+		
+		boolean paintText = getHeight() / engine.ROWS >= MIN_TEXT_SIZE && getWidth() * 2 / halfColumns >= MIN_TEXT_SIZE;
+		if(paintText) {
+			g.setFont(fontFor(getHeight() / engine.ROWS));
+		}
+		
+		Font textFont = g.getFont();
+		Font smallFont = paintText && probabilities != null ? probabilityFontFor(getHeight() / engine.ROWS) : null;
+		
+		if(shifted) {
+			g.setColor(getBackground());
+			g.fillRect(area.x, area.y, area.width, area.height);
+		}
+		
+		for(int r = fromRow; r <= toRow; r++) {
+			int y = rowY(r);
+			int height = rowY(r + 1) - y;
+			int fromColumn = Math.max((fromHalf - shiftOf(r)) / 2, 0);
+			int toColumn = Math.min((toHalf - shiftOf(r)) / 2, engine.COLUMNS - 1);
+			
+			for(int c = fromColumn; c <= toColumn; c++) {
+				int x = columnX(r, c);
+				byte state = engine.getState(r, c);
+				
+				if(probabilities != null && state == FieldState.UNDISCOVERED) {
+					g.setFont(smallFont);
+					paintProbability(g, probabilities.get(r * engine.COLUMNS + c), x, y, columnX(r, c + 1) - x, height, paintText);
+					g.setFont(textFont);
+				} else {
+					paintField(g, state, x, y, columnX(r, c + 1) - x, height, paintText);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Paints the board from the overview, bringing the dirty blocks of the
+	 * overview up to date first.
+	 *
+	 * @param g the graphics to paint with
+	 */
+	private void paintOverview(Graphics g) {
+		if(overview == null) {
+			overview = new BufferedImage(blockColumns, blockRows, BufferedImage.TYPE_INT_RGB);
+			dirtyBlockList.clear();
+			
+			for(int block = 0; block < blockColumns * blockRows; block++) {
+				paintBlock(block);
+			}
+			
+		} else {
+			for(int i = 0; i < dirtyBlockList.size(); i++) {
+				int block = dirtyBlockList.get(i);
+				Bits.clear(dirtyBlocks, block);
+				paintBlock(block);
+			}
+		}
+		
+		dirtyBlockList.clear();
+		
+		int width = (int) ((long) overview.getWidth() * blockSize * getWidth() * 2 / halfColumns);
+		int height = (int) ((long) overview.getHeight() * blockSize * getHeight() / engine.ROWS);
+		g.drawImage(overview, 0, 0, width, height, null);
+	}
+	
+	/**
+	 * Paints a single block of the overview in the average color of its
+	 * fields.
+	 *
+	 * @param block the index of the block
+	 */
+	private void paintBlock(int block) {
+		int fromRow = block / blockColumns * blockSize;
+		int fromColumn = block % blockColumns * blockSize;
+		int toRow = Math.min(fromRow + blockSize, engine.ROWS);
+		int toColumn = Math.min(fromColumn + blockSize, engine.COLUMNS);
+		
+		int red = 0, green = 0, blue = 0;
+		
+		for(int r = fromRow; r < toRow; r++) {
+			for(int c = fromColumn; c < toColumn; c++) {
+				int rgb = FIELD_RGB[engine.getState(r, c)];
+				red += rgb >> 16 & 0xFF;
+				green += rgb >> 8 & 0xFF;
+				blue += rgb & 0xFF;
+			}
+		}
+		
+		int count = (toRow - fromRow) * (toColumn - fromColumn);
+		overview.setRGB(block % blockColumns, block / blockColumns, red / count << 16 | green / count << 8 | blue / count);
+	}
+	
+	/**
+	 * Paints a single field.
+	 *
+	 * @param g the graphics to paint with
+	 * @param state the state of the field
+	 * @param x the x coordinate of the field
+	 * @param y the y coordinate of the field
+	 * @param width the width of the field
+	 * @param height the height of the field
+	 * @param paintText {@code true} if the field is big enough for a text
+	 */
+	static void paintField(Graphics g, byte state, int x, int y, int width, int height, boolean paintText) {
+		Color background = backgroundOf(state);
+		String text;
+		
+		switch(state) {
+			case FieldState.UNDISCOVERED: text = null; break;
+			case FieldState.FLAGGED:      text = "F"; break;
+			case FieldState.WRONG_FLAG:   text = "X"; break;
+			case FieldState.MINE:
+			case FieldState.EXPLODED:     text = "M"; break;
+			default:                      text = state != 0 ? String.valueOf(state) : null;
+		}
+		
+		g.setColor(background);
+		g.fillRect(x, y, width, height);
+		
+		if(width > 2 && height > 2) {
+			g.setColor(state >= 0 && state < FIELD_BORDERS.length ? FIELD_BORDERS[state] : BORDER);
+			g.drawRect(x, y, width - 1, height - 1);
+		}
+		
+		if(paintText && text != null) {
+			FontMetrics metrics = g.getFontMetrics();
+			g.setColor(background == Color.black ? Color.white : Color.black);
+			g.drawString(text, x + (width - metrics.stringWidth(text)) / 2, y + (height - metrics.getHeight()) / 2 + metrics.getAscent());
+		}
+	}
+	
+	/**
+	 * Paints an undiscovered field in the color of its probability of a
+	 * mine, with the percentage on it if it fits.
+	 *
+	 * @param g the graphics to paint with
+	 * @param probability the probability of a mine on the field
+	 * @param x the x coordinate of the field
+	 * @param y the y coordinate of the field
+	 * @param width the width of the field
+	 * @param height the height of the field
+	 * @param paintText {@code true} if the field is big enough for a text
+	 */
+	private static void paintProbability(Graphics g, float probability, int x, int y, int width, int height, boolean paintText) {
+		int percent = Math.round(Math.min(Math.max(probability, 0), 1) * 100);
+		
+		g.setColor(JField.probabilityColor(probability));
+		g.fillRect(x, y, width, height);
+		
+		if(width > 2 && height > 2) {
+			g.setColor(PROBABILITY_BORDERS[percent]);
+			g.drawRect(x, y, width - 1, height - 1);
+		}
+		
+		if(paintText) {
+			String text = String.valueOf(percent);
+			FontMetrics metrics = g.getFontMetrics();
+			
+			if(metrics.stringWidth(text) < width - 2) {
+				g.setColor(Color.darkGray);
+				g.drawString(text, x + (width - metrics.stringWidth(text)) / 2, y + (height - metrics.getHeight()) / 2 + metrics.getAscent());
+			}
+		}
+	}
+	
+	/**
+	 * Returns the background color of the field in the given state.
+	 *
+	 * @param state the state of the field
+	 * @return the background color of the field
+	 */
+	private static Color backgroundOf(byte state) {
+		switch(state) {
+			case FieldState.UNDISCOVERED: return JField.UNDISCOVERED;
+			case FieldState.FLAGGED:      return Color.lightGray;
+			case FieldState.WRONG_FLAG:   return JField.WRONG_FLAG;
+			case FieldState.MINE:         return Color.black;
+			case FieldState.EXPLODED:     return Color.red;
+			default:                      return state == 0 ? JField.ZERO_NEIGHBOUR_MINES : JField.ANY_NEIGHBOUR_IS_A_MINE;
+		}
+	}
+	
+	/**
+	 * @return the background colors of the fields, indexed by their state
+	 */
+	private static int[] backgroundTable() {
+		int[] table = new int[FieldState.WRONG_FLAG + 1];
+		
+		for(byte state = 0; state < table.length; state++) {
+			table[state] = backgroundOf(state).getRGB();
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * @return the borders blended over the backgrounds of the fields,
+	 *         indexed by their state
+	 */
+	private static Color[] borderTable() {
+		Color[] table = new Color[FieldState.WRONG_FLAG + 1];
+		
+		for(byte state = 0; state < table.length; state++) {
+			table[state] = blendBorder(backgroundOf(state));
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * @return the borders blended over the undiscovered fields, indexed by
+	 *         their percentage of a mine
+	 */
+	private static Color[] probabilityBorderTable() {
+		Color[] table = new Color[101];
+		
+		for(int percent = 0; percent < table.length; percent++) {
+			table[percent] = blendBorder(JField.probabilityColor(percent / 100f));
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * @param background the background of a field
+	 * @return the border blended over the background
+	 */
+	private static Color blendBorder(Color background) {
+		float alpha = BORDER.getAlpha() / 255f;
+		
+		return new Color(
+				Math.round(background.getRed() * (1 - alpha) + BORDER.getRed() * alpha),
+				Math.round(background.getGreen() * (1 - alpha) + BORDER.getGreen() * alpha),
+				Math.round(background.getBlue() * (1 - alpha) + BORDER.getBlue() * alpha));
+	}
+	
+	/**
+	 * Returns the font that fits into the fields of the given size.
+	 *
+	 * @param fieldSize the height of a single field
+	 * @return the font for the field text
+	 */
+	private Font fontFor(int fieldSize) {
+		int size = Math.max(fieldSize * 2 / 3, 1);
+		
+		if(font == null || font.getSize() != size) {
+			font = new Font("Arial", Font.PLAIN, size);
+		}
+		
+		return font;
+	}
+	
+	/**
+	 * Returns the font the probabilities fit into the fields of the given
+	 * size with, smaller than the font of the numbers.
+	 *
+	 * @param fieldSize the height of a single field
+	 * @return the font for the probabilities
+	 */
+	private Font probabilityFontFor(int fieldSize) {
+		int size = Math.max(fieldSize * 2 / 5, 1);
+		
+		if(probabilityFont == null || probabilityFont.getSize() != size) {
+			probabilityFont = new Font("Arial", Font.PLAIN, size);
+		}
+		
+		return probabilityFont;
+	}
+	
+	/**
+	 * Paints the probabilities over the undiscovered fields, or stops
+	 * painting them. The overview of a board zoomed far out is left as it
+	 * is.
+	 *
+	 * @param probabilities the probabilities, or {@code null} to paint the
+	 *        undiscovered fields plain
+	 */
+	public void setProbabilities(MineProbabilities probabilities) {
+		if(probabilities == this.probabilities) return;
+		
+		this.probabilities = probabilities;
+		tiles.clear();
+		repaint();
+	}
+	
+	//------------------------------------------------------------
+	//					Model listener methods
+	//------------------------------------------------------------
+	
+	@Override
+	public void onChange(ChangeSet changes) {
+		if(overview != null) {
+			for(int i = 0, n = changes.getChangedFieldCount(); i < n; i++) {
+				int index = changes.getChangedField(i);
+				int block = index / engine.COLUMNS / blockSize * blockColumns + index % engine.COLUMNS / blockSize;
+				
+				if(!Bits.get(dirtyBlocks, block)) {
+					Bits.set(dirtyBlocks, block);
+					dirtyBlockList.add(block);
+				}
+			}
+		}
+		
+		if(changes.isExplosion()) {
+			tiles.clear();
+			repaint();
+			return;
+		}
+		
+		int fromRow = engine.ROWS;
+		int toRow = -1;
+		int fromColumn = engine.COLUMNS;
+		int toColumn = -1;
+		
+		for(int i = 0, n = changes.getChangedFieldCount(); i < n; i++) {
+			int index = changes.getChangedField(i);
+			int row = index / engine.COLUMNS;
+			int column = index % engine.COLUMNS;
+			
+			fromRow = Math.min(fromRow, row);
+			toRow = Math.max(toRow, row);
+			fromColumn = Math.min(fromColumn, column);
+			toColumn = Math.max(toColumn, column);
+		}
+		
+		if(toRow < 0) return;
+		
+		int x = halfX(fromColumn * 2);
+		int y = rowY(fromRow);
+		Rectangle changed = new Rectangle(x, y, halfX(toColumn * 2 + 2 + (shifted ? 1 : 0)) - x, rowY(toRow + 1) - y);
+		
+		tiles.keySet().removeIf(key -> changed.intersects(
+				(int) (long) key * TILE_SIZE, (int) (key >> 32) * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+		
+		repaint(changed);
+	}
+}
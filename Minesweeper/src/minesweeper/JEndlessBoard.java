@@ -0,0 +1,210 @@
+package minesweeper;
+
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JComponent;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/**
+ * Paints the visible part of an {@link EndlessMineField}. The board is
+ * scrolled by dragging it with the mouse; only the fields inside the clip
+ * are painted, and only the chunks under them are ever created.
+ * <p>
+ * The model is small enough per action to be played on the event dispatch
+ * thread, which is also the only thread that touches it.
+ *
+ * @author Filip Nemec
+ */
+public class JEndlessBoard extends JComponent {
+	
+	/** Used for serialization. */
+	private static final long serialVersionUID = 4211460953162378263L;
+	
+	/** The size of a single field, in pixels. */
+	private static final int FIELD_SIZE = 24;
+	
+	/** The font of the field text. */
+	private static final Font FONT = new Font("Arial", Font.PLAIN, FIELD_SIZE * 2 / 3);
+	
+	/** The model of the board. */
+	private final EndlessMineField model;
+	
+	/** The x coordinate of the left edge of the view, in pixels from the origin. */
+	private long viewX = Long.MIN_VALUE;
+	
+	/** The y coordinate of the top edge of the view, in pixels from the origin. */
+	private long viewY;
+	
+	/**
+	 * Creates a new view of the given board.
+	 *
+	 * @param model the board
+	 */
+	public JEndlessBoard(EndlessMineField model) {
+		this.model = model;
+		
+		setOpaque(true);
+		
+		addMouseListener(new FieldMouseAdapter() {
+			
+			@Override
+			void reveal(MouseEvent e) {
+				model.toggleField(rowAt(e.getY()), columnAt(e.getX()));
+				changed();
+			}
+			
+			@Override
+			void flag(MouseEvent e) {
+				model.toggleFlag(rowAt(e.getY()), columnAt(e.getX()));
+				changed();
+			}
+			
+			@Override
+			void chord(MouseEvent e) {
+				model.chord(rowAt(e.getY()), columnAt(e.getX()));
+				changed();
+			}
+		});
+		
+		MouseAdapter scroller = new MouseAdapter() {
+			
+			/** The last position of the mouse while dragging. */
+			private int lastX, lastY;
+			
+			@Override
+			public void mousePressed(MouseEvent e) {
+				lastX = e.getX();
+				lastY = e.getY();
+			}
+			
+			@Override
+			public void mouseDragged(MouseEvent e) {
+				scrollBy(lastX - e.getX(), lastY - e.getY());
+				lastX = e.getX();
+				lastY = e.getY();
+			}
+		};
+		
+		addMouseListener(scroller);
+		addMouseMotionListener(scroller);
+	}
+	
+	/**
+	 * Scrolls the view by the given number of pixels.
+	 *
+	 * @param dx the horizontal distance
+	 * @param dy the vertical distance
+	 */
+	public void scrollBy(int dx, int dy) {
+		centerIfNeeded();
+		viewX += dx;
+		viewY += dy;
+		repaint();
+	}
+	
+	/**
+	 * Centers the view on the origin, the first time the view is used.
+	 */
+	private void centerIfNeeded() {
+		if(viewX != Long.MIN_VALUE) return;
+		
+		viewX = (FIELD_SIZE - getWidth()) / 2;
+		viewY = (FIELD_SIZE - getHeight()) / 2;
+	}
+	
+	/**
+	 * Repaints the board and notifies the listeners after a player action.
+	 */
+	private void changed() {
+		repaint();
+		
+		ChangeEvent event = new ChangeEvent(this);
+		for(ChangeListener l : listenerList.getListeners(ChangeListener.class)) {
+			l.stateChanged(event);
+		}
+	}
+	
+	//------------------------------------------------------------
+	//					  Field geometry
+	//------------------------------------------------------------
+	
+	/**
+	 * @param y the y coordinate
+	 * @return the row at the given coordinate
+	 */
+	private int rowAt(int y) {
+		centerIfNeeded();
+		return (int) Math.floorDiv(viewY + y, FIELD_SIZE);
+	}
+	
+	/**
+	 * @param x the x coordinate
+	 * @return the column at the given coordinate
+	 */
+	private int columnAt(int x) {
+		centerIfNeeded();
+		return (int) Math.floorDiv(viewX + x, FIELD_SIZE);
+	}
+	
+	//------------------------------------------------------------
+	//						  Painting
+	//------------------------------------------------------------
+	
+	@Override
+	public Dimension getPreferredSize() {
+		if(isPreferredSizeSet()) return super.getPreferredSize();
+		return new Dimension(40 * FIELD_SIZE, 30 * FIELD_SIZE);
+	}
+	
+	@Override
+	protected void paintComponent(Graphics g) {
+		if(getWidth() == 0 || getHeight() == 0) return;
+		
+		Rectangle clip = g.getClipBounds();
+		if(clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+		
+		int fromRow = rowAt(clip.y);
+		int toRow = rowAt(clip.y + clip.height - 1);
+		int fromColumn = columnAt(clip.x);
+		int toColumn = columnAt(clip.x + clip.width - 1);
+		
+		g.setFont(FONT);
+		
+		for(int r = fromRow; r <= toRow; r++) {
+			int y = (int) ((long) r * FIELD_SIZE - viewY);
+			
+			for(int c = fromColumn; c <= toColumn; c++) {
+				int x = (int) ((long) c * FIELD_SIZE - viewX);
+				JBoard.paintField(g, model.getState(r, c), x, y, FIELD_SIZE, FIELD_SIZE, true);
+			}
+		}
+	}
+	
+	//------------------------------------------------------------
+	//					  Listener registration
+	//------------------------------------------------------------
+	
+	/**
+	 * Adds a new listener, notified after every player action.
+	 *
+	 * @param l the listener to be added
+	 */
+	public void addChangeListener(ChangeListener l) {
+		listenerList.add(ChangeListener.class, l);
+	}
+	
+	/**
+	 * Removes the given listener.
+	 *
+	 * @param l the listener to be removed
+	 */
+	public void removeChangeListener(ChangeListener l) {
+		listenerList.remove(ChangeListener.class, l);
+	}
+}
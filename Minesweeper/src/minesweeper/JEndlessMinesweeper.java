@@ -0,0 +1,86 @@
+package minesweeper;
+
+import java.awt.BorderLayout;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GridLayout;
+import java.awt.Toolkit;
+
+import javax.swing.BorderFactory;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+
+/**
+ * Models the <i>Minesweeper</i> window of an endless game. There is no
+ * way to win an endless game; the score is the number of discovered
+ * fields.
+ *
+ * @author Filip Nemec
+ */
+@SuppressWarnings("serial")
+public class JEndlessMinesweeper extends JFrame {
+	
+	/** Displays the number of used flags. */
+	private JLabel flagsUsedLabel;
+	
+	/** Displays the number of discovered fields. */
+	private JLabel fieldsDiscoveredLabel;
+	
+	/** Displays the memory taken by the board. */
+	private JLabel memoryLabel;
+	
+	/** The board being played. */
+	private EndlessMineField model;
+	
+	/** Flag indicating whether the player has been told the game is over. */
+	private boolean gameOver;
+	
+	/**
+	 * Constructs and starts a new endless game.
+	 *
+	 * @param model the board to be played
+	 */
+	public JEndlessMinesweeper(EndlessMineField model) {
+		this.model = model;
+		
+		setTitle("Endless Minesweeper");
+		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+		
+		Container pane = getContentPane();
+		
+		JPanel infoPanel = new JPanel(new GridLayout(1, 0));
+			infoPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+			infoPanel.add(flagsUsedLabel = new JLabel("", JLabel.CENTER));
+			infoPanel.add(fieldsDiscoveredLabel = new JLabel("", JLabel.CENTER));
+			infoPanel.add(memoryLabel = new JLabel("", JLabel.CENTER));
+			pane.add(infoPanel, BorderLayout.NORTH);
+		
+		JEndlessBoard board = new JEndlessBoard(model);
+			board.addChangeListener(e -> update());
+			pane.add(board, BorderLayout.CENTER);
+		
+		update();
+		pack();
+		
+		Dimension dim = Toolkit.getDefaultToolkit().getScreenSize();
+		setLocation((dim.width - getWidth()) / 2, (dim.height - getHeight()) / 2);
+	}
+	
+	/**
+	 * Updates the labels after a player action, and tells the player once
+	 * the game is over.
+	 */
+	private void update() {
+		flagsUsedLabel.setText("Flags used: " + model.getFlagCount());
+		fieldsDiscoveredLabel.setText("Fields discovered: " + model.getDiscoveredCount());
+		memoryLabel.setText(String.format("Chunks: %d + %d compressed, %d KB",
+				model.getHotChunkCount(), model.getColdChunkCount(), model.footprint() / 1024));
+		
+		if(model.isExploded() && !gameOver) {
+			gameOver = true;
+			JOptionPane.showMessageDialog(this, "Game over! You have discovered " + model.getDiscoveredCount() + " fields.");
+		}
+	}
+}
@@ -3,17 +3,15 @@ package minesweeper;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Insets;
-import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Objects;
 
 import javax.swing.JButton;
 
 /**
- * Models a single field on the board.
+ * Models a single field on the board. The field itself holds no game
+ * state - it only displays the state of the matching field in the
+ * underlying {@code MineField} model.
  *
  * @author Filip Nemec
  */
@@ -22,15 +20,6 @@ public class JField extends JButton {
 	/** Used for serialization. */
 	private static final long serialVersionUID = 7542505804946504685L;
 	
-	/** Flag indicating whether this field is a mine. */
-	public final boolean isMine;
-	
-	/** Flag indicating whether this field is currently flagged. */
-	private boolean isFlagged;
-	
-	/** Flag indicating whether this field has been discovered. */
-	private boolean isDiscovered;
-	
 	/** The row that this field is on. */
 	public final int row;
 	
@@ -41,25 +30,39 @@ public class JField extends JButton {
 	private JMineField mineField;
 	
 	/** The color of the undiscovered field. */
-	private static final Color UNDISCOVERED = new Color(54, 171, 255);
+	static final Color UNDISCOVERED = new Color(54, 171, 255);
 	
 	/** The color of the field with no neighbour mines. */
-	private static final Color ZERO_NEIGHBOUR_MINES = new Color(32, 199, 32);
+	static final Color ZERO_NEIGHBOUR_MINES = new Color(32, 199, 32);
 	
 	/** The color of the field with any neighbour being a mine. */
-	private static final Color ANY_NEIGHBOUR_IS_A_MINE = new Color(255, 241, 41);
+	static final Color ANY_NEIGHBOUR_IS_A_MINE = new Color(255, 241, 41);
+	
+	/** The color of the flag that turned out not to be on a mine. */
+	static final Color WRONG_FLAG = new Color(255, 140, 0);
 	
+	/**
+	 * The colors of the undiscovered fields by their percentage of a mine,
+	 * from pale blue through purple to red, so that they are never mistaken
+	 * for the colors of the discovered fields.
+	 */
+	private static final Color[] PROBABILITY_COLORS = new Color[101];
+	
+	static {
+		for(int percent = 0; percent < PROBABILITY_COLORS.length; percent++) {
+			PROBABILITY_COLORS[percent] = Color.getHSBColor(0.58f + percent * 0.0042f, 0.3f + percent * 0.006f, 1f);
+		}
+	}
+
 	/**
 	 * Creates a new field on the given board.
 	 *
 	 * @param mineField the mine-field this field is a part of
-	 * @param isMine flag indicating whether this field is a mine
 	 * @param row the row of this field
 	 * @param column the column of this field
 	 */
-	public JField(JMineField mineField, boolean isMine, int row, int column) {
+	public JField(JMineField mineField, int row, int column) {
 		this.mineField = mineField;
-		this.isMine = isMine;
 		this.row = row;
 		this.column = column;
 		
@@ -67,25 +70,27 @@ public class JField extends JButton {
 		setFont(new Font("Arial", Font.PLAIN, 20));
 		setBackground(UNDISCOVERED);
 		
-		addMouseListener(new MouseAdapter() {
+		addMouseListener(new FieldMouseAdapter() {
+			
+			@Override
+			void reveal(MouseEvent e) {
+				if(isEnabled()) toggleField();
+			}
 			
 			@Override
-			public void mouseClicked(MouseEvent e) {
-				if(!isEnabled()) return;
-				
-				if(e.getButton() == MouseEvent.BUTTON1) {
-					toggleField();
-					
-				} else if(e.getButton() == MouseEvent.BUTTON3) {
-					toggleFlag();
-					
-				}
+			void flag(MouseEvent e) {
+				if(isEnabled()) toggleFlag();
+			}
+			
+			@Override
+			void chord(MouseEvent e) {
+				JField.this.chord();
 			}
 		});
 	}
 	
 	//------------------------------------------------------------
-	//					  Discovering fields
+	//					  Player actions
 	//------------------------------------------------------------
 	
 	/**
@@ -93,162 +98,105 @@ public class JField extends JButton {
 	 * discovered.
 	 */
 	public void toggleField() {
-		if(isDiscovered || isFlagged) return;
-		
-		if(isMine) {
-			explode();
-		} else {
-			discover();
-		}
-	}
-	
-	private void discover() {
-		HashSet<JField> visited = new HashSet<>();
-		LinkedList<JField> toCheck = new LinkedList<>();
-		toCheck.add(this);
-		
-		while(!toCheck.isEmpty()) {
-			JField field = toCheck.removeFirst();
-			int mineCount = revealNonMine(field);
-			
-			if(mineCount == 0) {
-				List<JField> neighbours = mineField.getFieldNeighbours(field.row, field.column);
-				neighbours.removeIf(neighbour -> neighbour.isDiscovered || neighbour.isFlagged || visited.contains(neighbour));
-				
-				toCheck.addAll(neighbours);
-				visited.addAll(neighbours);
-			}
-			
-			notifyFieldOnDiscover(field);
-		}
+		mineField.getEngine().toggleField(row, column);
 	}
 	
-	private void explode() {
-		revealMine(true);
-		notifyFieldOnExplode();
-	}
-	
-	//------------------------------------------------------------
-	//						Flagging fields
-	//------------------------------------------------------------
-	
 	/**
 	 * Toggles the flag on or off, based on the situation.
 	 */
 	public void toggleFlag() {
-		if(isDiscovered) return;
-		
-		if(isFlagged) {
-			removeFlag();
-		} else {
-			placeFlag();
-		}
+		mineField.getEngine().toggleFlag(row, column);
 	}
 	
 	/**
-	 * Places the flag on this field, unless this field has already
-	 * been discovered.
+	 * Discovers all of the unflagged neighbours of this field, if it is a
+	 * discovered number with as many flags around it.
 	 */
-	private void placeFlag() {
-		isFlagged = true;
-		setBackground(Color.lightGray);
-		setText("F");
-		
-		notifyFieldOnFlagPlace();
-	}
-	
-	/**
-	 * Removes the flag from this field if this field has been flagged
-	 * and has not yet been discovered.
-	 */
-	private void removeFlag() {
-		isFlagged = false;
-		setBackground(UNDISCOVERED);
-		setText("");
-		
-		notifyFieldOnFlagRemove();
+	public void chord() {
+		mineField.getEngine().chord(row, column);
 	}
 	
 	//------------------------------------------------------------
-	//					After the player lost
+	//					Displaying the state
 	//------------------------------------------------------------
 	
 	/**
-	 * Reveals the underlying field - it will either be a mine or not.
+	 * Displays the discovered non-mine field.
+	 *
+	 * @param mineCount the number of mines found in the neighbouring fields
 	 */
-	public void reveal() {
-		if(isDiscovered) return;
+	void showDiscovered(int mineCount) {
+		setEnabled(false);
 		
-		if(isMine) {
-			revealMine(false);
+		if(mineCount == 0) {
+			setBackground(ZERO_NEIGHBOUR_MINES);
+			setText("");
 		} else {
-			revealNonMine(this);
+			setBackground(ANY_NEIGHBOUR_IS_A_MINE);
+			setText(String.valueOf(mineCount));
 		}
 	}
 	
 	/**
-	 * Reveals the mine by changing the graphical user interface.
+	 * Displays the revealed mine.
 	 * 
 	 * @param exploding if this is the mine that the player "stepped" on
 	 */
-	private void revealMine(boolean exploding) {
-		isDiscovered = true;
+	void showMine(boolean exploding) {
 		setEnabled(false);
 		setBackground(exploding ? Color.red : Color.black);
 		setText("M");
 	}
 	
 	/**
-	 * Reveals the non-mine field by changing the graphical user interface
-	 * and returns the number of mines found in the neighbouring fields.
-	 *
-	 * @param field the field to be revealed
-	 * @return the number of mines found in the neighbouring fields
+	 * Displays the flag on this field that turned out not to be on a mine.
 	 */
-	private int revealNonMine(JField field) {
-		field.setEnabled(false);
-		field.isDiscovered = true;
-		
-		int mineCount = mineField.getMineCountAround(field.row, field.column);
-		
-		if(mineCount == 0) {
-			field.setBackground(ZERO_NEIGHBOUR_MINES);
-			field.setText("");
-		} else {
-			field.setBackground(ANY_NEIGHBOUR_IS_A_MINE);
-			field.setText(String.valueOf(mineCount));
-		}
-		
-		return mineCount;
-	}
-	
-	//------------------------------------------------------------
-	//					Notifying the field
-	//------------------------------------------------------------
-	
-	private void notifyFieldOnDiscover(JField source) {
-		mineField.onDiscover(source);
+	void showWrongFlag() {
+		setEnabled(false);
+		setBackground(WRONG_FLAG);
+		setText("X");
 	}
 	
-	private void notifyFieldOnExplode() {
-		mineField.onExplode(this);
+	/**
+	 * Displays the flag on this field, or removes it.
+	 *
+	 * @param flagged {@code true} if this field is flagged
+	 */
+	void showFlag(boolean flagged) {
+		setBackground(flagged ? Color.lightGray : UNDISCOVERED);
+		setText(flagged ? "F" : "");
+		setToolTipText(null);
 	}
 	
-	private void notifyFieldOnFlagPlace() {
-		mineField.onFlagPlace(this);
+	/**
+	 * Displays the probability of a mine on this undiscovered field.
+	 *
+	 * @param probability the probability of a mine
+	 */
+	void showProbability(float probability) {
+		setBackground(probabilityColor(probability));
+		setToolTipText(Math.round(probability * 100) + "% chance of a mine");
 	}
 	
-	private void notifyFieldOnFlagRemove() {
-		mineField.onFlagRemove(this);
+	/**
+	 * Returns the color of an undiscovered field with the given probability
+	 * of a mine.
+	 *
+	 * @param probability the probability of a mine
+	 * @return pale blue for the safe fields, through purple, to red for the
+	 *         mines
+	 */
+	static Color probabilityColor(float probability) {
+		return PROBABILITY_COLORS[Math.round(Math.min(Math.max(probability, 0), 1) * 100)];
 	}
-	
+
 	//------------------------------------------------------------
 	//						  toString
 	//------------------------------------------------------------
 	
 	@Override
 	public String toString() {
-		return "(" + column + ", " + row + ", " + isDiscovered + ")";
+		return "(" + column + ", " + row + ", " + FieldState.isDiscovered(mineField.getEngine().getState(row, column)) + ")";
 	}
 
 	@Override
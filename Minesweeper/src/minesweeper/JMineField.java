@@ -1,26 +1,84 @@
 package minesweeper;
 
+import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
 
 import javax.swing.BorderFactory;
 import javax.swing.JComponent;
+import javax.swing.JScrollPane;
 
 /**
- * A component that models the mine-field.
+ * A component that displays the mine-field. All of the game state is
+ * held by the underlying {@link MineField} model, which is run by a
+ * {@link GameEngine} on its own thread; this component is only a view
+ * over the state the engine hands over to the event dispatch thread.
+ * <p>
+ * The board is displayed either as a grid of {@code JField} buttons, or
+ * as a single {@code JBoard} component that paints all of the fields
+ * itself - see {@link Mode}.
  *
  * @author Filip Nemec
  */
-public class JMineField extends JComponent implements JFieldListener {
+public class JMineField extends JComponent implements ChangeSetListener {
 	
 	/** Used for serialization. */
 	private static final long serialVersionUID = 9001083447800006171L;
+	
+	/**
+	 * The ways the fields can be displayed in.
+	 */
+	public enum Mode {
+		
+		/** Every field is a separate {@code JField} button. */
+		BUTTONS,
+		
+		/**
+		 * All of the fields are painted by a single {@code JBoard}, which
+		 * can be zoomed and scrolled.
+		 */
+		PAINTED;
+		
+		/** The largest number of rows or columns displayed with buttons. */
+		public static final int MAX_BUTTONS_SIZE = 32;
+		
+		/**
+		 * Returns the mode best suited for the board of the given size.
+		 *
+		 * @param rows the number of rows
+		 * @param columns the number of columns
+		 * @return buttons for small boards, painting for the large ones
+		 */
+		public static Mode forSize(int rows, int columns) {
+			return rows <= MAX_BUTTONS_SIZE && columns <= MAX_BUTTONS_SIZE ? BUTTONS : PAINTED;
+		}
+		
+		/**
+		 * Returns the mode best suited for the given board. The rows of a
+		 * {@link Topology#HEX} board are shifted by half a field, which
+		 * only a painted board can do.
+		 *
+		 * @param model the model of the board
+		 * @return the mode for the board
+		 */
+		public static Mode forBoard(MineField model) {
+			return model.getTopology() == Topology.HEX ? PAINTED : forSize(model.ROWS, model.COLUMNS);
+		}
+	}
+
+	/** The engine running the game on this board. */
+	private GameEngine engine;
 
-	/** The fields of this board. */
+	/** The fields of this board, or {@code null} if the board is painted. */
 	private JField[][] fields;
 	
+	/** The painted board, or {@code null} if the fields are buttons. */
+	private JBoard board;
+	
+	/** Computes the mine probabilities shown over the fields, or {@code null} if none are shown. */
+	private ProbabilityEngine probabilityEngine;
+
 	/** The number of rows. */
 	public final int ROWS;
 	
@@ -30,15 +88,6 @@ public class JMineField extends JComponent implements JFieldListener {
 	/** The total number of fields. */
 	public final int FIELD_COUNT;
 	
-	/** The number of mines on this board. */
-	private int mineCount;
-	
-	/** The number of flags on the board. */
-	private int flagCount;
-	
-	/** The number of discovered fields on this board. */
-	private int discoveredCount;
-	
 	/** A list of all the listeners. */
 	private List<JMineFieldListener> listeners = new LinkedList<>();
 	
@@ -50,61 +99,74 @@ public class JMineField extends JComponent implements JFieldListener {
 	 * @param mineCount the number of mines
 	 */
 	public JMineField(int rows, int columns, int mineCount) {
-		this.ROWS = rows;
-		this.COLUMNS = columns;
-		this.FIELD_COUNT = ROWS * COLUMNS;
+		this(new MineField(rows, columns, mineCount));
+	}
+	
+	/**
+	 * Constructs a new board that displays the given model.
+	 *
+	 * @param model the model of the board
+	 */
+	public JMineField(MineField model) {
+		this(model, Mode.forBoard(model));
+	}
+	
+	/**
+	 * Constructs a new board that displays the given model in the
+	 * given mode.
+	 *
+	 * @param model the model of the board
+	 * @param mode the way the fields are displayed in
+	 */
+	public JMineField(MineField model, Mode mode) {
+		this(new GameEngine(model), mode);
+	}
+	
+	/**
+	 * Constructs a new board that displays the game run by the given
+	 * engine in the given mode.
+	 *
+	 * @param engine the engine running the game
+	 * @param mode the way the fields are displayed in
+	 */
+	public JMineField(GameEngine engine, Mode mode) {
+		this.engine = engine;
+		this.ROWS = engine.ROWS;
+		this.COLUMNS = engine.COLUMNS;
+		this.FIELD_COUNT = engine.FIELD_COUNT;
+		
+		this.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
 		
-		this.fields = new JField[rows][columns];
-		this.mineCount = mineCount;
+		if(mode == Mode.BUTTONS) {
+			createFields();
+		} else {
+			createBoard();
+		}
 		
-		createFields();
+		engine.addChangeSetListener(this);
 	}
 
 	private void createFields() {
-		this.setBorder(BorderFactory.createEmptyBorder(0, 10, 10, 10));
+		this.fields = new JField[ROWS][COLUMNS];
 		this.setLayout(new GridLayout(ROWS, COLUMNS));
 		
-		boolean[][] mines = generateMines();
-		
 		for(int r = 0; r < ROWS; r++) {
 			for(int c = 0; c < COLUMNS; c++) {
-				this.add( fields[r][c] = new JField(this, mines[r][c], r , c) );
+				this.add( fields[r][c] = new JField(this, r , c) );
+				
+				if(engine.getState(r, c) != FieldState.UNDISCOVERED) {
+					showField(r, c, engine.getState(r, c));
+				}
 			}
 		}
 	}
 	
-	private boolean[][] generateMines() {
-		boolean[][] mines = new boolean[ROWS][COLUMNS];
+	private void createBoard() {
+		JScrollPane scrollPane = new JScrollPane(board = new JBoard(engine));
+		scrollPane.setBorder(null);
 		
-		for(int i = 0; i < mineCount; i++) {
-			int row = i / COLUMNS;
-			int column = i % COLUMNS;
-			mines[row][column] = true;
-		}
-		
-		shuffleMines(mines);
-		
-		return mines;
-	}
-	
-	/**
-	 * Randomly shuffles mine positions.
-	 *
-	 * @param mines the mines to be shuffled
-	 */
-	private void shuffleMines(boolean[][] mines) {
-	    Random random = new Random();
-
-	    for (int i = mines.length - 1; i > 0; i--) {
-	        for (int j = mines[i].length - 1; j > 0; j--) {
-	            int m = random.nextInt(i + 1);
-	            int n = random.nextInt(j + 1);
-
-	            boolean temp = mines[i][j];
-	            mines[i][j] = mines[m][n];
-	            mines[m][n] = temp;
-	        }
-	    }
+		this.setLayout(new BorderLayout());
+		this.add(scrollPane, BorderLayout.CENTER);
 	}
 	
 	//---------------------------------------------------------
@@ -117,24 +179,12 @@ public class JMineField extends JComponent implements JFieldListener {
 	 *
 	 * @param row the row of the field
 	 * @param column the column of the field
-	 * @return the number of mines around the specified field 
+	 * @return the number of mines around the specified field, or
+	 *         {@code -1} if the field has not been discovered
 	 */
 	public int getMineCountAround(int row, int column) {
-		int mineCount = 0;
-		
-		for(int y = -1; y <= 1; y++) {
-			for(int x = -1; x <= 1; x++) {
-				int r = row + y;
-				int c = column + x;
-				
-				if(r < 0 || r >= ROWS) continue;
-				if(c < 0 || c >= COLUMNS) continue;
-				
-				if(fields[r][c].isMine) mineCount++;
-			}
-		}
-			
-		return mineCount;
+		byte state = engine.getState(row, column);
+		return FieldState.isDiscovered(state) ? state : -1;
 	}
 	
 	/**
@@ -143,22 +193,14 @@ public class JMineField extends JComponent implements JFieldListener {
 	 * @param row the specified field's row
 	 * @param column the specified field's column
 	 * @return a list of all the neighbour fields around the given field
+	 * @throws IllegalStateException if the board is painted
 	 */
 	public List<JField> getFieldNeighbours(int row, int column) {
+		checkButtons();
 		List<JField> neighbours = new LinkedList<>();
 		
-		for(int y = -1; y <= 1; y++) {
-			for(int x = -1; x <= 1; x++) {
-				if(x == 0 && y == 0) continue;
-				
-				int r = row + y;
-				int c = column + x;
-				
-				if(r < 0 || r >= ROWS) continue;
-				if(c < 0 || c >= COLUMNS) continue;
-				
-				neighbours.add(fields[r][c]);
-			}
+		for(int index : engine.getNeighbours().of(row * COLUMNS + column)) {
+			neighbours.add(fields[index / COLUMNS][index % COLUMNS]);
 		}
 		
 		return neighbours;
@@ -170,34 +212,117 @@ public class JMineField extends JComponent implements JFieldListener {
 	 * @param row the row of the field
 	 * @param column the column of the field
 	 * @return the field at the given {@code row} and {@code column}
+	 * @throws IllegalStateException if the board is painted
 	 */
 	public JField getField(int row, int column) {
+		checkButtons();
 		return fields[row][column];
 	}
 	
+	private void checkButtons() {
+		if(fields == null) {
+			throw new IllegalStateException("The board is painted and has no field buttons.");
+		}
+	}
+	
+	/**
+	 * Shows or hides the probability of a mine on every undiscovered field.
+	 * The probabilities are computed on a thread of their own, and shown
+	 * once they are ready, so showing them never slows the game down.
+	 *
+	 * @param shown {@code true} to show the probabilities
+	 */
+	public void setProbabilitiesShown(boolean shown) {
+		if(shown == (probabilityEngine != null)) return;
+		
+		if(shown) {
+			probabilityEngine = new ProbabilityEngine(engine);
+			probabilityEngine.addProbabilityListener(this::showProbabilities);
+		} else {
+			probabilityEngine.dispose();
+			probabilityEngine = null;
+			showProbabilities(null);
+		}
+	}
+	
+	/**
+	 * @return {@code true} if the probabilities of a mine are shown
+	 */
+	public boolean isProbabilitiesShown() {
+		return probabilityEngine != null;
+	}
+	
+	/**
+	 * Shows the probabilities over the undiscovered fields.
+	 *
+	 * @param probabilities the probabilities, or {@code null} to show the
+	 *        undiscovered fields plain
+	 */
+	private void showProbabilities(MineProbabilities probabilities) {
+		if(board != null) {
+			board.setProbabilities(probabilities);
+			return;
+		}
+		
+		for(int r = 0; r < ROWS; r++) {
+			for(int c = 0; c < COLUMNS; c++) {
+				if(engine.getState(r, c) != FieldState.UNDISCOVERED) continue;
+				
+				if(probabilities != null) {
+					fields[r][c].showProbability(probabilities.get(r * COLUMNS + c));
+				} else {
+					fields[r][c].showFlag(false);
+				}
+			}
+		}
+	}
+
 	//---------------------------------------------------------
 	//				  		  Getters
 	//---------------------------------------------------------
 	
+	/**
+	 * @return the way the fields are displayed in
+	 */
+	public Mode getMode() {
+		return fields != null ? Mode.BUTTONS : Mode.PAINTED;
+	}
+	
+	/**
+	 * @return the engine running the game displayed by this component
+	 */
+	public GameEngine getEngine() {
+		return engine;
+	}
+	
 	/**
 	 * @return the number of mines on this field
 	 */
 	public int getMineCount() {
-		return mineCount;
+		return engine.getMineCount();
 	}
 	
 	/**
 	 * @return the number of flags on this field
 	 */
 	public int getFlagCount() {
-		return flagCount;
+		return engine.getFlagCount();
 	}
 	
 	/**
 	 * @return the number of discovered fields on this field
 	 */
 	public int getDiscoveredCount() {
-		return discoveredCount;
+		return engine.getDiscoveredCount();
+	}
+	
+	/**
+	 * Stops the engine running the game on this board.
+	 */
+	public void dispose() {
+		setProbabilitiesShown(false);
+		engine.removeChangeSetListener(this);
+		engine.shutdown();
 	}
 	
 	/**
@@ -208,36 +333,54 @@ public class JMineField extends JComponent implements JFieldListener {
 	}
 	
 	//---------------------------------------------------------
-	//				  Field listener methods
+	//				  Model listener methods
 	//---------------------------------------------------------
 
 	@Override
-	public void onDiscover(JField source) {
-		++discoveredCount;
-		notifyListenersMineFieldChanged();
-	}
-
-	@Override
-	public void onFlagPlace(JField source) {
-		++flagCount;
-		notifyListenersMineFieldChanged();
-	}
-
-	@Override
-	public void onFlagRemove(JField source) {
-		--flagCount;
-		notifyListenersMineFieldChanged();
-	}
-
-	@Override
-	public void onExplode(JField source) {
-		for(int r = 0; r < ROWS; r++) {
-			for(int c = 0; c < COLUMNS; c++) {
-				fields[r][c].reveal();
+	public void onChange(ChangeSet changes) {
+		if(fields != null) {
+			for(int i = 0, n = changes.getChangedFieldCount(); i < n; i++) {
+				int index = changes.getChangedField(i);
+				showField(index / COLUMNS, index % COLUMNS, changes.getState(i));
 			}
 		}
 		
-		notifyListenersOnExplode();
+		notifyListenersMineFieldChanged(changes);
+		
+		if(changes.isExplosion()) {
+			notifyListenersOnExplode();
+		}
+	}
+	
+	/**
+	 * Updates the field on the given {@code row} and {@code column} so
+	 * that it displays the given state.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @param state the state of the field, see {@link FieldState}
+	 */
+	private void showField(int row, int column, byte state) {
+		JField field = fields[row][column];
+		
+		switch(state) {
+			case FieldState.UNDISCOVERED:
+			case FieldState.FLAGGED:
+				field.showFlag(state == FieldState.FLAGGED);
+				break;
+			
+			case FieldState.WRONG_FLAG:
+				field.showWrongFlag();
+				break;
+			
+			case FieldState.MINE:
+			case FieldState.EXPLODED:
+				field.showMine(state == FieldState.EXPLODED);
+				break;
+			
+			default:
+				field.showDiscovered(state);
+		}
 	}
 	
 	//---------------------------------------------------------
@@ -262,8 +405,8 @@ public class JMineField extends JComponent implements JFieldListener {
 		listeners.remove(l);
 	}
 	
-	private void notifyListenersMineFieldChanged() {
-		listeners.forEach(l -> l.onMineFieldChange(this));
+	private void notifyListenersMineFieldChanged(ChangeSet changes) {
+		listeners.forEach(l -> l.onMineFieldChange(this, changes));
 	}
 	
 	private void notifyListenersOnExplode() {
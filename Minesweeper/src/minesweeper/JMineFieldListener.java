@@ -9,11 +9,14 @@ package minesweeper;
 public interface JMineFieldListener {
 	
 	/**
-	 * Invoked every time the {@code JMineField} changes.
+	 * Invoked on the event dispatch thread once per batch of changes of
+	 * the {@code JMineField}, after all of the affected fields have been
+	 * updated.
 	 *
 	 * @param field the <i>Subject</i> - the field
+	 * @param changes the description of the changes
 	 */
-	void onMineFieldChange(JMineField field);
+	void onMineFieldChange(JMineField field, ChangeSet changes);
 	
 	/**
 	 * Invoked once the player steps on the mine.
@@ -5,12 +5,24 @@ import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.GridLayout;
 import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+import javax.swing.AbstractAction;
+import javax.swing.Action;
 import javax.swing.BorderFactory;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JLabel;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 /**
  * Models the <i>Minesweeper</i> graphical user interface.
@@ -20,12 +32,18 @@ import javax.swing.JPanel;
 @SuppressWarnings("serial")
 public class JMinesweeper extends JFrame implements JMineFieldListener {
 	
+	/** The system property holding the directory every game is recorded to. */
+	public static final String JOURNAL_PROPERTY = "minesweeper.journal.dir";
+
 	/** Displays the number of used flags and the number of required flags. */
 	private JLabel flagsUsedLabel;
 	
 	/** Displays the number of discovered fields and the number of total fields. */
 	private JLabel fieldsDiscoveredLabel;
 	
+	/** The mine-field being played. */
+	private JMineField field;
+
 	/**
 	 * Constructs and starts a new <i>Minesweeper</i> game.
 	 *
@@ -34,26 +52,41 @@ public class JMinesweeper extends JFrame implements JMineFieldListener {
 	 * @param mines the number of mines in the mine-field
 	 */
 	public JMinesweeper(int rows, int columns, int mines) {
+		this(new MineField(rows, columns, mines));
+	}
+	
+	/**
+	 * Constructs and starts a new <i>Minesweeper</i> game on the given
+	 * mine-field.
+	 *
+	 * @param model the mine-field to be played
+	 */
+	public JMinesweeper(MineField model) {
+		int rows = model.ROWS;
+		int columns = model.COLUMNS;
+		int mines = model.getMineCount();
+		
 		setTitle("Nature Minesweeper");
 		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
 		setResizable(false);
 		
 		Dimension dim = Toolkit.getDefaultToolkit().getScreenSize();
 		
-		int cellSize, width, height;
+		double cellSize;
+		int width, height;
 		
 		if(rows > columns) {
-			cellSize = (int) ((dim.height / rows) * 0.9);
-			width = columns * cellSize;
-			height = rows * cellSize;
+			cellSize = dim.height * 0.9 / rows;
+			width = (int) (columns * cellSize);
+			height = (int) (rows * cellSize);
 			
 		} else if(rows == columns) {
 			width = height = (int) ((dim.height) * 0.9);
 			
 		} else {
-			cellSize = (int) ((dim.width / columns) * 0.8);
-			width = columns * cellSize;
-			height = rows * cellSize;
+			cellSize = dim.width * 0.8 / columns;
+			width = (int) (columns * cellSize);
+			height = (int) (rows * cellSize);
 		}
 		
 		setSize(width, height);
@@ -65,20 +98,106 @@ public class JMinesweeper extends JFrame implements JMineFieldListener {
 		
 		JPanel infoPanel = new JPanel(new GridLayout(1, 0));
 			infoPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-			infoPanel.add(flagsUsedLabel = new JLabel("Flags used: 0 / " + mines, JLabel.CENTER));
-			infoPanel.add(fieldsDiscoveredLabel = new JLabel("Fields used: 0 / " + (rows * columns), JLabel.CENTER));
+			infoPanel.add(flagsUsedLabel = new JLabel("Flags used: " + model.getFlagCount() + " / " + mines, JLabel.CENTER));
+			infoPanel.add(fieldsDiscoveredLabel = new JLabel("Fields used: " + (model.getDiscoveredCount() + model.getFlagCount()) + " / " + (rows * columns), JLabel.CENTER));
 			pane.add(infoPanel, BorderLayout.NORTH);
 		
-		JMineField field = new JMineField(rows, columns, mines);
+		field = new JMineField(model);
 			field.addJMineFieldListener(this);
 			pane.add(field, BorderLayout.CENTER);
+			setResizable(field.getMode() == JMineField.Mode.PAINTED);
+
+		JMenuBar menuBar = new JMenuBar();
+		JMenu gameMenu = new JMenu("Game");
+			gameMenu.add(save);
+			gameMenu.add(copyCode);
+			gameMenu.addSeparator();
+			gameMenu.add(new JCheckBoxMenuItem(showProbabilities));
+			menuBar.add(gameMenu);
+			setJMenuBar(menuBar);
+		
+		String journalDirectory = System.getProperty(JOURNAL_PROPERTY);
+		if(journalDirectory != null) {
+			record(Paths.get(journalDirectory, "game-" + System.currentTimeMillis() + Journal.EXTENSION));
+		}
 	}
 	
+	/**
+	 * Copies the code the board can be recreated from to the clipboard.
+	 */
+	private Action copyCode = new AbstractAction("Copy board code") {
+		
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			field.getEngine().getBoardCode().thenAccept(code -> SwingUtilities.invokeLater(() -> {
+				if(code == null) {
+					JOptionPane.showMessageDialog(JMinesweeper.this, "This board can not be recreated from a code.");
+					return;
+				}
+				
+				Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(code.toString()), null);
+				JOptionPane.showMessageDialog(JMinesweeper.this, "Board code copied to the clipboard:\n" + code);
+			}));
+		}
+	};
+	
+	/**
+	 * Shows or hides the probability of a mine on every undiscovered field.
+	 */
+	private Action showProbabilities = new AbstractAction("Show mine probabilities") {
+		
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			field.setProbabilitiesShown(Boolean.TRUE.equals(getValue(SELECTED_KEY)));
+		}
+	};
+	
+	/**
+	 * Records the game to the given journal.
+	 *
+	 * @param file the journal file
+	 */
+	private void record(Path file) {
+		field.getEngine().record(file).whenComplete((result, ex) -> {
+			if(ex == null) return;
+			
+			SwingUtilities.invokeLater(() -> {
+				JOptionPane.showMessageDialog(JMinesweeper.this, "Could not record the game: " + ex.getCause().getMessage());
+			});
+		});
+	}
+
+	/**
+	 * Asks the player where to save the game and saves it there.
+	 */
+	private Action save = new AbstractAction("Save...") {
+		
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			JFileChooser chooser = new JFileChooser();
+			chooser.setFileFilter(new FileNameExtensionFilter("Saved games", GameFile.EXTENSION.substring(1)));
+			if(chooser.showSaveDialog(JMinesweeper.this) != JFileChooser.APPROVE_OPTION) return;
+			
+			Path file = chooser.getSelectedFile().toPath();
+			if(!file.getFileName().toString().endsWith(GameFile.EXTENSION)) {
+				file = file.resolveSibling(file.getFileName() + GameFile.EXTENSION);
+			}
+			
+			field.getEngine().save(file).whenComplete((result, ex) -> {
+				if(ex == null) return;
+				
+				SwingUtilities.invokeLater(() -> {
+					JOptionPane.showMessageDialog(JMinesweeper.this, "Could not save the game: " + ex.getCause().getMessage());
+				});
+			});
+		}
+	};
+
 	@Override
-	public void onMineFieldChange(JMineField field) {
-		int fieldsUsed = field.getDiscoveredCount() + field.getFlagCount();
+	public void onMineFieldChange(JMineField field, ChangeSet changes) {
+		int fieldsUsed = changes.getDiscoveredCount() + changes.getFlagCount();
 		fieldsDiscoveredLabel.setText("Fields used: " + fieldsUsed + " / " + field.getFieldCount());
-		flagsUsedLabel.setText("Flags used: " + field.getFlagCount() + " / " + field.getMineCount());
+		flagsUsedLabel.setText("Flags used: " + changes.getFlagCount() + " / " + field.getMineCount());
 		
 		if(fieldsUsed == field.getFieldCount()) {
 			JOptionPane.showMessageDialog(this, "You won!");
@@ -89,4 +208,10 @@ public class JMinesweeper extends JFrame implements JMineFieldListener {
 	public void onExplode() {
 		JOptionPane.showMessageDialog(this, "Game over!");
 	}
+	
+	@Override
+	public void dispose() {
+		field.dispose();
+		super.dispose();
+	}
 }
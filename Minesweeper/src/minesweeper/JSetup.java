@@ -8,17 +8,27 @@ import java.awt.Font;
 import java.awt.GridLayout;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
+import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.filechooser.FileNameExtensionFilter;
 
 /**
  * Models the game set-up window.
@@ -28,6 +38,20 @@ import javax.swing.SwingUtilities;
 @SuppressWarnings("serial")
 public class JSetup extends JFrame {
 	
+	/** The smallest allowed number of rows and columns. */
+	private static final int MIN_SIZE = 4;
+	
+	/**
+	 * The largest allowed number of rows and columns. Boards larger than
+	 * {@value JMineField.Mode#MAX_BUTTONS_SIZE} are painted rather than
+	 * made of buttons, and only the visible part of them is ever painted,
+	 * so they can be much larger.
+	 */
+	private static final int MAX_SIZE = 10000;
+	
+	/** The system property holding the port the game server is started on. */
+	public static final String SERVER_PROPERTY = "minesweeper.server.port";
+	
 	/** The text-field for inputting the number of rows. */
 	private JTextField tfRows;
 	
@@ -37,6 +61,21 @@ public class JSetup extends JFrame {
 	/** The text-field for inputting the number of mines. */
 	private JTextField tfMines;
 	
+	/** The combo-box for choosing the way the mines are placed. */
+	private JComboBox<GenerationMode> cbGeneration;
+	
+	/** The combo-box for choosing the way the fields are connected. */
+	private JComboBox<Topology> cbTopology;
+	
+	/** The combo-box for choosing what is revealed when the game is lost. */
+	private JComboBox<MineField.RevealMode> cbReveal;
+	
+	/** The text-field for inputting the code of the board to be played again. */
+	private JTextField tfCode;
+
+	/** Generates the boards for the next games in the background. */
+	private BoardPrefetcher prefetcher = new BoardPrefetcher();
+
 	/**
 	 * Constructs a new <i>Minesweeper</i> setup window.
 	 */
@@ -61,15 +100,63 @@ public class JSetup extends JFrame {
 		setupPanel.add(tfColumns = new JTextField());
 		setupPanel.add(new JLabel("Number of mines:"));
 		setupPanel.add(tfMines = new JTextField());
-		
+		setupPanel.add(new JLabel("Generation:"));
+		setupPanel.add(cbGeneration = new JComboBox<>(GenerationMode.values()));
+		setupPanel.add(new JLabel("Topology:"));
+		setupPanel.add(cbTopology = new JComboBox<>(Topology.values()));
+		setupPanel.add(new JLabel("Reveal on loss:"));
+		setupPanel.add(cbReveal = new JComboBox<>(MineField.RevealMode.values()));
+		setupPanel.add(new JLabel("Board code (optional):"));
+		setupPanel.add(tfCode = new JTextField());
+
 		pane.add(setupPanel, BorderLayout.CENTER);
 		
+		FocusAdapter prefetchOnEdit = new FocusAdapter() {
+			
+			@Override
+			public void focusLost(FocusEvent e) {
+				prefetch();
+			}
+		};
+		tfRows.addFocusListener(prefetchOnEdit);
+		tfColumns.addFocusListener(prefetchOnEdit);
+		tfMines.addFocusListener(prefetchOnEdit);
+		cbGeneration.addActionListener(e -> prefetch());
+		cbTopology.addActionListener(e -> prefetch());
+		
+		addWindowListener(new WindowAdapter() {
+			
+			@Override
+			public void windowOpened(WindowEvent e) {
+				prefetch();
+			}
+			
+			@Override
+			public void windowClosed(WindowEvent e) {
+				prefetcher.shutdown();
+			}
+		});
+		
+		JPanel buttonPanel = new JPanel(new GridLayout(1, 0));
+		
 		play.putValue(Action.NAME, "Play!");
 		JButton playButton = new JButton(play);
 		playButton.setBackground(Color.orange);
 		playButton.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-		pane.add(playButton, BorderLayout.SOUTH);
+		buttonPanel.add(playButton);
+		
+		endless.putValue(Action.NAME, "Endless");
+		JButton endlessButton = new JButton(endless);
+		endlessButton.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		buttonPanel.add(endlessButton);
 		
+		load.putValue(Action.NAME, "Load...");
+		JButton loadButton = new JButton(load);
+		loadButton.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		buttonPanel.add(loadButton);
+		
+		pane.add(buttonPanel, BorderLayout.SOUTH);
+
 		pack();
 		
 		Dimension dim = Toolkit.getDefaultToolkit().getScreenSize();
@@ -84,18 +171,28 @@ public class JSetup extends JFrame {
 
 		@Override
 		public void actionPerformed(ActionEvent e) {
+			if(!tfCode.getText().trim().isEmpty()) {
+				playCode();
+				return;
+			}
+			
 			try {
 				int rows = Integer.parseInt(tfRows.getText());
 				int columns = Integer.parseInt(tfColumns.getText());
 				int mines = Integer.parseInt(tfMines.getText());
 				
-				if(rows < 4 || rows > 32) {
-					JOptionPane.showMessageDialog(JSetup.this, "Number of rows must be from 4 to 32!");
+				if(rows < MIN_SIZE || rows > MAX_SIZE) {
+					JOptionPane.showMessageDialog(JSetup.this, "Number of rows must be from " + MIN_SIZE + " to " + MAX_SIZE + "!");
 					return;
 				}
 				
-				if(columns < 4 || columns > 32) {
-					JOptionPane.showMessageDialog(JSetup.this, "Number of columns must be from 4 to 32!");
+				if(columns < MIN_SIZE || columns > MAX_SIZE) {
+					JOptionPane.showMessageDialog(JSetup.this, "Number of columns must be from " + MIN_SIZE + " to " + MAX_SIZE + "!");
+					return;
+				}
+				
+				if(mines < 0) {
+					JOptionPane.showMessageDialog(JSetup.this, "Number of mines can not be negative!");
 					return;
 				}
 				
@@ -105,7 +202,36 @@ public class JSetup extends JFrame {
 					return;
 				}
 				
-				new JMinesweeper(rows, columns, mines).setVisible(true);
+				Topology topology = (Topology) cbTopology.getSelectedItem();
+				
+				try {
+					topology.checkShape(rows, columns);
+				} catch(IllegalArgumentException ex) {
+					JOptionPane.showMessageDialog(JSetup.this, ex.getMessage());
+					return;
+				}
+				
+				GenerationMode mode = (GenerationMode) cbGeneration.getSelectedItem();
+				MineField.RevealMode revealMode = (MineField.RevealMode) cbReveal.getSelectedItem();
+
+				prefetcher.take(new BoardConfiguration(rows, columns, mines, mode, topology)).whenComplete((board, ex) -> {
+					SwingUtilities.invokeLater(() -> {
+						if(ex != null) {
+							JOptionPane.showMessageDialog(JSetup.this, "Could not generate the board: " + ex.getMessage());
+							return;
+						}
+						
+						board.field.setRevealMode(revealMode);
+						JMinesweeper game = new JMinesweeper(board.field);
+						game.setVisible(true);
+						
+						if(!board.guaranteed) {
+							JOptionPane.showMessageDialog(game, "No board that can be solved without guessing was found in time\r\n" +
+														  "(" + board.attempts + " boards tried), so this board may need guessing.\r\n" +
+														  "The time budget can be raised with the " + NoGuessMineGenerator.TIME_BUDGET_PROPERTY + " property.");
+						}
+					});
+				});
 				
 			} catch(NumberFormatException ex) {
 				JOptionPane.showMessageDialog(JSetup.this, "Invalid input!");
@@ -114,12 +240,120 @@ public class JSetup extends JFrame {
 		}
 	};
 	
+	/**
+	 * Starts generating the board of the configuration entered so far, so
+	 * that it is ready once the player presses Play. Nothing is generated
+	 * while the configuration is not valid.
+	 */
+	private void prefetch() {
+		try {
+			int rows = Integer.parseInt(tfRows.getText());
+			int columns = Integer.parseInt(tfColumns.getText());
+			int mines = Integer.parseInt(tfMines.getText());
+			
+			if(rows < MIN_SIZE || rows > MAX_SIZE || columns < MIN_SIZE || columns > MAX_SIZE) return;
+			if(mines < 0 || mines >= rows * columns) return;
+			
+			Topology topology = (Topology) cbTopology.getSelectedItem();
+			topology.checkShape(rows, columns);
+			
+			prefetcher.prefetch(new BoardConfiguration(rows, columns, mines, (GenerationMode) cbGeneration.getSelectedItem(), topology));
+			
+		} catch(IllegalArgumentException ex) {
+			// Not a valid configuration yet.
+		}
+	}
+	
+	/**
+	 * Recreates the board from the code the player entered and starts the
+	 * game on it.
+	 */
+	private void playCode() {
+		BoardCode code;
+		
+		try {
+			code = BoardCode.parse(tfCode.getText());
+		} catch(IllegalArgumentException ex) {
+			JOptionPane.showMessageDialog(this, ex.getMessage());
+			return;
+		}
+		
+		if(code.rows < MIN_SIZE || code.rows > MAX_SIZE || code.columns < MIN_SIZE || code.columns > MAX_SIZE) {
+			JOptionPane.showMessageDialog(this, "Number of rows and columns must be from " + MIN_SIZE + " to " + MAX_SIZE + "!");
+			return;
+		}
+		
+		MineField model = code.createBoard();
+		model.setRevealMode((MineField.RevealMode) cbReveal.getSelectedItem());
+		new JMinesweeper(model).setVisible(true);
+	}
+	
+	/**
+	 * Starts an endless game with a new seed.
+	 */
+	private Action endless = new AbstractAction() {
+		
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			EndlessMineField model = new EndlessMineField(new SplittableRandom().nextLong(), EndlessMineField.DEFAULT_DENSITY);
+			new JEndlessMinesweeper(model).setVisible(true);
+		}
+	};
+	
+	/**
+	 * Asks the player for a saved game and continues playing it.
+	 */
+	private Action load = new AbstractAction() {
+		
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			JFileChooser chooser = new JFileChooser();
+			chooser.setFileFilter(new FileNameExtensionFilter("Saved games", GameFile.EXTENSION.substring(1)));
+			if(chooser.showOpenDialog(JSetup.this) != JFileChooser.APPROVE_OPTION) return;
+			
+			Path file = chooser.getSelectedFile().toPath();
+			
+			try {
+				new JMinesweeper(GameFile.load(file)).setVisible(true);
+			} catch(IOException ex) {
+				JOptionPane.showMessageDialog(JSetup.this, "Could not load the game: " + ex.getMessage());
+			}
+		}
+	};
+	
+	/**
+	 * Starts the game server, if it was asked for with the
+	 * {@code --server[=port]} argument or the {@value #SERVER_PROPERTY}
+	 * system property.
+	 *
+	 * @param args the program arguments
+	 */
+	private static void startServer(String[] args) {
+		Integer port = Integer.getInteger(SERVER_PROPERTY);
+		
+		for(String arg : args) {
+			if(arg.equals("--server")) port = GameProtocol.DEFAULT_PORT;
+			if(arg.startsWith("--server=")) port = Integer.parseInt(arg.substring("--server=".length()));
+		}
+		
+		if(port == null) return;
+		
+		try {
+			GameServer server = new GameServer(port).start();
+			System.out.println("Game server listening on port " + server.getPort());
+		} catch(IOException ex) {
+			System.err.println("Could not start the game server: " + ex.getMessage());
+		}
+	}
+	
 	/**
 	 * Program starts from here.
 	 *
-	 * @param args none are used
+	 * @param args {@code --server[=port]} also starts the game server
 	 */
 	public static void main(String[] args) {
+		startServer(args);
+		
 		SwingUtilities.invokeLater(() -> {
 			new JSetup().setVisible(true);
 		});	
@@ -0,0 +1,55 @@
+package minesweeper;
+
+/**
+ * The format of the move journals written by {@link JournalWriter} and
+ * read by {@link Replay}. A journal is appended to, one record per player
+ * action, and every now and then a snapshot of the whole board is put in
+ * between the records, so a replay can seek to any move by loading the
+ * closest snapshot and replaying only the few moves after it.
+ * <p>
+ * All numbers are little-endian. The journal starts with a header of
+ * {@value #HEADER_SIZE} bytes and is followed by the records:
+ * <pre>
+ * magic:int version:short reveal:byte topology:byte rows:int columns:int mines:int (reserved:byte){4} start:long
+ * 
+ * MOVE      type:byte time:long field:int
+ * SNAPSHOT  type:byte time:long move:int length:int board:byte{length}
+ * </pre>
+ * The type of a move is the ordinal of its {@link MineFieldEvent.Type},
+ * and its time is in nanoseconds since the {@code start} of the journal,
+ * which is in milliseconds since the epoch. A snapshot holds the board,
+ * as saved by {@link GameFile}, after the given number of moves. The
+ * first snapshot is always taken on the move that placed the mines, so
+ * the moves before it are only flags.
+ *
+ * @author Filip Nemec
+ */
+public final class Journal {
+	
+	/** The extension of the journals. */
+	public static final String EXTENSION = ".msj";
+	
+	/** The magic number every journal starts with, {@code "MSWJ"}. */
+	static final int MAGIC = 0x4D53574A;
+	
+	/** The version of the format. */
+	static final short VERSION = 1;
+	
+	/** The size of the header, in bytes. */
+	static final int HEADER_SIZE = 32;
+	
+	/** The size of a move record, in bytes. */
+	static final int MOVE_SIZE = 13;
+	
+	/** The type of the snapshot records. */
+	static final byte SNAPSHOT = 127;
+	
+	/** The size of a snapshot record without the board, in bytes. */
+	static final int SNAPSHOT_HEADER_SIZE = 17;
+	
+	/**
+	 * Disables instantiation.
+	 */
+	private Journal() {
+	}
+}
@@ -0,0 +1,239 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records every action on a board to a {@link Journal}. The records are
+ * encoded by the thread that changes the board, but only queued there -
+ * they are written to the file by a background thread, in batches, so
+ * recording never waits for the disk. The background thread is not woken
+ * up for every record, which would cost more than the record itself;
+ * instead, it looks for new records every {@value #FLUSH_PERIOD_MILLIS}
+ * milliseconds.
+ * <p>
+ * The writer has to be created and closed by the thread that owns the
+ * board, like any other listener.
+ *
+ * @author Filip Nemec
+ */
+public class JournalWriter implements MineFieldListener, Closeable {
+	
+	/** The default least number of moves between two snapshots. */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+	
+	/** The period the queued records are written in, in milliseconds. */
+	public static final int FLUSH_PERIOD_MILLIS = 10;
+	
+	/** The size of the buffer the records are gathered in, in bytes. */
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+	
+	/** The recorded board. */
+	private final MineField model;
+	
+	/** The least number of moves between two snapshots. */
+	private final int snapshotInterval;
+	
+	/** The journal file. */
+	private final FileChannel channel;
+	
+	/** The records not yet written. */
+	private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+	
+	/** Writes the queued records to the file. */
+	private final Thread writer;
+	
+	/** The {@code System.nanoTime()} the journal was started at. */
+	private final long startTime = System.nanoTime();
+	
+	/** The number of recorded moves. */
+	private int moveCount;
+	
+	/** The number of moves since the last snapshot. */
+	private int movesSinceSnapshot;
+	
+	/** The number of fields changed by the moves since the last snapshot. */
+	private long changesSinceSnapshot;
+	
+	/** Flag indicating whether the board with its mines has been recorded. */
+	private boolean minesRecorded;
+	
+	/** Flag indicating whether the writer has been closed. */
+	private volatile boolean closed;
+	
+	/** The error the background thread failed with, if any. */
+	private volatile IOException failure;
+	
+	/**
+	 * Starts recording the given board to a new journal, replacing the file
+	 * if it exists.
+	 *
+	 * @param model the board to be recorded
+	 * @param file the journal file
+	 * @param snapshotInterval the least number of moves between two snapshots
+	 * @throws IOException if the journal could not be created
+	 */
+	public JournalWriter(MineField model, Path file, int snapshotInterval) throws IOException {
+		if(snapshotInterval < 1) throw new IllegalArgumentException("Snapshot interval must be positive, was " + snapshotInterval + ".");
+		
+		this.model = model;
+		this.snapshotInterval = snapshotInterval;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		
+		ByteBuffer header = ByteBuffer.allocate(Journal.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(Journal.MAGIC)
+			  .putShort(Journal.VERSION)
+			  .put((byte) model.getRevealMode().ordinal())
+			  .put((byte) model.getTopology().ordinal())
+			  .putInt(model.ROWS)
+			  .putInt(model.COLUMNS)
+			  .putInt(model.getMineCount())
+			  .putInt(0)
+			  .putLong(System.currentTimeMillis());
+		queue.add(header.flip());
+		
+		writer = new Thread(this::write, "journal-writer");
+		writer.setDaemon(true);
+		writer.start();
+		
+		if(model.areMinesPlaced()) snapshot();
+		model.addMineFieldListener(this);
+	}
+	
+	@Override
+	public void onMineFieldChange(MineFieldEvent event) {
+		if(failure != null) return;
+		
+		ByteBuffer record = ByteBuffer.allocate(Journal.MOVE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		record.put((byte) event.getType().ordinal())
+			  .putLong(System.nanoTime() - startTime)
+			  .putInt(event.getField());
+		queue.add(record.flip());
+		
+		moveCount++;
+		movesSinceSnapshot++;
+		changesSinceSnapshot += event.getChangedFieldCount();
+		
+		if(!minesRecorded && model.areMinesPlaced() || isSnapshotDue()) {
+			snapshot();
+		}
+	}
+	
+	/**
+	 * A snapshot is due once enough moves have been made since the last
+	 * one, and they have changed at least as many fields as there are words
+	 * in a bit-plane. Replaying the moves since a snapshot then costs about
+	 * as much as loading the snapshot, so small boards are snapshot every
+	 * few moves, while a huge board is not copied for every few flags.
+	 *
+	 * @return {@code true} if a snapshot should be taken
+	 */
+	private boolean isSnapshotDue() {
+		return movesSinceSnapshot >= snapshotInterval && changesSinceSnapshot >= model.planeLength();
+	}
+	
+	/**
+	 * Queues a snapshot of the whole board.
+	 */
+	private void snapshot() {
+		int size = (int) GameFile.sizeOf(model);
+		
+		ByteBuffer record = ByteBuffer.allocate(Journal.SNAPSHOT_HEADER_SIZE + size).order(ByteOrder.LITTLE_ENDIAN);
+		record.put(Journal.SNAPSHOT)
+			  .putLong(System.nanoTime() - startTime)
+			  .putInt(moveCount)
+			  .putInt(size);
+		GameFile.write(model, record);
+		queue.add(record.flip());
+		
+		minesRecorded = model.areMinesPlaced();
+		movesSinceSnapshot = 0;
+		changesSinceSnapshot = 0;
+	}
+	
+	/**
+	 * Writes the queued records until the writer is closed. The records
+	 * are gathered in a direct buffer, so they are written with a few large
+	 * writes. Runs on the background thread.
+	 */
+	private void write() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+		
+		try {
+			while(true) {
+				boolean end = closed;
+				
+				for(ByteBuffer record; (record = queue.poll()) != null; ) {
+					if(record.remaining() > buffer.remaining()) {
+						flush(buffer);
+						if(record.remaining() > buffer.remaining()) writeFully(record);
+					}
+					
+					buffer.put(record);
+				}
+				
+				flush(buffer);
+				if(end) return;
+				
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(FLUSH_PERIOD_MILLIS));
+			}
+		} catch(IOException ex) {
+			failure = ex;
+		}
+	}
+	
+	/**
+	 * Writes the contents of the buffer and clears it.
+	 *
+	 * @param buffer the buffer being filled
+	 * @throws IOException if the journal could not be written
+	 */
+	private void flush(ByteBuffer buffer) throws IOException {
+		writeFully(buffer.flip());
+		buffer.clear();
+	}
+	
+	/**
+	 * Writes all of the remaining bytes of the buffer.
+	 *
+	 * @param buffer the buffer
+	 * @throws IOException if the journal could not be written
+	 */
+	private void writeFully(ByteBuffer buffer) throws IOException {
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+	
+	/**
+	 * Stops recording, waits for the queued records to be written and
+	 * closes the journal.
+	 *
+	 * @throws IOException if the journal could not be written
+	 */
+	@Override
+	public void close() throws IOException {
+		model.removeMineFieldListener(this);
+		closed = true;
+		LockSupport.unpark(writer);
+		
+		try {
+			writer.join();
+		} catch(InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			channel.close();
+		}
+		
+		if(failure != null) throw failure;
+	}
+}
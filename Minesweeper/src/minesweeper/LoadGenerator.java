@@ -0,0 +1,167 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puts the {@link GameServer} under load. Every connection plays games
+ * one after another, discovering random fields until the game is over,
+ * and the latency of every request is recorded.
+ * <pre>
+ * LoadGenerator [host] [port] [connections] [seconds] [ROWSxCOLUMNSxMINES]
+ * </pre>
+ * By default, 64 connections play beginner boards for 10 seconds against
+ * a server started in the same JVM, which is also what the host
+ * {@code local} stands for. The throughput and the latency percentiles
+ * are printed at the end.
+ *
+ * @author Filip Nemec
+ */
+public class LoadGenerator {
+	
+	/** The host of the server. */
+	private final String host;
+	
+	/** The port of the server. */
+	private final int port;
+	
+	/**
+	 * Creates a new load generator.
+	 *
+	 * @param host the host of the server
+	 * @param port the port of the server
+	 */
+	public LoadGenerator(String host, int port) {
+		this.host = host;
+		this.port = port;
+	}
+	
+	/**
+	 * Plays games on the given number of connections for the given time.
+	 *
+	 * @param connections the number of connections
+	 * @param duration the time to play for, in milliseconds
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @return the report
+	 * @throws Exception if a connection fails
+	 */
+	public String run(int connections, long duration, int rows, int columns, int mines) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(connections);
+		List<Future<IntList>> results = new ArrayList<>(connections);
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(duration);
+		SplittableRandom seeds = new SplittableRandom();
+		
+		for(int i = 0; i < connections; i++) {
+			SplittableRandom random = seeds.split();
+			results.add(executor.submit(() -> play(deadline, rows, columns, mines, random)));
+		}
+		
+		IntList latencies = new IntList();
+		
+		try {
+			for(Future<IntList> result : results) {
+				IntList connectionLatencies = result.get();
+				for(int i = 0; i < connectionLatencies.size(); i++) {
+					latencies.add(connectionLatencies.get(i));
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		double seconds = (System.nanoTime() - start) / 1e9;
+		int[] sorted = latencies.toArray();
+		Arrays.sort(sorted);
+		
+		return String.format("%d connections, %dx%d with %d mines: %d requests in %.1f s, %.0f requests/s, "
+				+ "latency p50 %d us, p99 %d us, max %d us",
+				connections, rows, columns, mines, sorted.length, seconds, sorted.length / seconds,
+				percentile(sorted, 0.5), percentile(sorted, 0.99), sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+	}
+	
+	/**
+	 * Plays games on a single connection until the deadline.
+	 *
+	 * @return the latency of every request, in microseconds
+	 */
+	private IntList play(long deadline, int rows, int columns, int mines, SplittableRandom random) throws IOException {
+		IntList latencies = new IntList(1024);
+		
+		try(GameClient client = new GameClient(host, port)) {
+			while(System.nanoTime() < deadline) {
+				long requestStart = System.nanoTime();
+				StateDiff diff = client.newGame(rows, columns, mines);
+				latencies.add(micros(requestStart));
+				
+				long game = diff.getGame();
+				boolean[] discovered = new boolean[rows * columns];
+				
+				while(diff.getStatus() == StateDiff.Status.PLAYING && System.nanoTime() < deadline) {
+					int index = random.nextInt(discovered.length);
+					if(discovered[index]) continue;
+					
+					requestStart = System.nanoTime();
+					diff = client.reveal(game, index / columns, index % columns);
+					latencies.add(micros(requestStart));
+					
+					for(int i = 0; i < diff.getChangedFieldCount(); i++) {
+						discovered[diff.getChangedField(i)] = true;
+					}
+				}
+			}
+		}
+		
+		return latencies;
+	}
+	
+	private static int micros(long start) {
+		return (int) Math.min((System.nanoTime() - start) / 1000, Integer.MAX_VALUE);
+	}
+	
+	private static int percentile(int[] sorted, double share) {
+		if(sorted.length == 0) return 0;
+		return sorted[Math.min((int) Math.ceil(share * sorted.length) - 1, sorted.length - 1)];
+	}
+	
+	/**
+	 * Runs the load generator from the command line. For the host
+	 * {@code local}, a server is started in this JVM on a free port.
+	 *
+	 * @param args the host, port, number of connections, number of seconds
+	 *        and the board
+	 * @throws Exception if a connection fails
+	 */
+	public static void main(String[] args) throws Exception {
+		int connections = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+		long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+		String[] board = (args.length > 4 ? args[4] : "9x9x10").split("x");
+		
+		String host = args.length > 0 ? args[0] : "local";
+		int port = args.length > 1 ? Integer.parseInt(args[1]) : GameProtocol.DEFAULT_PORT;
+		GameServer server = null;
+		
+		if(host.equals("local")) {
+			server = new GameServer(0).start();
+			host = "localhost";
+			port = server.getPort();
+		}
+		
+		try {
+			LoadGenerator generator = new LoadGenerator(host, port);
+			System.out.println(generator.run(connections, TimeUnit.SECONDS.toMillis(seconds),
+					Integer.parseInt(board[0]), Integer.parseInt(board[1]), Integer.parseInt(board[2])));
+		} finally {
+			if(server != null) server.close();
+		}
+	}
+}
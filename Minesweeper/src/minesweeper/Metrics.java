@@ -0,0 +1,192 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+
+/**
+ * Measures where the time goes while the game is played.
+ * <p>
+ * The metrics are off unless the {@value #ENABLED_PROPERTY} system
+ * property is {@code true}. The flag is a static constant, so when it is
+ * off the JIT compiler drops the measuring code altogether. When it is on, every
+ * measurement is recorded into a lock-free {@link Histogram}, and every
+ * histogram is registered as an MBean named
+ * {@code minesweeper:type=Histogram,name=...}. If the
+ * {@value #DUMP_PERIOD_PROPERTY} property is set to a number of seconds,
+ * all of the histograms are also printed to the standard error that often.
+ *
+ * @author Filip Nemec
+ */
+public final class Metrics {
+	
+	/** The system property that turns the metrics on. */
+	public static final String ENABLED_PROPERTY = "minesweeper.metrics";
+	
+	/** The system property holding the number of seconds between the text dumps. */
+	public static final String DUMP_PERIOD_PROPERTY = "minesweeper.metrics.dump";
+	
+	/** Flag indicating whether the metrics are being recorded. */
+	public static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+	
+	/** The time it takes to place the mine layout of a board, recorded once per board. */
+	static final Histogram GENERATION_TIME = new Histogram("generationTime", "ns");
+	
+	/** The time it takes to search for the layout of a single no-guess board, before it is generated again from its seed. */
+	static final Histogram NO_GUESS_SEARCH_TIME = new Histogram("noGuessSearchTime", "ns");
+	
+	/** The number of candidate layouts tried to find a single no-guess board. */
+	static final Histogram NO_GUESS_ATTEMPTS = new Histogram("noGuessAttempts", "attempts");
+	
+	/** The number of candidate layouts of no-guess boards tried per second. */
+	static final Histogram NO_GUESS_RATE = new Histogram("noGuessRate", "attempts/s");
+	
+	/** The number of fields discovered by a single flood fill. */
+	static final Histogram CASCADE_SIZE = new Histogram("cascadeSize", "fields");
+	
+	/** The time a single flood fill takes, without notifying the listeners. */
+	static final Histogram CASCADE_TIME = new Histogram("cascadeTime", "ns");
+	
+	/** The time it takes to notify all of the listeners of a mine-field change. */
+	static final Histogram DISPATCH_TIME = new Histogram("dispatchTime", "ns");
+	
+	/** The time from a click until the repaint it caused has been done. */
+	static final Histogram CLICK_TO_PAINT = new Histogram("clickToPaint", "ns");
+	
+	/** The memory allocated by a single player action, listeners included. */
+	static final Histogram ACTION_ALLOCATION = new Histogram("actionAllocation", "bytes");
+	
+	/** The time it takes to compute the mine probabilities after a move, on their own thread. */
+	static final Histogram PROBABILITY_TIME = new Histogram("probabilityTime", "ns");
+	
+	/** All of the histograms. */
+	private static final List<Histogram> HISTOGRAMS = Arrays.asList(
+			GENERATION_TIME, NO_GUESS_SEARCH_TIME, NO_GUESS_ATTEMPTS, NO_GUESS_RATE, CASCADE_SIZE, CASCADE_TIME,
+			DISPATCH_TIME, CLICK_TO_PAINT, ACTION_ALLOCATION, PROBABILITY_TIME);
+	
+	/** The time of the click being measured, or {@code 0}. */
+	private static final AtomicLong CLICK_TIME = new AtomicLong();
+	
+	/** Measures the allocated memory, or {@code null} if it can not be measured. */
+	private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+	
+	static {
+		if(ENABLED) {
+			register();
+			scheduleDump();
+		}
+	}
+	
+	/**
+	 * Disable instantiation.
+	 */
+	private Metrics() {}
+	
+	/**
+	 * @return the current {@link System#nanoTime()}, or {@code 0} if the
+	 *         metrics are off
+	 */
+	static long time() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+	
+	/**
+	 * @return the number of bytes allocated by the current thread so far,
+	 *         or {@code 0} if that can not be measured
+	 */
+	static long allocatedBytes() {
+		return ENABLED && THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+	}
+	
+	/**
+	 * Records the memory allocated by an action that started at the given
+	 * amount of allocated bytes.
+	 *
+	 * @param start the result of {@link #allocatedBytes()} before the action
+	 */
+	static void recordAllocation(long start) {
+		if(THREADS != null) ACTION_ALLOCATION.record(allocatedBytes() - start);
+	}
+	
+	/**
+	 * Starts measuring the click-to-paint latency of a click, unless an
+	 * earlier click is still being measured.
+	 */
+	static void clicked() {
+		CLICK_TIME.compareAndSet(0, System.nanoTime());
+	}
+	
+	/**
+	 * Finishes measuring the click-to-paint latency once the views have
+	 * been updated with the changes the click caused. The repaints they
+	 * requested are queued before the task posted here, so the task runs
+	 * once they have been painted.
+	 */
+	static void changesApplied() {
+		long start = CLICK_TIME.getAndSet(0);
+		if(start != 0) SwingUtilities.invokeLater(() -> CLICK_TO_PAINT.recordSince(start));
+	}
+	
+	/**
+	 * @return all of the histograms, one per line
+	 */
+	public static String dump() {
+		StringBuilder sb = new StringBuilder("Minesweeper metrics:");
+		
+		for(Histogram histogram : HISTOGRAMS) {
+			sb.append(System.lineSeparator()).append("  ").append(histogram);
+		}
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Forgets all of the recorded values.
+	 */
+	public static void reset() {
+		HISTOGRAMS.forEach(Histogram::reset);
+	}
+	
+	private static com.sun.management.ThreadMXBean allocationBean() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+		
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled() ? threads : null;
+	}
+	
+	private static void register() {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		
+		for(Histogram histogram : HISTOGRAMS) {
+			try {
+				server.registerMBean(histogram, new ObjectName("minesweeper:type=Histogram,name=" + histogram.getName()));
+			} catch(JMException ex) {
+				System.err.println("Could not register the " + histogram.getName() + " metrics: " + ex.getMessage());
+			}
+		}
+	}
+	
+	private static void scheduleDump() {
+		long period = Long.getLong(DUMP_PERIOD_PROPERTY, 0);
+		if(period <= 0) return;
+		
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "metrics-dump");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		executor.scheduleAtFixedRate(() -> System.err.println(dump()), period, period, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,288 @@
+package minesweeper;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Counts the mines on every field and its neighbours, for all of the
+ * fields of a board at once.
+ * <p>
+ * The counts of a {@link Topology#SQUARE} board are computed a row at a
+ * time, straight from the bit-set of the mines. The row and the rows above
+ * and below it are added up bit-wise, 64 columns per step, into a two bit
+ * sum for every column. The sums are spread into bytes, 8 columns per
+ * {@code long}, and each of them is added to the sums of the columns on
+ * its left and right by shifting the whole {@code long} by a byte, which
+ * never carries, since no count is larger than 9. The 8 counts are then
+ * stored with a single write. Large boards are split into bands of rows
+ * that are counted in parallel.
+ * <p>
+ * The boards of the other topologies, whose neighbours are not in the
+ * rows right above and below, add every mine to the counts of its
+ * neighbours one by one instead.
+ *
+ * @author Filip Nemec
+ */
+final class MineCounter {
+	
+	/** The smallest number of fields that is worth splitting among several threads. */
+	private static final int PARALLEL_THRESHOLD = 1 << 20;
+	
+	/** The number of fields counted by a task that is not split any further. */
+	private static final int FIELDS_PER_TASK = 1 << 18;
+	
+	/** For every byte, a {@code long} with the bits of the byte spread into its 8 bytes. */
+	private static final long[] SPREAD = new long[256];
+	
+	/** Writes 8 counts into the byte array at once. */
+	private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+	
+	static {
+		for(int b = 0; b < SPREAD.length; b++) {
+			for(int bit = 0; bit < Byte.SIZE; bit++) {
+				if((b & 1 << bit) != 0) SPREAD[b] |= 1L << bit * Byte.SIZE;
+			}
+		}
+	}
+	
+	/**
+	 * Disables instantiation.
+	 */
+	private MineCounter() {
+	}
+	
+	/**
+	 * Counts the mines on every field and its neighbours.
+	 *
+	 * @param mines the bit-set of the fields that are mines
+	 * @param neighbours the neighbours of the fields of the board
+	 * @return the number of mines on each field and its neighbours
+	 */
+	static byte[] count(long[] mines, Neighbours neighbours) {
+		if(neighbours.TOPOLOGY != Topology.SQUARE) return countEach(mines, neighbours);
+		
+		int rows = neighbours.ROWS;
+		int columns = neighbours.COLUMNS;
+		byte[] counts = new byte[rows * columns];
+		
+		if(counts.length < PARALLEL_THRESHOLD) {
+			countRows(mines, rows, columns, counts, 0, rows);
+		} else {
+			ForkJoinPool.commonPool().invoke(new Band(mines, rows, columns, counts, 0, rows));
+		}
+		
+		return counts;
+	}
+	
+	/**
+	 * Counts the mines by adding every mine to the counts of the field and
+	 * all of its neighbours.
+	 *
+	 * @param mines the bit-set of the fields that are mines
+	 * @param neighbours the neighbours of the fields of the board
+	 * @return the number of mines on each field and its neighbours
+	 */
+	static byte[] countEach(long[] mines, Neighbours neighbours) {
+		byte[] counts = new byte[neighbours.ROWS * neighbours.COLUMNS];
+		
+		for(int w = 0; w < mines.length; w++) {
+			for(long word = mines[w]; word != 0; word &= word - 1) {
+				int index = w * Bits.WORD_SIZE + Long.numberOfTrailingZeros(word);
+				int pattern = neighbours.pattern(index);
+				counts[index]++;
+				
+				for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+					counts[index + neighbours.offset(i)]++;
+				}
+			}
+		}
+		
+		return counts;
+	}
+	
+	//------------------------------------------------------------
+	//						  Square boards
+	//------------------------------------------------------------
+	
+	/**
+	 * Counts the mines around the fields of the given rows of a square
+	 * board.
+	 *
+	 * @param mines the bit-set of the fields that are mines
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param counts receives the counts
+	 * @param fromRow the first row counted
+	 * @param toRow the row after the last row counted
+	 */
+	private static void countRows(long[] mines, int rows, int columns, byte[] counts, int fromRow, int toRow) {
+		int words = (columns + Bits.WORD_SIZE - 1) / Bits.WORD_SIZE;
+		long[] above = new long[words];
+		long[] row = new long[words];
+		long[] below = new long[words];
+		long[] sums = new long[words * Byte.SIZE + 1];
+		
+		if(fromRow > 0) readRow(mines, columns, fromRow - 1, above);
+		readRow(mines, columns, fromRow, row);
+		
+		for(int r = fromRow; r < toRow; r++) {
+			if(r + 1 < rows) {
+				readRow(mines, columns, r + 1, below);
+			} else {
+				Arrays.fill(below, 0);
+			}
+			
+			columnSums(above, row, below, sums);
+			writeCounts(sums, counts, r * columns, columns);
+			
+			long[] free = above;
+			above = row;
+			row = below;
+			below = free;
+		}
+	}
+	
+	/**
+	 * Copies the bits of a single row out of the bit-set, so that the row
+	 * starts at the first bit of the first word.
+	 *
+	 * @param mines the bit-set of the fields that are mines
+	 * @param columns the number of columns
+	 * @param row the row
+	 * @param bits receives the bits of the row, with the bits past the
+	 *        last column cleared
+	 */
+	private static void readRow(long[] mines, int columns, int row, long[] bits) {
+		long start = (long) row * columns;
+		
+		for(int w = 0; w < bits.length; w++) {
+			long bit = start + (long) w * Bits.WORD_SIZE;
+			int word = (int) (bit >>> 6);
+			int shift = (int) bit & 63;
+			
+			long value = mines[word] >>> shift;
+			if(shift != 0 && word + 1 < mines.length) value |= mines[word + 1] << -shift;
+			bits[w] = value;
+		}
+		
+		int used = columns % Bits.WORD_SIZE;
+		if(used != 0) bits[bits.length - 1] &= (1L << used) - 1;
+	}
+	
+	/**
+	 * Adds up the mines of the three rows in every column, spreading the
+	 * sums into bytes, 8 columns per {@code long}.
+	 *
+	 * @param above the row above, or no mines for the first row
+	 * @param row the row
+	 * @param below the row below, or no mines for the last row
+	 * @param sums receives the sums, followed by a {@code long} of zeros
+	 */
+	private static void columnSums(long[] above, long[] row, long[] below, long[] sums) {
+		for(int w = 0, s = 0; w < row.length; w++) {
+			long a = above[w];
+			long b = row[w];
+			long c = below[w];
+			
+			long low = a ^ b ^ c;
+			long high = a & b | c & (a ^ b);
+			
+			for(int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+				sums[s++] = SPREAD[(int) (low >>> shift) & 0xFF] | SPREAD[(int) (high >>> shift) & 0xFF] << 1;
+			}
+		}
+	}
+	
+	/**
+	 * Adds the sums of the columns on the left and right to the sum of
+	 * every column and writes the results as the counts of the row.
+	 *
+	 * @param sums the sums of the columns, 8 per {@code long}
+	 * @param counts receives the counts
+	 * @param offset the index of the first field of the row
+	 * @param columns the number of columns
+	 */
+	private static void writeCounts(long[] sums, byte[] counts, int offset, int columns) {
+		long previous = 0;
+		int full = columns / Byte.SIZE;
+		
+		for(int g = 0; g < full; g++) {
+			long sum = sums[g];
+			long next = sums[g + 1];
+			
+			LONGS.set(counts, offset + g * Byte.SIZE, sum + (sum << 8 | previous >>> 56) + (sum >>> 8 | next << 56));
+			previous = sum;
+		}
+		
+		if(full * Byte.SIZE < columns) {
+			long sum = sums[full];
+			long total = sum + (sum << 8 | previous >>> 56) + (sum >>> 8);
+			
+			for(int c = full * Byte.SIZE; c < columns; c++, total >>>= 8) {
+				counts[offset + c] = (byte) total;
+			}
+		}
+	}
+	
+	/**
+	 * A band of rows, split in halves until it is small enough to be
+	 * counted by a single thread. The bands only read the rows right
+	 * above and below themselves, and write only their own counts.
+	 */
+	private static class Band extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		/** The bit-set of the fields that are mines. */
+		private final long[] mines;
+		
+		/** The number of rows of the board. */
+		private final int rows;
+		
+		/** The number of columns of the board. */
+		private final int columns;
+		
+		/** Receives the counts. */
+		private final byte[] counts;
+		
+		/** The first row of the band. */
+		private final int fromRow;
+		
+		/** The row after the last row of the band. */
+		private final int toRow;
+		
+		/**
+		 * Creates a new band.
+		 *
+		 * @param mines the bit-set of the fields that are mines
+		 * @param rows the number of rows of the board
+		 * @param columns the number of columns of the board
+		 * @param counts receives the counts
+		 * @param fromRow the first row of the band
+		 * @param toRow the row after the last row of the band
+		 */
+		Band(long[] mines, int rows, int columns, byte[] counts, int fromRow, int toRow) {
+			this.mines = mines;
+			this.rows = rows;
+			this.columns = columns;
+			this.counts = counts;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+		}
+		
+		@Override
+		protected void compute() {
+			if(toRow - fromRow > 1 && (long) (toRow - fromRow) * columns > FIELDS_PER_TASK) {
+				int middle = (fromRow + toRow) >>> 1;
+				invokeAll(new Band(mines, rows, columns, counts, fromRow, middle),
+						  new Band(mines, rows, columns, counts, middle, toRow));
+			} else {
+				countRows(mines, rows, columns, counts, fromRow, toRow);
+			}
+		}
+	}
+}
@@ -0,0 +1,900 @@
+package minesweeper;
+
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A headless model of the mine-field. The whole state of the board is
+ * kept in bit-sets (one bit per field for mines, flags and discovered
+ * fields), so this model does not depend on any graphical user interface
+ * and can be used on its own.
+ * <p>
+ * Fields are addressed either by their {@code row} and {@code column}, or
+ * by their index which is calculated as {@code row * COLUMNS + column}.
+ * Which fields are neighbours is decided by the {@link Topology} of the
+ * board, and looked up in its shared {@link Neighbours} table.
+ *
+ * @author Filip Nemec
+ */
+public class MineField {
+	
+	/**
+	 * The fields revealed when the player steps on a mine.
+	 */
+	public enum RevealMode {
+		
+		/** Every undiscovered field is revealed. */
+		ALL("Everything"),
+		
+		/** Only the mines that are not flagged and the wrong flags are revealed. */
+		MINES("Mines and wrong flags");
+		
+		/** The name shown to the player. */
+		private final String name;
+		
+		/**
+		 * @param name the name shown to the player
+		 */
+		RevealMode(String name) {
+			this.name = name;
+		}
+		
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+	
+	/** The number of rows. */
+	public final int ROWS;
+	
+	/** The number of columns. */
+	public final int COLUMNS;
+	
+	/** The total number of fields. */
+	public final int FIELD_COUNT;
+	
+	/** The neighbours of every field. */
+	private final Neighbours neighbours;
+	
+	/** Bit-set of the fields that are mines. */
+	private final long[] mines;
+	
+	/** Bit-set of the fields that are currently flagged. */
+	private final long[] flags;
+	
+	/** Bit-set of the fields that have been discovered. */
+	private final long[] discovered;
+	
+	/**
+	 * The number of mines on each field and its neighbours, computed
+	 * when first needed and dropped again by {@link #trim()}.
+	 */
+	private byte[] mineCounts;
+	
+	/** The generator that places the mines once the first field is discovered. */
+	private final MineGenerator generator;
+	
+	/** Flag indicating whether the mines have already been placed. */
+	private boolean minesPlaced;
+	
+	/** Flag indicating whether the seed of the layout is known. */
+	private boolean seeded;
+	
+	/** The seed the layout was generated from. */
+	private long seed;
+	
+	/** The safe field the layout was generated around, or {@code MineGenerator.NO_SAFE_FIELD}. */
+	private int seedField = MineGenerator.NO_SAFE_FIELD;
+	
+	/** The number of mines on this board. */
+	private int mineCount;
+	
+	/** The number of flags on the board. */
+	private int flagCount;
+	
+	/** The number of discovered fields on this board. */
+	private int discoveredCount;
+	
+	/** The queue reused by every flood fill, allocated on first use. */
+	private int[] floodQueue;
+	
+	/** The index of the mine the player has stepped on, or {@code -1}. */
+	private int explodedField = -1;
+	
+	/** The fields revealed when the player steps on a mine. */
+	private RevealMode revealMode = RevealMode.ALL;
+	
+	/** Flag indicating whether the clock is running. */
+	private boolean clockRunning;
+	
+	/** The {@code System.nanoTime()} the clock was last started at. */
+	private long clockStart;
+	
+	/** The time played until the clock was last stopped, in nanoseconds. */
+	private long clockElapsed;
+	
+	/** A list of all the listeners. */
+	private List<MineFieldListener> listeners = new LinkedList<>();
+	
+	/**
+	 * Constructs a new board with randomly placed mines. The mines are
+	 * placed once the player discovers the first field, so that the first
+	 * field and its neighbours are never mines.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mineCount the number of mines
+	 */
+	public MineField(int rows, int columns, int mineCount) {
+		this(rows, columns, mineCount, new RandomMineGenerator());
+	}
+	
+	/**
+	 * Constructs a new board whose mines are placed by the given generator
+	 * once the player discovers the first field.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mineCount the number of mines
+	 * @param generator the generator that places the mines
+	 */
+	public MineField(int rows, int columns, int mineCount, MineGenerator generator) {
+		this(rows, columns, mineCount, generator, Topology.SQUARE);
+	}
+	
+	/**
+	 * Constructs a new board of the given topology, whose mines are placed
+	 * by the given generator once the player discovers the first field.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mineCount the number of mines
+	 * @param generator the generator that places the mines
+	 * @param topology the topology of the board
+	 * @throws IllegalArgumentException if the number of mines is negative
+	 *         or the board can not have the given topology
+	 */
+	public MineField(int rows, int columns, int mineCount, MineGenerator generator, Topology topology) {
+		if(mineCount < 0) throw new IllegalArgumentException("Invalid number of mines: " + mineCount + ".");
+		
+		this.ROWS = rows;
+		this.COLUMNS = columns;
+		this.FIELD_COUNT = ROWS * COLUMNS;
+		this.neighbours = topology.neighbours(rows, columns);
+		
+		this.mines = Bits.create(FIELD_COUNT);
+		this.flags = Bits.create(FIELD_COUNT);
+		this.discovered = Bits.create(FIELD_COUNT);
+		this.mineCount = mineCount;
+		this.generator = generator;
+	}
+	
+	/**
+	 * Constructs a new board with the given mine layout.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the bit-set of the fields that are mines
+	 */
+	public MineField(int rows, int columns, long[] mines) {
+		this(rows, columns, mines, Topology.SQUARE);
+	}
+	
+	/**
+	 * Constructs a new board of the given topology with the given mine
+	 * layout.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the bit-set of the fields that are mines
+	 * @param topology the topology of the board
+	 */
+	public MineField(int rows, int columns, long[] mines, Topology topology) {
+		this(rows, columns, Bits.cardinality(mines), null, topology);
+		placeMines(mines);
+	}
+	
+	/**
+	 * Places the given mines on the board and counts the mines around
+	 * every field.
+	 *
+	 * @param layout the bit-set of the fields that are mines
+	 */
+	private void placeMines(long[] layout) {
+		System.arraycopy(layout, 0, mines, 0, mines.length);
+		minesPlaced = true;
+		countMines();
+	}
+	
+	/**
+	 * Returns the mine counts, counting the mines first if they have not
+	 * been counted yet or have been dropped.
+	 *
+	 * @return the mine counts
+	 */
+	private byte[] mineCounts() {
+		if(mineCounts == null) {
+			countMines();
+		}
+		
+		return mineCounts;
+	}
+	
+	/**
+	 * Fills new mine counts, all of them at once, see {@link MineCounter}.
+	 */
+	private void countMines() {
+		mineCounts = MineCounter.count(mines, neighbours);
+	}
+	
+	//------------------------------------------------------------
+	//					  Discovering fields
+	//------------------------------------------------------------
+	
+	/**
+	 * Discovers the field at the given {@code row} and {@code column},
+	 * unless that field has already been discovered or is flagged.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void toggleField(int row, int column) {
+		int index = indexOf(row, column);
+		if(isExploded() || Bits.get(discovered, index) || Bits.get(flags, index)) return;
+		
+		long allocation = Metrics.allocatedBytes();
+		startClock();
+		
+		if(!minesPlaced) {
+			long start = Metrics.time();
+			placeMines(generator.generate(neighbours.TOPOLOGY, ROWS, COLUMNS, mineCount, index));
+			setSeed(generator.getSeed(), index);
+			if(Metrics.ENABLED) Metrics.GENERATION_TIME.recordSince(start);
+		}
+		
+		if(Bits.get(mines, index)) {
+			explode(index);
+		} else {
+			discover(index);
+		}
+		
+		if(Metrics.ENABLED) Metrics.recordAllocation(allocation);
+	}
+	
+	/**
+	 * Chords the discovered number on the given {@code row} and
+	 * {@code column}: if as many of its neighbours are flagged as there
+	 * are mines around it, all of its other undiscovered neighbours are
+	 * discovered at once. They are flood filled together, as a single
+	 * fill with many seeds, and the listeners are notified once. If any
+	 * of the flags is wrong, the player steps on a mine.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void chord(int row, int column) {
+		int index = indexOf(row, column);
+		if(isExploded() || !Bits.get(discovered, index)) return;
+		
+		int mineCountAround = mineCounts()[index];
+		if(mineCountAround == 0) return;
+		
+		long allocation = Metrics.allocatedBytes();
+		int[] queue = floodQueue();
+		int seeds = 0;
+		int flagged = 0;
+		int mine = -1;
+		
+		int pattern = neighbours.pattern(index);
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			int neighbour = index + neighbours.offset(i);
+			
+			if(Bits.get(flags, neighbour)) {
+				flagged++;
+			} else if(!Bits.get(discovered, neighbour)) {
+				if(mine < 0 && Bits.get(mines, neighbour)) mine = neighbour;
+				queue[seeds++] = neighbour;
+			}
+		}
+		
+		if(flagged != mineCountAround || seeds == 0) return;
+		
+		startClock();
+		if(mine >= 0) {
+			explode(mine);
+		} else {
+			for(int i = 0; i < seeds; i++) {
+				Bits.set(discovered, queue[i]);
+			}
+			
+			flood(MineFieldEvent.Type.CHORD, index, seeds);
+		}
+		
+		if(Metrics.ENABLED) Metrics.recordAllocation(allocation);
+	}
+	
+	/**
+	 * Discovers the given field and, if there are no mines around it,
+	 * flood fills the area around it.
+	 *
+	 * @param start the index of the field to be discovered
+	 */
+	private void discover(int start) {
+		Bits.set(discovered, start);
+		floodQueue()[0] = start;
+		
+		flood(MineFieldEvent.Type.DISCOVER, start, 1);
+	}
+	
+	/**
+	 * Flood fills breadth first from the seeds at the start of the queue,
+	 * which have already been marked as discovered, and notifies the
+	 * listeners once. Fields are marked as discovered as soon as they are
+	 * queued, so the discovered bit-set doubles as the visited set shared
+	 * by all of the seeds, and the reused queue never holds the same field
+	 * twice.
+	 *
+	 * @param type the type of the event
+	 * @param field the index of the field the player acted upon
+	 * @param seeds the number of seeds in the queue
+	 */
+	private void flood(MineFieldEvent.Type type, int field, int seeds) {
+		long startTime = Metrics.time();
+		int[] queue = floodQueue();
+		byte[] counts = mineCounts();
+		int head = 0;
+		int tail = seeds;
+		
+		while(head < tail) {
+			int index = queue[head++];
+			discoveredCount++;
+			
+			if(counts[index] == 0) {
+				int pattern = neighbours.pattern(index);
+				
+				for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+					int neighbour = index + neighbours.offset(i);
+					if(Bits.get(discovered, neighbour) || Bits.get(flags, neighbour)) continue;
+					
+					Bits.set(discovered, neighbour);
+					queue[tail++] = neighbour;
+				}
+			}
+		}
+		
+		if(Metrics.ENABLED) {
+			Metrics.CASCADE_TIME.recordSince(startTime);
+			Metrics.CASCADE_SIZE.record(tail);
+		}
+		
+		if(isWon()) stopClock();
+		
+		notifyListeners(new MineFieldEvent(this, type, field, Arrays.copyOf(queue, tail), tail, 0));
+	}
+	
+	/**
+	 * Returns the queue used by the flood fill, allocating it on the
+	 * first use. Every field is queued at most once per fill, so the
+	 * queue never has to grow.
+	 *
+	 * @return the flood fill queue
+	 */
+	private int[] floodQueue() {
+		if(floodQueue == null) {
+			floodQueue = new int[FIELD_COUNT];
+		}
+		
+		return floodQueue;
+	}
+	
+	/**
+	 * Steps on the mine and reveals the remaining fields, as chosen by the
+	 * reveal mode, in a single event. Revealing does not count as
+	 * discovering the fields. A flagged field that is revealed but is not
+	 * a mine keeps its flag, which marks it as a wrong flag.
+	 * <p>
+	 * The fields to be revealed are selected a whole bit-set word at a
+	 * time, so only the words with something to reveal are looked into.
+	 *
+	 * @param index the index of the mine
+	 */
+	private void explode(int index) {
+		explodedField = index;
+		stopClock();
+		
+		int[] revealed = new int[FIELD_COUNT - discoveredCount];
+		int revealedCount = 0;
+		
+		for(int w = 0; w < discovered.length; w++) {
+			long reveal = ~discovered[w];
+			
+			if(revealMode == RevealMode.MINES) {
+				reveal &= (mines[w] & ~flags[w]) | (flags[w] & ~mines[w]);
+			}
+			
+			if(w == discovered.length - 1 && FIELD_COUNT % Bits.WORD_SIZE != 0) {
+				reveal &= (1L << FIELD_COUNT % Bits.WORD_SIZE) - 1;
+			}
+			
+			discovered[w] |= reveal;
+			
+			for(; reveal != 0; reveal &= reveal - 1) {
+				revealed[revealedCount++] = w * Bits.WORD_SIZE + Long.numberOfTrailingZeros(reveal);
+			}
+		}
+		
+		notifyListeners(new MineFieldEvent(this, MineFieldEvent.Type.EXPLODE, index, Arrays.copyOf(revealed, revealedCount), 0, 0));
+	}
+	
+	/**
+	 * Releases the memory that can be recomputed when it is needed again:
+	 * the flood fill queue and the mine counts. What is left is just the
+	 * bit-sets, a few hundred bytes for a usual board, which is what an
+	 * idle game should take.
+	 */
+	public void trim() {
+		floodQueue = null;
+		mineCounts = null;
+	}
+	
+	/**
+	 * Estimates the memory taken by this board, in bytes.
+	 *
+	 * @return the estimated size
+	 */
+	long footprint() {
+		long size = 128 + 3 * (16 + (long) mines.length * Long.BYTES);
+		if(mineCounts != null) size += 16 + mineCounts.length;
+		if(floodQueue != null) size += 16 + (long) floodQueue.length * Integer.BYTES;
+		
+		return size;
+	}
+	
+	/**
+	 * Estimates the most memory a board of the given size takes, once its
+	 * mine counts and flood fill queue have been allocated, in bytes.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @return the estimated size
+	 */
+	static long footprint(int rows, int columns) {
+		long fields = (long) rows * columns;
+		return 128 + 3 * (16 + (fields + 63 >> 6) * Long.BYTES) + 16 + fields + 16 + fields * Integer.BYTES;
+	}
+	
+	//------------------------------------------------------------
+	//							Clock
+	//------------------------------------------------------------
+	
+	/**
+	 * Starts the clock on the first action of the player, unless the game
+	 * is already over.
+	 */
+	private void startClock() {
+		if(clockRunning || isExploded() || isWon()) return;
+		
+		clockRunning = true;
+		clockStart = System.nanoTime();
+	}
+	
+	/**
+	 * Stops the clock once the game is over.
+	 */
+	private void stopClock() {
+		if(!clockRunning) return;
+		
+		clockRunning = false;
+		clockElapsed += System.nanoTime() - clockStart;
+	}
+	
+	/**
+	 * Stops the clock and sets it back to zero. A board whose opening field
+	 * is discovered by its generator, possibly long before it is played,
+	 * is reset this way, so the clock starts on the first action of the
+	 * player instead.
+	 */
+	void resetClock() {
+		clockRunning = false;
+		clockElapsed = 0;
+	}
+	
+	/**
+	 * Returns the time played so far. The clock starts on the first action
+	 * of the player and stops once the game is won or lost.
+	 *
+	 * @return the time played, in milliseconds
+	 */
+	public long getElapsedTime() {
+		long elapsed = clockElapsed;
+		if(clockRunning) elapsed += System.nanoTime() - clockStart;
+		
+		return elapsed / 1_000_000;
+	}
+	
+	//------------------------------------------------------------
+	//						   Bit-planes
+	//------------------------------------------------------------
+	
+	/**
+	 * @return the number of {@code long} words in a single bit-plane
+	 */
+	int planeLength() {
+		return mines.length;
+	}
+	
+	/**
+	 * Writes the mines, the flags and the discovered fields, one bit-plane
+	 * after the other, to the given buffer.
+	 *
+	 * @param planes the buffer with room for three bit-planes
+	 */
+	void writePlanes(LongBuffer planes) {
+		planes.put(mines).put(flags).put(discovered);
+	}
+	
+	/**
+	 * Restores a saved game on this fresh board: the mines, the flags and
+	 * the discovered fields are read from the given buffer, one bit-plane
+	 * after the other, straight into the bit-sets of this board. The mine
+	 * counts are counted again once they are needed. The clock is resumed
+	 * on the next action of the player.
+	 *
+	 * @param planes the buffer holding three bit-planes
+	 * @param minesPlaced {@code true} if the mines have been placed
+	 * @param discoveredCount the number of fields discovered by the player
+	 * @param explodedField the index of the mine stepped on, or {@code -1}
+	 * @param elapsedTime the time played, in milliseconds
+	 */
+	void readPlanes(LongBuffer planes, boolean minesPlaced, int discoveredCount, int explodedField, long elapsedTime) {
+		planes.get(mines).get(flags).get(discovered);
+		
+		this.minesPlaced = minesPlaced;
+		this.discoveredCount = discoveredCount;
+		this.explodedField = explodedField;
+		this.flagCount = Bits.cardinality(flags);
+		this.clockElapsed = elapsedTime * 1_000_000;
+		this.mineCounts = null;
+	}
+	
+	//------------------------------------------------------------
+	//							Seeds
+	//------------------------------------------------------------
+	
+	/**
+	 * Remembers the seed the layout of this board was generated from.
+	 *
+	 * @param seed the seed of the layout
+	 * @param seedField the safe field the layout was generated around
+	 */
+	void setSeed(long seed, int seedField) {
+		this.seeded = true;
+		this.seed = seed;
+		this.seedField = seedField;
+	}
+	
+	/**
+	 * @return {@code true} if the seed the layout was generated from is
+	 *         known
+	 */
+	public boolean isSeeded() {
+		return seeded;
+	}
+	
+	/**
+	 * @return the seed the layout was generated from, or {@code 0} if it
+	 *         is not known
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * @return the safe field the layout was generated around, or
+	 *         {@code MineGenerator.NO_SAFE_FIELD}
+	 */
+	public int getSeedField() {
+		return seedField;
+	}
+	
+	/**
+	 * Returns the code the layout of this board can be recreated from. A
+	 * random board that has not placed its mines yet is shared with its
+	 * seed only, so the same first click gives the same layout.
+	 *
+	 * @return the board code, or {@code null} if the layout can not be
+	 *         recreated
+	 */
+	public BoardCode getBoardCode() {
+		if(seeded) return new BoardCode(ROWS, COLUMNS, mineCount, seed, seedField, getTopology());
+		
+		if(!minesPlaced && generator instanceof RandomMineGenerator) {
+			return new BoardCode(ROWS, COLUMNS, mineCount, generator.getSeed(), MineGenerator.NO_SAFE_FIELD, getTopology());
+		}
+		
+		return null;
+	}
+	
+	//------------------------------------------------------------
+	//						Flagging fields
+	//------------------------------------------------------------
+	
+	/**
+	 * Toggles the flag on the given field on or off, based on the
+	 * situation. Discovered fields can not be flagged.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 */
+	public void toggleFlag(int row, int column) {
+		int index = indexOf(row, column);
+		if(isExploded() || Bits.get(discovered, index)) return;
+		
+		long allocation = Metrics.allocatedBytes();
+		startClock();
+		
+		if(Bits.get(flags, index)) {
+			Bits.clear(flags, index);
+			flagCount--;
+			notifyListeners(new MineFieldEvent(this, MineFieldEvent.Type.FLAG_REMOVE, index, new int[] { index }, 0, -1));
+		} else {
+			Bits.set(flags, index);
+			flagCount++;
+			notifyListeners(new MineFieldEvent(this, MineFieldEvent.Type.FLAG_PLACE, index, new int[] { index }, 0, 1));
+		}
+		
+		if(Metrics.ENABLED) Metrics.recordAllocation(allocation);
+	}
+	
+	//---------------------------------------------------------
+	//				  		Public API
+	//---------------------------------------------------------
+	
+	/**
+	 * Returns the number of mines around the field on the given
+	 * {@code row} and {@code column}.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the number of mines around the specified field
+	 */
+	public int getMineCountAround(int row, int column) {
+		return mineCounts()[indexOf(row, column)];
+	}
+	
+	/**
+	 * Returns the number of mines around the field with the given
+	 * {@code index}.
+	 *
+	 * @param index the index of the field
+	 * @return the number of mines around the specified field
+	 */
+	public int getMineCountAround(int index) {
+		return mineCounts()[index];
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return {@code true} if the specified field is a mine
+	 */
+	public boolean isMine(int row, int column) {
+		return Bits.get(mines, indexOf(row, column));
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return {@code true} if the specified field is flagged
+	 */
+	public boolean isFlagged(int row, int column) {
+		return Bits.get(flags, indexOf(row, column));
+	}
+	
+	/**
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return {@code true} if the specified field has been discovered
+	 *         or revealed
+	 */
+	public boolean isDiscovered(int row, int column) {
+		return Bits.get(discovered, indexOf(row, column));
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the specified field is a mine
+	 */
+	public boolean isMine(int index) {
+		return Bits.get(mines, index);
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the specified field is flagged
+	 */
+	public boolean isFlagged(int index) {
+		return Bits.get(flags, index);
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the specified field has been discovered
+	 *         or revealed
+	 */
+	public boolean isDiscovered(int index) {
+		return Bits.get(discovered, index);
+	}
+	
+	/**
+	 * Mines are placed once the player discovers the first field, so
+	 * until then no field is a mine.
+	 *
+	 * @return {@code true} if the mines have been placed
+	 */
+	public boolean areMinesPlaced() {
+		return minesPlaced;
+	}
+	
+	/**
+	 * @return the generator that places the mines, or {@code null} if
+	 *         the mines were given to this board
+	 */
+	MineGenerator getGenerator() {
+		return generator;
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the field is flagged, but the game has
+	 *         revealed that it is not a mine
+	 */
+	public boolean isWrongFlag(int index) {
+		return Bits.get(discovered, index) && Bits.get(flags, index) && !Bits.get(mines, index);
+	}
+	
+	/**
+	 * @return the fields revealed when the player steps on a mine
+	 */
+	public RevealMode getRevealMode() {
+		return revealMode;
+	}
+	
+	/**
+	 * Sets the fields revealed when the player steps on a mine.
+	 *
+	 * @param revealMode the fields to be revealed
+	 */
+	public void setRevealMode(RevealMode revealMode) {
+		this.revealMode = Objects.requireNonNull(revealMode);
+	}
+	
+	/**
+	 * @return {@code true} if the player has stepped on a mine
+	 */
+	public boolean isExploded() {
+		return explodedField >= 0;
+	}
+	
+	/**
+	 * @return {@code true} if every field that is not a mine has been
+	 *         discovered
+	 */
+	public boolean isWon() {
+		return discoveredCount == FIELD_COUNT - mineCount;
+	}
+	
+	/**
+	 * @return the index of the mine the player has stepped on, or
+	 *         {@code -1} if the player has not stepped on a mine
+	 */
+	public int getExplodedField() {
+		return explodedField;
+	}
+	
+	/**
+	 * Returns the index of the field at the given {@code row} and
+	 * {@code column}.
+	 *
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @return the index of the field
+	 */
+	public int indexOf(int row, int column) {
+		return row * COLUMNS + column;
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return the row of the field with the given index
+	 */
+	public int rowOf(int index) {
+		return index / COLUMNS;
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return the column of the field with the given index
+	 */
+	public int columnOf(int index) {
+		return index % COLUMNS;
+	}
+	
+	//---------------------------------------------------------
+	//				  		  Getters
+	//---------------------------------------------------------
+	
+	/**
+	 * @return the topology of this board
+	 */
+	public Topology getTopology() {
+		return neighbours.TOPOLOGY;
+	}
+	
+	/**
+	 * @return the neighbours of every field of this board
+	 */
+	public Neighbours getNeighbours() {
+		return neighbours;
+	}
+	
+	/**
+	 * @return the number of mines on this field
+	 */
+	public int getMineCount() {
+		return mineCount;
+	}
+	
+	/**
+	 * @return the number of flags on this field
+	 */
+	public int getFlagCount() {
+		return flagCount;
+	}
+	
+	/**
+	 * @return the number of discovered fields on this field
+	 */
+	public int getDiscoveredCount() {
+		return discoveredCount;
+	}
+	
+	/**
+	 * @return the total number of fields on this field
+	 */
+	public int getFieldCount() {
+		return FIELD_COUNT;
+	}
+	
+	//---------------------------------------------------------
+	//				  	Listener registration
+	//---------------------------------------------------------
+	
+	/**
+	 * Adds a new listener to this mine-field.
+	 *
+	 * @param l the listener to be added
+	 */
+	public void addMineFieldListener(MineFieldListener l) {
+		listeners.add(l);
+	}
+	
+	/**
+	 * Removes the given listener from this mine-field.
+	 *
+	 * @param l the listener to be removed
+	 */
+	public void removeMineFieldListener(MineFieldListener l) {
+		listeners.remove(l);
+	}
+	
+	private void notifyListeners(MineFieldEvent event) {
+		long start = Metrics.time();
+		listeners.forEach(l -> l.onMineFieldChange(event));
+		if(Metrics.ENABLED) Metrics.DISPATCH_TIME.recordSince(start);
+	}
+}
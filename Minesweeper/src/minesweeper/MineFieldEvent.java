@@ -0,0 +1,153 @@
+package minesweeper;
+
+/**
+ * Describes a single change of the {@code MineField} caused by one player
+ * action. A single action may change many fields (for example, discovering
+ * a field with no mines around it floods the whole empty area), but the
+ * listeners are notified only once, after the action has been completed.
+ * <p>
+ * Events are immutable.
+ *
+ * @author Filip Nemec
+ */
+public class MineFieldEvent {
+	
+	/**
+	 * The types of the actions that cause the mine-field to change.
+	 */
+	public enum Type {
+		
+		/** One or more fields were discovered. */
+		DISCOVER,
+		
+		/** The neighbours of a number were discovered by chording. */
+		CHORD,
+		
+		/** The flag was placed on the field. */
+		FLAG_PLACE,
+		
+		/** The flag was removed from the field. */
+		FLAG_REMOVE,
+		
+		/** The player stepped on a mine and all the fields were revealed. */
+		EXPLODE
+	}
+	
+	/** The mine-field that changed. */
+	private final MineField source;
+	
+	/** The type of the action. */
+	private final Type type;
+	
+	/** The index of the field the player acted upon. */
+	private final int field;
+	
+	/** The indices of all the fields that changed. */
+	private final int[] changedFields;
+	
+	/** The change of the number of discovered fields. */
+	private final int discoveredDelta;
+	
+	/** The change of the number of flags. */
+	private final int flagDelta;
+	
+	/** The number of discovered fields after the change. */
+	private final int discoveredCount;
+	
+	/** The number of flags after the change. */
+	private final int flagCount;
+	
+	/**
+	 * Constructs a new event.
+	 *
+	 * @param source the mine-field that changed
+	 * @param type the type of the action
+	 * @param field the index of the field the player acted upon
+	 * @param changedFields the indices of all the fields that changed; the
+	 *        array is not copied and must not be modified afterwards
+	 * @param discoveredDelta the change of the number of discovered fields
+	 * @param flagDelta the change of the number of flags
+	 */
+	public MineFieldEvent(MineField source, Type type, int field, int[] changedFields, int discoveredDelta, int flagDelta) {
+		this.source = source;
+		this.type = type;
+		this.field = field;
+		this.changedFields = changedFields;
+		this.discoveredDelta = discoveredDelta;
+		this.flagDelta = flagDelta;
+		this.discoveredCount = source.getDiscoveredCount();
+		this.flagCount = source.getFlagCount();
+	}
+	
+	/**
+	 * @return the mine-field that changed
+	 */
+	public MineField getSource() {
+		return source;
+	}
+	
+	/**
+	 * @return the type of the action
+	 */
+	public Type getType() {
+		return type;
+	}
+	
+	/**
+	 * @return the index of the field the player acted upon
+	 */
+	public int getField() {
+		return field;
+	}
+	
+	/**
+	 * @return the number of fields that changed
+	 */
+	public int getChangedFieldCount() {
+		return changedFields.length;
+	}
+	
+	/**
+	 * Returns the index of the {@code i}-th changed field. For discovering,
+	 * the fields are ordered in the order they were discovered in.
+	 *
+	 * @param i the position in the list of changed fields
+	 * @return the index of the changed field
+	 */
+	public int getChangedField(int i) {
+		return changedFields[i];
+	}
+	
+	/**
+	 * @return the change of the number of discovered fields
+	 */
+	public int getDiscoveredDelta() {
+		return discoveredDelta;
+	}
+	
+	/**
+	 * @return the change of the number of flags
+	 */
+	public int getFlagDelta() {
+		return flagDelta;
+	}
+	
+	/**
+	 * @return the number of discovered fields after the change
+	 */
+	public int getDiscoveredCount() {
+		return discoveredCount;
+	}
+	
+	/**
+	 * @return the number of flags after the change
+	 */
+	public int getFlagCount() {
+		return flagCount;
+	}
+	
+	@Override
+	public String toString() {
+		return type + "(" + field + ", changed " + changedFields.length + ")";
+	}
+}
@@ -0,0 +1,18 @@
+package minesweeper;
+
+/**
+ * Models objects that keep track of the changes happening on the
+ * {@code MineField} model.
+ *
+ * @author Filip Nemec
+ */
+public interface MineFieldListener {
+	
+	/**
+	 * Invoked once per player action, after the action has been
+	 * completed and the mine-field has changed.
+	 *
+	 * @param event the description of the change
+	 */
+	void onMineFieldChange(MineFieldEvent event);
+}
@@ -0,0 +1,54 @@
+package minesweeper;
+
+/**
+ * Models objects that decide where the mines are placed on the board.
+ *
+ * @author Filip Nemec
+ */
+public interface MineGenerator {
+	
+	/** Passed as the safe field if no field has to be kept safe. */
+	int NO_SAFE_FIELD = -1;
+	
+	/**
+	 * Generates the mine layout. The given safe field is never a mine, and
+	 * neither are its neighbours, unless there are too few fields left for
+	 * all of the mines to fit.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mineCount the number of mines
+	 * @param safeField the index of the field that has to be kept safe,
+	 *        usually the first field the player clicks on, or
+	 *        {@link #NO_SAFE_FIELD}
+	 * @return the bit-set of the fields that are mines, as used by
+	 *         {@code MineField}
+	 */
+	default long[] generate(int rows, int columns, int mineCount, int safeField) {
+		return generate(Topology.SQUARE, rows, columns, mineCount, safeField);
+	}
+	
+	/**
+	 * Generates the mine layout of a board of the given topology, which
+	 * decides the neighbours of the safe field.
+	 *
+	 * @param topology the topology of the board
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mineCount the number of mines
+	 * @param safeField the index of the field that has to be kept safe,
+	 *        or {@link #NO_SAFE_FIELD}
+	 * @return the bit-set of the fields that are mines
+	 * @see #generate(int, int, int, int)
+	 */
+	long[] generate(Topology topology, int rows, int columns, int mineCount, int safeField);
+	
+	/**
+	 * Returns the seed of the last generated layout: a
+	 * {@link RandomMineGenerator} with this seed generates the very same
+	 * layout for the same board and safe field.
+	 *
+	 * @return the seed of the last layout
+	 */
+	long getSeed();
+}
@@ -0,0 +1,89 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * The probability of a mine on every undiscovered field of a board, as
+ * computed by a {@link ProbabilityEngine} from what the player can see.
+ * <p>
+ * Only the fields of the frontier, the undiscovered fields next to a
+ * discovered one, have a probability of their own. All of the other
+ * undiscovered fields are alike, and share a single probability. The
+ * probabilities are immutable, and can be handed between threads freely.
+ *
+ * @author Filip Nemec
+ */
+public final class MineProbabilities {
+	
+	/** The indices of the fields of the frontier, in an ascending order. */
+	private final int[] fields;
+	
+	/** The probability of a mine on every field of the frontier. */
+	private final float[] probabilities;
+	
+	/** The probability of a mine on the undiscovered fields outside of the frontier. */
+	private final float outside;
+	
+	/** Whether the probabilities are exact. */
+	private final boolean exact;
+	
+	/**
+	 * Creates new probabilities.
+	 *
+	 * @param fields the indices of the fields of the frontier, in an
+	 *        ascending order
+	 * @param probabilities the probability of a mine on every field of the
+	 *        frontier
+	 * @param outside the probability of a mine on the undiscovered fields
+	 *        outside of the frontier
+	 * @param exact whether the probabilities are exact
+	 */
+	MineProbabilities(int[] fields, float[] probabilities, float outside, boolean exact) {
+		this.fields = fields;
+		this.probabilities = probabilities;
+		this.outside = outside;
+		this.exact = exact;
+	}
+	
+	/**
+	 * Returns the probability of a mine on the given field. The result is
+	 * meaningless for the fields that have been discovered.
+	 *
+	 * @param index the index of an undiscovered field
+	 * @return the probability of a mine on the field
+	 */
+	public float get(int index) {
+		int position = Arrays.binarySearch(fields, index);
+		return position >= 0 ? probabilities[position] : outside;
+	}
+	
+	/**
+	 * @return the probability of a mine on the undiscovered fields outside
+	 *         of the frontier
+	 */
+	public float getOutside() {
+		return outside;
+	}
+	
+	/**
+	 * @return the number of fields of the frontier
+	 */
+	public int getFrontierSize() {
+		return fields.length;
+	}
+	
+	/**
+	 * Returns {@code false} if any part of the frontier was too large to be
+	 * enumerated, and its probabilities have been estimated instead.
+	 *
+	 * @return whether the probabilities are exact
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+	
+	@Override
+	public String toString() {
+		return "MineProbabilities[" + fields.length + " frontier fields, outside " + outside + (exact ? ", exact]" : ", estimated]");
+	}
+}
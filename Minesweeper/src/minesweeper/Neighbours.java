@@ -0,0 +1,220 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The neighbours of every field of the boards of one shape and
+ * {@link Topology}, as a compressed sparse row table.
+ * <p>
+ * A table with a slice of neighbour indices for every field would take
+ * several times the memory of the board itself. Instead, the fields are
+ * grouped into patterns: all of the fields of a pattern have their
+ * neighbours at the same distances from themselves, so a slice of index
+ * offsets is kept only once per pattern. The pattern of a field is the
+ * sum of the keys of its row and its column, so the table takes memory
+ * proportional to the number of rows and columns only.
+ * <p>
+ * The neighbours of a field are visited with no bounds checks at all:
+ * <pre>
+ * int pattern = neighbours.pattern(index);
+ * for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i &lt; end; i++) {
+ *     int neighbour = index + neighbours.offset(i);
+ *     ...
+ * }
+ * </pre>
+ * The neighbours of every field are visited in an ascending order of
+ * their indices, and the field itself is never among them.
+ * <p>
+ * Tables are immutable and are shared by all of the boards of the same
+ * shape, see {@link Topology#neighbours(int, int)}.
+ *
+ * @author Filip Nemec
+ */
+public final class Neighbours {
+	
+	/** The topology the table was built for. */
+	public final Topology TOPOLOGY;
+	
+	/** The number of rows. */
+	public final int ROWS;
+	
+	/** The number of columns. */
+	public final int COLUMNS;
+	
+	/** The offsets of the neighbours of all of the patterns, back to back. */
+	private final int[] offsets;
+	
+	/** The start of the slice of every pattern in the offsets, and the end of the last one. */
+	private final int[] starts;
+	
+	/** The first pattern of every row. */
+	private final int[] rowPatterns;
+	
+	/** The pattern of every column, relative to the first pattern of its row. */
+	private final int[] columnPatterns;
+	
+	/** The largest number of neighbours of any field. */
+	private final int maxNeighbours;
+	
+	/**
+	 * Builds the table by finding the neighbours of a single field of
+	 * every pattern the slow way.
+	 *
+	 * @param topology the topology of the boards
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 */
+	Neighbours(Topology topology, int rows, int columns) {
+		this.TOPOLOGY = topology;
+		this.ROWS = rows;
+		this.COLUMNS = columns;
+		
+		int[] rowKeys = new int[rows];
+		int[] columnKeys = new int[columns];
+		int[] firstRow = denseKeys(rowKeys, r -> topology.rowKey(rows, columns, r));
+		int[] firstColumn = denseKeys(columnKeys, c -> topology.columnKey(rows, columns, c));
+		
+		this.rowPatterns = new int[rows];
+		this.columnPatterns = columnKeys;
+		
+		for(int r = 0; r < rows; r++) {
+			rowPatterns[r] = rowKeys[r] * firstColumn.length;
+		}
+		
+		int patterns = firstRow.length * firstColumn.length;
+		int[] found = new int[Topology.MAX_NEIGHBOURS];
+		
+		this.starts = new int[patterns + 1];
+		int[] offsets = new int[patterns * Topology.MAX_NEIGHBOURS];
+		int size = 0;
+		int max = 0;
+		
+		for(int p = 0; p < patterns; p++) {
+			int row = firstRow[p / firstColumn.length];
+			int column = firstColumn[p % firstColumn.length];
+			int index = row * columns + column;
+			
+			int count = topology.neighbours(rows, columns, row, column, found);
+			Arrays.sort(found, 0, count);
+			
+			starts[p] = size;
+			for(int i = 0; i < count; i++) {
+				if(found[i] == index || i > 0 && found[i] == found[i - 1]) continue;
+				offsets[size++] = found[i] - index;
+			}
+			
+			max = Math.max(max, size - starts[p]);
+		}
+		
+		this.starts[patterns] = size;
+		this.offsets = Arrays.copyOf(offsets, size);
+		this.maxNeighbours = max;
+	}
+	
+	/**
+	 * Replaces the keys of the rows or columns with dense numbers from 0,
+	 * in the order the keys first appear.
+	 *
+	 * @param keys receives the dense number of every row or column
+	 * @param key computes the key of a row or column
+	 * @return the first row or column with each of the dense numbers
+	 */
+	private static int[] denseKeys(int[] keys, IntUnaryOperator key) {
+		int[] dense = new int[16];
+		int[] first = new int[16];
+		int count = 0;
+		
+		Arrays.fill(dense, -1);
+		
+		for(int i = 0; i < keys.length; i++) {
+			int k = key.applyAsInt(i);
+			
+			if(dense[k] < 0) {
+				dense[k] = count;
+				first[count++] = i;
+			}
+			
+			keys[i] = dense[k];
+		}
+		
+		return Arrays.copyOf(first, count);
+	}
+	
+	//------------------------------------------------------------
+	//						   Lookup
+	//------------------------------------------------------------
+	
+	/**
+	 * @param index the index of the field
+	 * @return the pattern of the field
+	 */
+	public int pattern(int index) {
+		return rowPatterns[index / COLUMNS] + columnPatterns[index % COLUMNS];
+	}
+	
+	/**
+	 * @param pattern the pattern
+	 * @return the position of the first neighbour of the pattern
+	 */
+	public int from(int pattern) {
+		return starts[pattern];
+	}
+	
+	/**
+	 * @param pattern the pattern
+	 * @return the position after the last neighbour of the pattern
+	 */
+	public int to(int pattern) {
+		return starts[pattern + 1];
+	}
+	
+	/**
+	 * @param position the position of the neighbour
+	 * @return the difference between the index of the neighbour and the
+	 *         index of the field
+	 */
+	public int offset(int position) {
+		return offsets[position];
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return the number of neighbours of the field
+	 */
+	public int count(int index) {
+		int pattern = pattern(index);
+		return starts[pattern + 1] - starts[pattern];
+	}
+	
+	/**
+	 * @return the largest number of neighbours of any field
+	 */
+	public int getMaxNeighbours() {
+		return maxNeighbours;
+	}
+	
+	/**
+	 * Returns the neighbours of the given field. Meant for the code that
+	 * is not performance critical; the loops over many fields should
+	 * walk the table directly.
+	 *
+	 * @param index the index of the field
+	 * @return the indices of the neighbours, in an ascending order
+	 */
+	public int[] of(int index) {
+		int pattern = pattern(index);
+		int[] neighbours = new int[starts[pattern + 1] - starts[pattern]];
+		
+		for(int i = 0; i < neighbours.length; i++) {
+			neighbours[i] = index + offsets[starts[pattern] + i];
+		}
+		
+		return neighbours;
+	}
+	
+	@Override
+	public String toString() {
+		return "Neighbours[" + TOPOLOGY.name() + ", " + ROWS + "x" + COLUMNS + ", " + (starts.length - 1) + " patterns]";
+	}
+}
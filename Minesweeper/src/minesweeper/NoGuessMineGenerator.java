@@ -0,0 +1,223 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates boards that can be solved from the first click without ever
+ * having to guess.
+ * <p>
+ * Candidate layouts are generated uniformly at random and each one is
+ * played out by the {@link Solver}, which only ever discovers provably
+ * safe fields. The first candidate the solver clears completely is used.
+ * Every candidate is generated by a {@link RandomMineGenerator} with a seed
+ * of its own, and the seed of the chosen one is kept, so the board can
+ * later be generated again without searching.
+ * Candidates are tried on all of the cores at once, and the remaining
+ * attempts are cancelled as soon as one of them succeeds.
+ * <p>
+ * The share of solvable candidates drops quickly with the mine density,
+ * so the search is limited by a time budget. If the budget runs out, a
+ * plain random layout is used instead, and {@link #isLastGuaranteed()}
+ * reports that the board may need guessing.
+ *
+ * @author Filip Nemec
+ */
+public class NoGuessMineGenerator implements MineGenerator {
+	
+	/** The system property holding the time budget of the generators created with the default one, in milliseconds. */
+	public static final String TIME_BUDGET_PROPERTY = "minesweeper.noguess.budget";
+	
+	/** The time budget used unless the {@value #TIME_BUDGET_PROPERTY} property is set, in milliseconds. */
+	public static final long DEFAULT_TIME_BUDGET = 2000;
+	
+	/** The number of threads the candidates are tried on. */
+	private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+	
+	/** The shared executor the candidates are tried on. */
+	private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(PARALLELISM, r -> {
+		Thread thread = new Thread(r, "no-guess-generator");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/** The source of the seeds of the candidates. */
+	private final SplittableRandom random;
+	
+	/** The time budget, in milliseconds. */
+	private final long timeBudget;
+	
+	/** The number of candidates tried during the last generation. */
+	private long lastAttempts;
+	
+	/** The duration of the last generation, in nanoseconds. */
+	private long lastDuration;
+	
+	/** Flag indicating whether the last board is guaranteed to need no guessing. */
+	private boolean lastGuaranteed;
+	
+	/** The seed of the last board. */
+	private long lastSeed;
+	
+	/**
+	 * Creates a new generator with an unpredictable source of randomness
+	 * and the time budget of the {@value #TIME_BUDGET_PROPERTY} property,
+	 * or the default one if it is not set.
+	 */
+	public NoGuessMineGenerator() {
+		this(new SplittableRandom(), Long.getLong(TIME_BUDGET_PROPERTY, DEFAULT_TIME_BUDGET));
+	}
+	
+	/**
+	 * Creates a new generator.
+	 *
+	 * @param random the source of the seeds of the candidates
+	 * @param timeBudget the longest time a single generation may take,
+	 *        in milliseconds
+	 */
+	public NoGuessMineGenerator(SplittableRandom random, long timeBudget) {
+		this.random = random;
+		this.timeBudget = timeBudget;
+	}
+	
+	@Override
+	public long[] generate(Topology topology, int rows, int columns, int mineCount, int safeField) {
+		if(safeField == NO_SAFE_FIELD) {
+			throw new IllegalArgumentException("The board can only be checked from the first click.");
+		}
+		
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudget);
+		LongAdder attempts = new LongAdder();
+		AtomicBoolean found = new AtomicBoolean();
+		List<Callable<Long>> tasks = new ArrayList<>(PARALLELISM);
+		
+		for(int i = 0; i < PARALLELISM; i++) {
+			SplittableRandom seeds = random.split();
+			
+			tasks.add(() -> {
+				while(!found.get() && !Thread.currentThread().isInterrupted() && System.nanoTime() < deadline) {
+					long seed = seeds.nextLong();
+					long[] mines = new RandomMineGenerator(seed).generate(topology, rows, columns, mineCount, safeField);
+					attempts.increment();
+					
+					if(isSolvable(topology, rows, columns, mines, safeField)) {
+						found.set(true);
+						return seed;
+					}
+				}
+				
+				throw new TimeoutException("No solvable board found in time.");
+			});
+		}
+		
+		try {
+			lastSeed = EXECUTOR.invokeAny(tasks, timeBudget, TimeUnit.MILLISECONDS);
+			lastGuaranteed = true;
+			
+		} catch(ExecutionException | TimeoutException ex) {
+			lastSeed = random.nextLong();
+			lastGuaranteed = false;
+			
+		} catch(InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			lastSeed = random.nextLong();
+			lastGuaranteed = false;
+			
+		} finally {
+			found.set(true);
+		}
+		
+		lastAttempts = attempts.sum();
+		lastDuration = System.nanoTime() - start;
+		
+		return new RandomMineGenerator(lastSeed).generate(topology, rows, columns, mineCount, safeField);
+	}
+	
+	/**
+	 * @return the seed of the last board, solvable or not
+	 */
+	@Override
+	public long getSeed() {
+		return lastSeed;
+	}
+	
+	/**
+	 * Plays the board out with the solver, starting from the safe field.
+	 *
+	 * @param topology the topology of the board
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the mine layout
+	 * @param safeField the index of the first field the player clicks on
+	 * @return {@code true} if the solver discovers every field that is not
+	 *         a mine
+	 */
+	static boolean isSolvable(Topology topology, int rows, int columns, long[] mines, int safeField) {
+		MineField field = new MineField(rows, columns, mines, topology);
+		Solver solver = new Solver(field);
+		field.toggleField(field.rowOf(safeField), field.columnOf(safeField));
+		
+		for(int index = solver.nextSafeField(); index >= 0; index = solver.nextSafeField()) {
+			field.toggleField(field.rowOf(index), field.columnOf(index));
+		}
+		
+		return field.getDiscoveredCount() == field.FIELD_COUNT - field.getMineCount();
+	}
+	
+	//------------------------------------------------------------
+	//						  Statistics
+	//------------------------------------------------------------
+	
+	/**
+	 * @return the longest time a single generation may take, in milliseconds
+	 */
+	public long getTimeBudget() {
+		return timeBudget;
+	}
+	
+	/**
+	 * @return the number of candidates tried during the last generation
+	 */
+	public long getLastAttempts() {
+		return lastAttempts;
+	}
+	
+	/**
+	 * @return the duration of the last generation, in milliseconds
+	 */
+	public double getLastDuration() {
+		return lastDuration / 1e6;
+	}
+	
+	/**
+	 * @return the number of candidates tried per second during the last
+	 *         generation
+	 */
+	public double getAttemptsPerSecond() {
+		return lastDuration == 0 ? 0 : lastAttempts * 1e9 / lastDuration;
+	}
+	
+	/**
+	 * @return {@code true} if the last board is guaranteed to be solvable
+	 *         without guessing, {@code false} if the time budget ran out
+	 */
+	public boolean isLastGuaranteed() {
+		return lastGuaranteed;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("No-guess generator: %d attempts in %.1f ms (%.0f attempts/s)%s",
+				lastAttempts, getLastDuration(), getAttemptsPerSecond(), lastGuaranteed ? "" : ", not guaranteed");
+	}
+}
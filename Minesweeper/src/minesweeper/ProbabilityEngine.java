@@ -0,0 +1,894 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Computes the probability of a mine on every undiscovered field of a
+ * game, from nothing but what the player can see.
+ * <p>
+ * The engine listens to the change sets of a {@link GameEngine} and keeps a
+ * copy of the states of the fields of its own. All of the work is done on
+ * a thread of its own: the event dispatch thread only queues the change
+ * sets, and gets the probabilities back with {@code invokeLater}, so the
+ * input is never held up by the computation. A move made while the
+ * probabilities are being computed makes them stale; the computation is
+ * abandoned, and the probabilities are computed again from the newer
+ * state. Flags are ignored, since the player may well be wrong about them.
+ * <p>
+ * The frontier, kept up to date as the fields are discovered, is split into
+ * independent components like the {@link Solver} splits it, and every
+ * component is weighed by the number of mines of its solutions, see
+ * {@link FrontierComponent}. The weights of the components that have not
+ * changed since the last move are reused. The components are then
+ * combined, every combination of their numbers of mines weighed by the
+ * number of ways the rest of the mines can be placed on the undiscovered
+ * fields outside of the frontier. The probabilities of the few components
+ * that can be neither enumerated nor sampled are estimated from their
+ * numbers alone.
+ *
+ * @author Filip Nemec
+ */
+public class ProbabilityEngine implements ChangeSetListener {
+	
+	/** The largest number of partial assignments enumerated for a single component. */
+	private static final long MAX_ENUMERATION_STEPS = 1 << 16;
+	
+	/** The largest number of weights of partial assignments counted to sample a single component. */
+	private static final long MAX_SAMPLING_STATES = 1 << 18;
+	
+	/** The number of samples taken of a component that can not be enumerated. */
+	private static final int SAMPLES = 1000;
+	
+	/**
+	 * The largest number of steps of combining the components exactly;
+	 * more components are combined as if they were independent.
+	 */
+	private static final long MAX_COMBINATION_STEPS = 1 << 24;
+	
+	/** The stack size of the thread, deep enough to enumerate the largest components. */
+	private static final long STACK_SIZE = 16 << 20;
+	
+	/** The logarithms of the factorials of the small numbers. */
+	private static final double[] LOG_FACTORIALS = new double[256];
+	
+	static {
+		for(int n = 2; n < LOG_FACTORIALS.length; n++) {
+			LOG_FACTORIALS[n] = LOG_FACTORIALS[n - 1] + Math.log(n);
+		}
+	}
+	
+	/** The engine of the game. */
+	private final GameEngine engine;
+	
+	/** The neighbour table of the board. */
+	private final Neighbours neighbours;
+	
+	/** The number of mines. */
+	private final int mineCount;
+	
+	/** The thread the probabilities are computed on. */
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(null, r, "probabilities", STACK_SIZE);
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/** The number of the change sets queued so far; a computation of an older one is stale. */
+	private final AtomicLong version = new AtomicLong();
+	
+	/** The state of every field, touched only by the thread of the engine. */
+	private final byte[] states;
+	
+	/** The number of undiscovered fields, flagged or not, kept up to date with the states. */
+	private int unknownCount;
+	
+	/** The undiscovered fields next to a discovered one, and some that are discovered by now. */
+	private IntList frontier = new IntList();
+	
+	/** The bit-set of the fields in the frontier list. */
+	private final long[] inFrontier;
+	
+	/** The bit-set of the fields visited while splitting the frontier into components. */
+	private final long[] visited;
+	
+	/** The weighed components of the recent computations. */
+	private Map<ComponentKey, FrontierComponent> components = new HashMap<>();
+	
+	/** Draws the samples of the large components. */
+	private final SplittableRandom random = new SplittableRandom();
+	
+	/** Flag indicating whether the game is over. */
+	private boolean finished;
+	
+	/** The latest probabilities, as seen by the event dispatch thread. */
+	private MineProbabilities probabilities;
+	
+	/** A list of all the listeners. */
+	private List<ProbabilityListener> listeners = new LinkedList<>();
+	
+	/**
+	 * Creates a new engine for the given game and starts computing the
+	 * probabilities of its current state. Must be called on the event
+	 * dispatch thread.
+	 *
+	 * @param engine the engine of the game
+	 */
+	public ProbabilityEngine(GameEngine engine) {
+		this.engine = engine;
+		this.neighbours = engine.getNeighbours();
+		this.mineCount = engine.getMineCount();
+		this.states = engine.copyStates();
+		this.inFrontier = Bits.create(states.length);
+		this.visited = Bits.create(states.length);
+		this.finished = engine.isExploded();
+		
+		long current = version.incrementAndGet();
+		executor.execute(() -> {
+			for(int i = 0; i < states.length; i++) {
+				if(isUnknown(states[i])) {
+					unknownCount++;
+				} else if(FieldState.isDiscovered(states[i])) {
+					addNeighbours(i);
+				}
+			}
+			
+			update(current);
+		});
+		
+		engine.addChangeSetListener(this);
+	}
+	
+	/**
+	 * Stops computing the probabilities, abandoning the computation in
+	 * progress. Must be called on the event dispatch thread.
+	 */
+	public void dispose() {
+		engine.removeChangeSetListener(this);
+		version.incrementAndGet();
+		executor.shutdown();
+	}
+	
+	//------------------------------------------------------------
+	//						  Moves
+	//------------------------------------------------------------
+	
+	@Override
+	public void onChange(ChangeSet changes) {
+		boolean revealing = false;
+		
+		for(int i = 0, n = changes.getChangedFieldCount(); i < n && !revealing; i++) {
+			revealing = !isUnknown(changes.getState(i));
+		}
+		
+		if(!revealing) return;
+		
+		long current = version.incrementAndGet();
+		executor.execute(() -> {
+			for(int i = 0, n = changes.getChangedFieldCount(); i < n; i++) {
+				int index = changes.getChangedField(i);
+				byte state = changes.getState(i);
+				
+				if(isUnknown(states[index]) && !isUnknown(state)) unknownCount--;
+				states[index] = state;
+				if(FieldState.isDiscovered(state)) {
+					addNeighbours(index);
+				} else if(!isUnknown(state)) {
+					finished = true;
+				}
+			}
+			
+			update(current);
+		});
+	}
+	
+	/**
+	 * Computes and publishes the probabilities, unless there is a newer
+	 * change set queued already.
+	 *
+	 * @param current the version of the state
+	 */
+	private void update(long current) {
+		if(version.get() != current) return;
+		
+		if(finished) {
+			publish(null, current);
+			return;
+		}
+		
+		long start = Metrics.time();
+		MineProbabilities result = compute(() -> version.get() != current);
+		
+		if(result != null) {
+			if(Metrics.ENABLED) Metrics.PROBABILITY_TIME.recordSince(start);
+			publish(result, current);
+		}
+	}
+	
+	/**
+	 * Hands the probabilities over to the event dispatch thread, where
+	 * they are dropped if a newer change set has been queued meanwhile.
+	 *
+	 * @param result the probabilities
+	 * @param current the version of the state they were computed for
+	 */
+	private void publish(MineProbabilities result, long current) {
+		SwingUtilities.invokeLater(() -> {
+			if(version.get() != current) return;
+			
+			probabilities = result;
+			listeners.forEach(l -> l.onProbabilities(result));
+		});
+	}
+	
+	/**
+	 * Adds the undiscovered neighbours of the discovered field to the
+	 * frontier.
+	 *
+	 * @param index the index of the field
+	 */
+	private void addNeighbours(int index) {
+		int pattern = neighbours.pattern(index);
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			int neighbour = index + neighbours.offset(i);
+			
+			if(isUnknown(states[neighbour]) && !Bits.get(inFrontier, neighbour)) {
+				Bits.set(inFrontier, neighbour);
+				frontier.add(neighbour);
+			}
+		}
+	}
+	
+	/**
+	 * @param state the state of a field
+	 * @return {@code true} if the field has not been discovered, flagged or
+	 *         not
+	 */
+	private static boolean isUnknown(byte state) {
+		return state == FieldState.UNDISCOVERED || state == FieldState.FLAGGED;
+	}
+	
+	//------------------------------------------------------------
+	//						 Computation
+	//------------------------------------------------------------
+	
+	/**
+	 * Computes the probabilities of the current state.
+	 *
+	 * @param cancelled checked between the components
+	 * @return the probabilities, or {@code null} if the computation has
+	 *         been cancelled
+	 */
+	private MineProbabilities compute(BooleanSupplier cancelled) {
+		IntList remaining = new IntList(frontier.size());
+		for(int i = 0; i < frontier.size(); i++) {
+			int index = frontier.get(i);
+			
+			if(isUnknown(states[index])) {
+				remaining.add(index);
+			} else {
+				Bits.clear(inFrontier, index);
+			}
+		}
+		frontier = remaining;
+		
+		Map<ComponentKey, FrontierComponent> weighed = new HashMap<>();
+		List<FrontierComponent> solved = new ArrayList<>();
+		IntList unsolved = new IntList();
+		
+		double lambda = (mineCount + 0.5) / (unknownCount - mineCount + 0.5);
+		
+		for(int i = 0; i < frontier.size(); i++) {
+			int start = frontier.get(i);
+			if(Bits.get(visited, start)) continue;
+			
+			if(cancelled.getAsBoolean()) {
+				clearVisited();
+				components.putAll(weighed);
+				return null;
+			}
+			
+			ComponentKey key = split(start);
+			FrontierComponent component = components.get(key);
+			
+			if(component == null) {
+				component = key.toComponent(neighbours);
+				
+				if(!component.weigh(MAX_ENUMERATION_STEPS)
+						&& !component.sample(lambda, SAMPLES, random, MAX_SAMPLING_STATES, cancelled)
+						&& cancelled.getAsBoolean()) {
+					clearVisited();
+					components.putAll(weighed);
+					return null;
+				}
+			}
+			
+			weighed.put(key, component);
+			
+			if(component.ways != null) {
+				solved.add(component);
+			} else {
+				for(int field : component.fields) unsolved.add(field);
+			}
+		}
+		
+		clearVisited();
+		components = weighed;
+		
+		return combine(solved, unsolved, unknownCount, lambda);
+	}
+	
+	/**
+	 * Collects the component of the frontier the given field is in, with
+	 * all of the discovered fields next to it.
+	 *
+	 * @param start an undiscovered field of the frontier
+	 * @return the key of the component
+	 */
+	private ComponentKey split(int start) {
+		IntList fields = new IntList();
+		IntList constraints = new IntList();
+		IntList queue = new IntList();
+		
+		Bits.set(visited, start);
+		queue.add(start);
+		
+		for(int head = 0; head < queue.size(); head++) {
+			int index = queue.get(head);
+			boolean unknown = isUnknown(states[index]);
+			(unknown ? fields : constraints).add(index);
+			
+			int pattern = neighbours.pattern(index);
+			
+			for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+				int neighbour = index + neighbours.offset(i);
+				if(Bits.get(visited, neighbour)) continue;
+				
+				if(unknown ? FieldState.isDiscovered(states[neighbour]) : isUnknown(states[neighbour])) {
+					Bits.set(visited, neighbour);
+					queue.add(neighbour);
+				}
+			}
+		}
+		
+		int[] fieldArray = fields.toArray();
+		int[] constraintArray = constraints.toArray();
+		Arrays.sort(fieldArray);
+		Arrays.sort(constraintArray);
+		
+		int[] values = new int[constraintArray.length];
+		for(int i = 0; i < values.length; i++) {
+			values[i] = states[constraintArray[i]];
+		}
+		
+		return new ComponentKey(fieldArray, constraintArray, values);
+	}
+	
+	/**
+	 * Clears the bits of all of the fields visited while splitting the
+	 * frontier, the frontier itself and the discovered fields next to it.
+	 */
+	private void clearVisited() {
+		for(int i = 0; i < frontier.size(); i++) {
+			int index = frontier.get(i);
+			Bits.clear(visited, index);
+			
+			int pattern = neighbours.pattern(index);
+			for(int j = neighbours.from(pattern), end = neighbours.to(pattern); j < end; j++) {
+				Bits.clear(visited, index + neighbours.offset(j));
+			}
+		}
+	}
+	
+	//------------------------------------------------------------
+	//					   Combining components
+	//------------------------------------------------------------
+	
+	/**
+	 * Combines the weights of the components into the probabilities.
+	 *
+	 * @param solved the weighed components
+	 * @param unsolved the fields of the components that could not be weighed
+	 * @param unknownCount the number of undiscovered fields
+	 * @param lambda the odds of a mine on an undiscovered field, the weights
+	 *        are tilted by to keep them in the range of a {@code double}
+	 * @return the probabilities
+	 */
+	private MineProbabilities combine(List<FrontierComponent> solved, IntList unsolved, int unknownCount, double lambda) {
+		double logLambda = Math.log(lambda);
+		int outsideCount = unknownCount;
+		int fixedMines = 0;
+		boolean exact = unsolved.isEmpty();
+		
+		List<double[]> tilted = new ArrayList<>();
+		
+		for(FrontierComponent component : solved) {
+			outsideCount -= component.size();
+			fixedMines += component.minMines;
+			exact &= component.exact;
+			
+			if(component.ways.length > 1) tilted.add(tilt(component.ways, logLambda));
+		}
+		
+		int range = 1;
+		long steps = 0;
+		
+		for(double[] weights : tilted) {
+			range += weights.length - 1;
+		}
+		
+		for(double[] weights : tilted) {
+			steps += 3L * range * weights.length;
+		}
+		
+		double[] outsideWeights = new double[range];
+		double max = Double.NEGATIVE_INFINITY;
+		
+		for(int t = 0; t < range; t++) {
+			outsideWeights[t] = logChoose(outsideCount, mineCount - fixedMines - t) - (fixedMines + t) * logLambda;
+			max = Math.max(max, outsideWeights[t]);
+		}
+		
+		for(int t = 0; t < range; t++) {
+			outsideWeights[t] = max == Double.NEGATIVE_INFINITY ? 1 : Math.exp(outsideWeights[t] - max);
+		}
+		
+		List<double[]> others = null;
+		double expectedMines = Double.NaN;
+		
+		if(steps <= MAX_COMBINATION_STEPS) {
+			others = new ArrayList<>();
+			expectedMines = convolve(tilted, outsideWeights, others);
+		}
+		
+		if(Double.isNaN(expectedMines)) {
+			others = new ArrayList<>();
+			expectedMines = approximate(tilted, outsideCount, fixedMines, logLambda, others);
+			exact = false;
+		}
+		
+		long[] sorted = new long[unknownCount - outsideCount + unsolved.size()];
+		double[] single = {1};
+		int count = 0;
+		int position = 0;
+		
+		for(FrontierComponent component : solved) {
+			boolean varies = component.ways.length > 1;
+			double[] weights = varies ? tilted.get(position) : single;
+			double[] other = varies ? others.get(position++) : single;
+			double[] scale = new double[weights.length];
+			double total = 0;
+			
+			for(int j = 0; j < weights.length; j++) {
+				if(weights[j] == 0) continue;
+				
+				scale[j] = weights[j] * other[j] / component.ways[j];
+				total += weights[j] * other[j];
+			}
+			
+			for(int i = 0; i < component.size(); i++) {
+				double mine = 0;
+				
+				for(int j = 0; j < weights.length; j++) {
+					double[] fieldWays = component.fieldWays[j];
+					if(fieldWays != null) mine += fieldWays[i] * scale[j];
+				}
+				
+				sorted[count++] = pack(component.fields[i], total > 0 ? mine / total : 0);
+			}
+		}
+		
+		for(int i = 0; i < unsolved.size(); i++) {
+			sorted[count++] = pack(unsolved.get(i), estimate(unsolved.get(i)));
+		}
+		
+		Arrays.sort(sorted, 0, count);
+		
+		int[] fields = new int[count];
+		float[] values = new float[count];
+		
+		for(int i = 0; i < count; i++) {
+			fields[i] = (int) (sorted[i] >>> 32);
+			values[i] = Float.intBitsToFloat((int) sorted[i]);
+		}
+		
+		int outside = outsideCount - unsolved.size();
+		double outsideMines = mineCount - fixedMines - expectedMines;
+		float outsideProbability = outside <= 0 ? 0 : (float) Math.min(1, Math.max(0, outsideMines / outsideCount));
+		
+		return new MineProbabilities(fields, values, outsideProbability, exact);
+	}
+	
+	/**
+	 * Combines the components exactly: the weights of all of the numbers
+	 * of mines of the rest of the components are found for every component,
+	 * by convolving the weights of the components before it and after it.
+	 *
+	 * @param tilted the tilted weights of the components
+	 * @param outsideWeights the tilted weight of every total number of
+	 *        mines of the components
+	 * @param others receives the weights of the rest of the components and
+	 *        the outside, for every number of mines of every component
+	 * @return the expected number of mines of the frontier, above the
+	 *         smallest one, or {@code NaN} if the weights have no
+	 *         combination in common
+	 */
+	private static double convolve(List<double[]> tilted, double[] outsideWeights, List<double[]> others) {
+		int n = tilted.size();
+		double[][] suffixes = new double[n + 1][];
+		suffixes[n] = new double[] {1};
+		
+		for(int c = n - 1; c >= 0; c--) {
+			suffixes[c] = convolve(tilted.get(c), suffixes[c + 1]);
+		}
+		
+		double[] prefix = {1};
+		
+		for(int c = 0; c < n; c++) {
+			double[] weights = tilted.get(c);
+			double[] suffix = suffixes[c + 1];
+			double[] rest = new double[prefix.length + weights.length - 1];
+			
+			for(int t = 0; t < rest.length; t++) {
+				double sum = 0;
+				for(int b = 0; b < suffix.length; b++) {
+					sum += suffix[b] * outsideWeights[t + b];
+				}
+				rest[t] = sum;
+			}
+			
+			double[] other = new double[weights.length];
+			for(int j = 0; j < other.length; j++) {
+				double sum = 0;
+				for(int a = 0; a < prefix.length; a++) {
+					sum += prefix[a] * rest[a + j];
+				}
+				other[j] = sum;
+			}
+			
+			if(!normalize(other)) return Double.NaN;
+			others.add(other);
+			
+			prefix = convolve(prefix, weights);
+		}
+		
+		double total = 0;
+		double mines = 0;
+		
+		for(int t = 0; t < prefix.length; t++) {
+			double weight = prefix[t] * outsideWeights[t];
+			total += weight;
+			mines += weight * t;
+		}
+		
+		return total > 0 ? mines / total : Double.NaN;
+	}
+	
+	/**
+	 * Combines the components as if they were independent, every mine of a
+	 * component weighed by the odds of a mine outside of the frontier. The
+	 * odds and the expected number of mines of the frontier are found
+	 * together, by iterating until they agree.
+	 *
+	 * @param tilted the tilted weights of the components
+	 * @param outsideCount the number of undiscovered fields outside of the
+	 *        frontier
+	 * @param fixedMines the smallest number of mines of the frontier
+	 * @param logLambda the logarithm of the factor the weights are tilted by
+	 * @param others receives the weights of the rest of the components and
+	 *        the outside, for every number of mines of every component
+	 * @return the expected number of mines of the frontier, above the
+	 *         smallest one
+	 */
+	private double approximate(List<double[]> tilted, int outsideCount, int fixedMines, double logLambda,
+			List<double[]> others) {
+		double logOdds = logLambda;
+		double expected = 0;
+		
+		for(int iteration = 0; iteration < 50; iteration++) {
+			expected = 0;
+			
+			for(double[] weights : tilted) {
+				double[] weighted = retilt(weights, logOdds - logLambda);
+				double total = 0;
+				double mines = 0;
+				
+				for(int j = 0; j < weighted.length; j++) {
+					total += weighted[j];
+					mines += weighted[j] * j;
+				}
+				
+				expected += mines / total;
+			}
+			
+			double left = mineCount - fixedMines - expected;
+			double odds = Math.max(left, 1e-9) / Math.max(outsideCount - left + 1, 1e-9);
+			double previous = logOdds;
+			
+			logOdds = (logOdds + Math.log(odds)) / 2;
+			if(Math.abs(logOdds - previous) < 1e-9) break;
+		}
+		
+		for(double[] weights : tilted) {
+			double[] ones = new double[weights.length];
+			Arrays.fill(ones, 1);
+			others.add(retilt(ones, logOdds - logLambda));
+		}
+		
+		return expected;
+	}
+	
+	/**
+	 * Estimates the probability of a mine on the field of a component that
+	 * could not be weighed, as the largest share of the mines of any of
+	 * the numbers next to it.
+	 *
+	 * @param index the index of the field
+	 * @return the estimated probability
+	 */
+	private double estimate(int index) {
+		double estimate = 0;
+		int pattern = neighbours.pattern(index);
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			int constraint = index + neighbours.offset(i);
+			if(!FieldState.isDiscovered(states[constraint])) continue;
+			
+			int unknown = 0;
+			int constraintPattern = neighbours.pattern(constraint);
+			
+			for(int j = neighbours.from(constraintPattern), to = neighbours.to(constraintPattern); j < to; j++) {
+				if(isUnknown(states[constraint + neighbours.offset(j)])) unknown++;
+			}
+			
+			estimate = Math.max(estimate, (double) states[constraint] / unknown);
+		}
+		
+		return Math.min(estimate, 1);
+	}
+	
+	/**
+	 * Multiplies the weights by {@code lambda} to the power of their number
+	 * of mines, and scales them so that the largest one is {@code 1}.
+	 *
+	 * @param ways the weights, by their number of mines
+	 * @param logLambda the logarithm of {@code lambda}
+	 * @return the new weights
+	 */
+	private static double[] tilt(double[] ways, double logLambda) {
+		double[] tilted = new double[ways.length];
+		double max = Double.NEGATIVE_INFINITY;
+		
+		for(int j = 0; j < ways.length; j++) {
+			tilted[j] = Math.log(ways[j]) + j * logLambda;
+			max = Math.max(max, tilted[j]);
+		}
+		
+		for(int j = 0; j < ways.length; j++) {
+			tilted[j] = Math.exp(tilted[j] - max);
+		}
+		
+		return tilted;
+	}
+	
+	/**
+	 * Multiplies the weights by {@code e} to the power of the given
+	 * logarithm times their number of mines, and scales them so that the
+	 * largest one is {@code 1}.
+	 *
+	 * @param weights the weights, by their number of mines
+	 * @param logFactor the logarithm of the factor of every mine
+	 * @return the new weights
+	 */
+	private static double[] retilt(double[] weights, double logFactor) {
+		double[] result = new double[weights.length];
+		double max = Double.NEGATIVE_INFINITY;
+		
+		for(int j = 0; j < weights.length; j++) {
+			result[j] = Math.log(weights[j]) + j * logFactor;
+			max = Math.max(max, result[j]);
+		}
+		
+		for(int j = 0; j < weights.length; j++) {
+			result[j] = Math.exp(result[j] - max);
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Convolves the weights, scaling the result so that the largest one is
+	 * {@code 1}.
+	 *
+	 * @param a the weights of one part, by their number of mines
+	 * @param b the weights of the other part, by their number of mines
+	 * @return the weights of both parts together, by their number of mines
+	 */
+	private static double[] convolve(double[] a, double[] b) {
+		double[] result = new double[a.length + b.length - 1];
+		
+		for(int i = 0; i < a.length; i++) {
+			if(a[i] == 0) continue;
+			
+			for(int j = 0; j < b.length; j++) {
+				result[i + j] += a[i] * b[j];
+			}
+		}
+		
+		normalize(result);
+		return result;
+	}
+	
+	/**
+	 * Scales the weights so that the largest one is {@code 1}.
+	 *
+	 * @param weights the weights, scaled in place
+	 * @return {@code false} if all of the weights are zero
+	 */
+	private static boolean normalize(double[] weights) {
+		double max = 0;
+		for(double weight : weights) {
+			max = Math.max(max, weight);
+		}
+		
+		if(max == 0) return false;
+		
+		for(int i = 0; i < weights.length; i++) {
+			weights[i] /= max;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * @param n the size of the set
+	 * @param k the size of the subsets
+	 * @return the logarithm of the binomial coefficient, or negative
+	 *         infinity if it is zero
+	 */
+	private static double logChoose(int n, int k) {
+		if(k < 0 || k > n) return Double.NEGATIVE_INFINITY;
+		return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+	}
+	
+	/**
+	 * @param n the non-negative number
+	 * @return the logarithm of the factorial, from Stirling's series for the
+	 *         large numbers
+	 */
+	private static double logFactorial(int n) {
+		if(n < LOG_FACTORIALS.length) return LOG_FACTORIALS[n];
+		
+		double x = n;
+		return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x) + 1 / (12 * x) - 1 / (360 * x * x * x);
+	}
+	
+	/**
+	 * Packs the field and its probability into a {@code long} that sorts by
+	 * the index of the field.
+	 *
+	 * @param index the index of the field
+	 * @param probability the probability of a mine on the field
+	 * @return the packed field
+	 */
+	private static long pack(int index, double probability) {
+		return (long) index << 32 | Float.floatToRawIntBits((float) probability) & 0xFFFFFFFFL;
+	}
+	
+	//------------------------------------------------------------
+	//					  State and listeners
+	//------------------------------------------------------------
+	
+	/**
+	 * Returns the latest probabilities. Must be called on the event
+	 * dispatch thread.
+	 *
+	 * @return the probabilities, or {@code null} if none have been computed
+	 *         yet, or the game is over
+	 */
+	public MineProbabilities getProbabilities() {
+		return probabilities;
+	}
+	
+	/**
+	 * Adds a new listener, notified on the event dispatch thread.
+	 *
+	 * @param l the listener to be added
+	 */
+	public void addProbabilityListener(ProbabilityListener l) {
+		listeners.add(l);
+	}
+	
+	/**
+	 * Removes the given listener.
+	 *
+	 * @param l the listener to be removed
+	 */
+	public void removeProbabilityListener(ProbabilityListener l) {
+		listeners.remove(l);
+	}
+	
+	/**
+	 * Identifies a component by its fields and the numbers around them, so
+	 * that its weights can be reused for as long as none of them changes.
+	 */
+	private static final class ComponentKey {
+		
+		/** The indices of the fields of the component, in an ascending order. */
+		private final int[] fields;
+		
+		/** The indices of the numbers around the fields. */
+		private final int[] constraints;
+		
+		/** The value of every number. */
+		private final int[] values;
+		
+		/** The hash code, computed once. */
+		private final int hash;
+		
+		/**
+		 * Creates a new key.
+		 *
+		 * @param fields the indices of the fields, in an ascending order
+		 * @param constraints the indices of the numbers around the fields
+		 * @param values the value of every number
+		 */
+		ComponentKey(int[] fields, int[] constraints, int[] values) {
+			this.fields = fields;
+			this.constraints = constraints;
+			this.values = values;
+			this.hash = (Arrays.hashCode(fields) * 31 + Arrays.hashCode(constraints)) * 31 + Arrays.hashCode(values);
+		}
+		
+		/**
+		 * @param neighbours the neighbour table of the board
+		 * @return a new component of the fields and the numbers
+		 */
+		FrontierComponent toComponent(Neighbours neighbours) {
+			int[][] constraintFields = new int[constraints.length][];
+			IntList local = new IntList(Topology.MAX_NEIGHBOURS);
+			
+			for(int c = 0; c < constraints.length; c++) {
+				int constraint = constraints[c];
+				int pattern = neighbours.pattern(constraint);
+				local.clear();
+				
+				for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+					int position = Arrays.binarySearch(fields, constraint + neighbours.offset(i));
+					if(position >= 0) local.add(position);
+				}
+				
+				constraintFields[c] = local.toArray();
+			}
+			
+			return new FrontierComponent(fields, constraintFields, values);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) return true;
+			if(!(obj instanceof ComponentKey)) return false;
+			
+			ComponentKey other = (ComponentKey) obj;
+			return hash == other.hash && Arrays.equals(fields, other.fields)
+					&& Arrays.equals(constraints, other.constraints) && Arrays.equals(values, other.values);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package minesweeper;
+
+/**
+ * Listens to the mine probabilities computed by a {@link ProbabilityEngine}.
+ * The listeners are always notified on the event dispatch thread.
+ *
+ * @author Filip Nemec
+ */
+public interface ProbabilityListener {
+	
+	/**
+	 * Called on the event dispatch thread with the probabilities of the
+	 * current state of the board.
+	 *
+	 * @param probabilities the probabilities, or {@code null} once the game
+	 *        is over and there is nothing left to compute
+	 */
+	void onProbabilities(MineProbabilities probabilities);
+}
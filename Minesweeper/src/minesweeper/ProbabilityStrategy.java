@@ -0,0 +1,94 @@
+package minesweeper;
+
+/**
+ * Plays like the {@link SolverStrategy}, but guesses the field that
+ * looks least likely to be a mine instead of guessing at random.
+ * <p>
+ * The estimate is deliberately simple. A field next to discovered numbers
+ * is given the highest share of remaining mines among those numbers; any
+ * other field is given the density of the mines still unaccounted for.
+ * Ties are broken at random.
+ *
+ * @author Filip Nemec
+ */
+public class ProbabilityStrategy extends SolverStrategy {
+	
+	@Override
+	protected int guess() {
+		double density = remainingDensity();
+		double best = Double.MAX_VALUE;
+		int bestField = -1;
+		int ties = 0;
+		
+		for(int index = 0; index < field.FIELD_COUNT; index++) {
+			if(field.isDiscovered(index) || solver.isMine(index)) continue;
+			
+			double probability = estimate(index, density);
+			
+			if(probability < best) {
+				best = probability;
+				bestField = index;
+				ties = 1;
+			} else if(probability == best && random.nextInt(++ties) == 0) {
+				bestField = index;
+			}
+		}
+		
+		return bestField;
+	}
+	
+	/**
+	 * @return the share of mines among the fields whose state is not known
+	 */
+	private double remainingDensity() {
+		int unknown = field.FIELD_COUNT - field.getDiscoveredCount() - solver.getMineCount();
+		return unknown == 0 ? 0 : (double) (field.getMineCount() - solver.getMineCount()) / unknown;
+	}
+	
+	/**
+	 * Estimates the probability of the field being a mine.
+	 *
+	 * @param index the index of an undiscovered field not proven to be a mine
+	 * @param density the probability used for fields next to no numbers
+	 * @return the estimated probability
+	 */
+	private double estimate(int index, double density) {
+		Neighbours neighbours = field.getNeighbours();
+		int pattern = neighbours.pattern(index);
+		double estimate = -1;
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			int constraint = index + neighbours.offset(i);
+			
+			if(field.isDiscovered(constraint)) {
+				estimate = Math.max(estimate, share(constraint));
+			}
+		}
+		
+		return estimate < 0 ? density : estimate;
+	}
+	
+	/**
+	 * @param constraint the index of a discovered field
+	 * @return the share of mines not proven yet among the unknown fields
+	 *         around it
+	 */
+	private double share(int constraint) {
+		Neighbours neighbours = field.getNeighbours();
+		int pattern = neighbours.pattern(constraint);
+		int remaining = field.getMineCountAround(constraint);
+		int unknown = 0;
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			int index = constraint + neighbours.offset(i);
+			
+			if(solver.isMine(index)) {
+				remaining--;
+			} else if(!field.isDiscovered(index)) {
+				unknown++;
+			}
+		}
+		
+		return unknown == 0 ? 0 : (double) remaining / unknown;
+	}
+}
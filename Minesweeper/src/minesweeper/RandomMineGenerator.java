@@ -0,0 +1,180 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Places the mines uniformly at random: every layout that keeps the safe
+ * area free of mines is equally likely.
+ * <p>
+ * The positions are sampled with Floyd's algorithm over the flattened
+ * field indices, so generating a layout takes time proportional to the
+ * number of mines rather than the number of fields. For dense boards the
+ * safe fields are sampled instead, and the mines are what is left over.
+ * <p>
+ * Every layout is generated from the seed of the generator alone, so the
+ * size of the board, the number of mines, the seed and the safe field
+ * fully determine the layout, and generating it again gives the same
+ * layout.
+ *
+ * @author Filip Nemec
+ */
+public class RandomMineGenerator implements MineGenerator {
+	
+	/**
+	 * The number of positions drawn before any of them are set. The bits
+	 * of large boards are all over the memory, so setting a whole batch at
+	 * once lets the processor wait for many of them at the same time.
+	 */
+	private static final int BATCH_SIZE = 1024;
+	
+	/** The seed the layouts are generated from. */
+	private final long seed;
+	
+	/**
+	 * Creates a new generator with an unpredictable seed.
+	 */
+	public RandomMineGenerator() {
+		this(new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Creates a new generator that generates the layouts from the given
+	 * seed.
+	 *
+	 * @param seed the seed
+	 */
+	public RandomMineGenerator(long seed) {
+		this.seed = seed;
+	}
+	
+	@Override
+	public long[] generate(Topology topology, int rows, int columns, int mineCount, int safeField) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int fieldCount = rows * columns;
+		int[] excluded = safeArea(topology.neighbours(rows, columns), mineCount, safeField);
+		int candidates = fieldCount - excluded.length;
+		
+		if(mineCount > candidates) {
+			throw new IllegalArgumentException("Too many mines (" + mineCount + ") for " + candidates + " fields.");
+		}
+		
+		long[] mines = Bits.create(fieldCount);
+		
+		if(mineCount <= candidates / 2) {
+			sample(mines, mineCount, candidates, excluded, random);
+			
+		} else {
+			long[] free = Bits.create(fieldCount);
+			sample(free, candidates - mineCount, candidates, excluded, random);
+			
+			for(int w = 0; w < mines.length; w++) {
+				mines[w] = ~free[w];
+			}
+			
+			for(int index : excluded) {
+				Bits.clear(mines, index);
+			}
+			
+			clearTail(mines, fieldCount);
+		}
+		
+		return mines;
+	}
+	
+	/**
+	 * @return the seed the layouts are generated from
+	 */
+	@Override
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Sets {@code count} distinct bits chosen uniformly from the first
+	 * {@code candidates} non-excluded fields using Floyd's algorithm.
+	 *
+	 * @param bits the bit-set to set the chosen bits in
+	 * @param count the number of bits to choose
+	 * @param candidates the number of fields to choose from
+	 * @param excluded sorted indices of the fields that can not be chosen
+	 * @param random the source of randomness
+	 */
+	private static void sample(long[] bits, int count, int candidates, int[] excluded, SplittableRandom random) {
+		if(count <= 0) return;
+		
+		int[] batch = new int[Math.min(count, BATCH_SIZE)];
+		
+		for(int from = candidates - count; from < candidates; from += batch.length) {
+			int to = Math.min(from + batch.length, candidates);
+			
+			for(int j = from; j < to; j++) {
+				batch[j - from] = skipExcluded(random.nextInt(j + 1), excluded);
+			}
+			
+			for(int j = from; j < to; j++) {
+				int index = batch[j - from];
+				
+				if(Bits.get(bits, index)) {
+					index = skipExcluded(j, excluded);
+				}
+				
+				Bits.set(bits, index);
+			}
+		}
+	}
+	
+	/**
+	 * Maps the position among the non-excluded fields to the index of the
+	 * field on the board.
+	 *
+	 * @param position the position among the non-excluded fields
+	 * @param excluded sorted indices of the excluded fields
+	 * @return the index of the field
+	 */
+	private static int skipExcluded(int position, int[] excluded) {
+		for(int index : excluded) {
+			if(position < index) break;
+			position++;
+		}
+		
+		return position;
+	}
+	
+	/**
+	 * Returns the sorted indices of the fields that must not be mines: the
+	 * safe field and its neighbours. If that leaves too few fields for all
+	 * of the mines, only the safe field itself is kept free.
+	 *
+	 * @param neighbours the neighbours of the fields of the board
+	 * @param mineCount the number of mines
+	 * @param safeField the index of the safe field, or {@code NO_SAFE_FIELD}
+	 * @return the sorted indices of the excluded fields
+	 */
+	private static int[] safeArea(Neighbours neighbours, int mineCount, int safeField) {
+		if(safeField == NO_SAFE_FIELD) return new int[0];
+		
+		int[] around = neighbours.of(safeField);
+		if(neighbours.ROWS * neighbours.COLUMNS - around.length - 1 < mineCount) return new int[] { safeField };
+		
+		int[] area = Arrays.copyOf(around, around.length + 1);
+		area[around.length] = safeField;
+		Arrays.sort(area);
+		
+		return area;
+	}
+	
+	/**
+	 * Clears the unused bits of the last word, past the last field.
+	 *
+	 * @param bits the bit-set
+	 * @param size the number of used bits
+	 */
+	private static void clearTail(long[] bits, int size) {
+		int used = size % Bits.WORD_SIZE;
+		
+		if(used != 0) {
+			bits[bits.length - 1] &= (1L << used) - 1;
+		}
+	}
+}
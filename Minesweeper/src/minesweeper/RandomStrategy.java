@@ -0,0 +1,73 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Discovers the undiscovered fields in random order. It is the baseline
+ * the other strategies are compared against.
+ *
+ * @author Filip Nemec
+ */
+public class RandomStrategy implements Strategy {
+	
+	/** The number of random tries before the fields are counted instead. */
+	private static final int MAX_TRIES = 32;
+	
+	/** The mine-field being played. */
+	private MineField field;
+	
+	/** The source of randomness for the current game. */
+	private SplittableRandom random;
+	
+	@Override
+	public void start(MineField field, SplittableRandom random) {
+		this.field = field;
+		this.random = random;
+	}
+	
+	@Override
+	public int nextField() {
+		return randomField(field, random, index -> false);
+	}
+	
+	/**
+	 * Picks an undiscovered field uniformly at random, skipping the
+	 * excluded ones.
+	 * <p>
+	 * While most of the board is still undiscovered a few random tries are
+	 * enough; late in the game the candidates are counted and one of them
+	 * is picked directly.
+	 *
+	 * @param field the mine-field
+	 * @param random the source of randomness
+	 * @param excluded tells which of the fields are to be skipped
+	 * @return the index of the field, or {@code -1} if there is none
+	 */
+	static int randomField(MineField field, SplittableRandom random, IntPredicate excluded) {
+		for(int i = 0; i < MAX_TRIES; i++) {
+			int index = random.nextInt(field.FIELD_COUNT);
+			if(isCandidate(field, excluded, index)) return index;
+		}
+		
+		int candidates = 0;
+		
+		for(int index = 0; index < field.FIELD_COUNT; index++) {
+			if(isCandidate(field, excluded, index)) candidates++;
+		}
+		
+		if(candidates == 0) return -1;
+		
+		int chosen = random.nextInt(candidates);
+		
+		for(int index = 0; index < field.FIELD_COUNT; index++) {
+			if(isCandidate(field, excluded, index) && chosen-- == 0) return index;
+		}
+		
+		return -1;
+	}
+	
+	private static boolean isCandidate(MineField field, IntPredicate excluded, int index) {
+		return !field.isDiscovered(index) && !excluded.test(index);
+	}
+}
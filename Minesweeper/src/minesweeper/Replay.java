@@ -0,0 +1,260 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replays a game recorded in a {@link Journal}. The journal is mapped and
+ * indexed once, after which the board after any move is rebuilt from the
+ * closest snapshot before it and the few moves in between, rather than by
+ * replaying the whole game.
+ * <p>
+ * A journal cut short, for example by a crash, is replayed up to its last
+ * complete record, and a corrupted one up to its last valid record.
+ *
+ * @author Filip Nemec
+ */
+public class Replay {
+	
+	/** The number of rows. */
+	public final int ROWS;
+	
+	/** The number of columns. */
+	public final int COLUMNS;
+	
+	/** The number of mines. */
+	private final int mineCount;
+	
+	/** The fields revealed when the player steps on a mine. */
+	private final MineField.RevealMode revealMode;
+	
+	/** The way the fields are connected. */
+	private final Topology topology;
+	
+	/** The time the game was started at, in milliseconds since the epoch. */
+	private final long startTime;
+	
+	/** The mapped journal. */
+	private final ByteBuffer journal;
+	
+	/** The positions of the move records. */
+	private final IntList moves = new IntList();
+	
+	/** The number of moves each snapshot was taken after. */
+	private final IntList snapshotMoves = new IntList();
+	
+	/** The positions of the boards in the snapshot records. */
+	private final IntList snapshots = new IntList();
+	
+	/**
+	 * Opens the given journal and indexes its records.
+	 *
+	 * @param file the journal file
+	 * @throws IOException if the file could not be read or is not a journal
+	 */
+	public Replay(Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		
+		if(journal.remaining() < Journal.HEADER_SIZE || journal.getInt() != Journal.MAGIC) throw new IOException("Not a journal.");
+		
+		short version = journal.getShort();
+		if(version != Journal.VERSION) throw new IOException("Unsupported version of the journal: " + version);
+		
+		int reveal = journal.get();
+		int topology = journal.get();
+		ROWS = journal.getInt();
+		COLUMNS = journal.getInt();
+		mineCount = journal.getInt();
+		journal.getInt();
+		startTime = journal.getLong();
+		
+		if(ROWS <= 0 || COLUMNS <= 0 || mineCount < 0 || reveal < 0 || reveal >= MineField.RevealMode.values().length
+				|| topology < 0 || topology >= Topology.values().length) {
+			throw new IOException("Corrupted journal.");
+		}
+		
+		revealMode = MineField.RevealMode.values()[reveal];
+		this.topology = Topology.values()[topology];
+		
+		index();
+	}
+	
+	/**
+	 * Finds all of the complete records, up to the first one that is cut
+	 * short or is not a valid record.
+	 */
+	private void index() {
+		int position = Journal.HEADER_SIZE;
+		int limit = journal.limit();
+		
+		while(position + Journal.MOVE_SIZE <= limit) {
+			byte type = journal.get(position);
+			
+			if(type == Journal.SNAPSHOT) {
+				if(position + Journal.SNAPSHOT_HEADER_SIZE > limit) break;
+				
+				int move = journal.getInt(position + 9);
+				int length = journal.getInt(position + 13);
+				int board = position + Journal.SNAPSHOT_HEADER_SIZE;
+				if(length < 0 || board + length > limit) break;
+				
+				snapshotMoves.add(move);
+				snapshots.add(board);
+				position = board + length;
+			} else {
+				if(type < 0 || type >= MineFieldEvent.Type.values().length) break;
+				
+				moves.add(position);
+				position += Journal.MOVE_SIZE;
+			}
+		}
+	}
+	
+	//------------------------------------------------------------
+	//							Moves
+	//------------------------------------------------------------
+	
+	/**
+	 * @return the number of recorded moves
+	 */
+	public int getMoveCount() {
+		return moves.size();
+	}
+	
+	/**
+	 * @param move the index of the move
+	 * @return the type of the move
+	 */
+	public MineFieldEvent.Type getType(int move) {
+		return MineFieldEvent.Type.values()[journal.get(moves.get(move))];
+	}
+	
+	/**
+	 * @param move the index of the move
+	 * @return the time of the move, in nanoseconds since the start of the
+	 *         game
+	 */
+	public long getTime(int move) {
+		return journal.getLong(moves.get(move) + 1);
+	}
+	
+	/**
+	 * @param move the index of the move
+	 * @return the index of the field the move was made on; for an
+	 *         explosion, this is the mine the player stepped on
+	 */
+	public int getField(int move) {
+		return journal.getInt(moves.get(move) + 9);
+	}
+	
+	/**
+	 * @return the time the game was started at, in milliseconds since the
+	 *         epoch
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+	
+	//------------------------------------------------------------
+	//							Seeking
+	//------------------------------------------------------------
+	
+	/**
+	 * Rebuilds the board as it was after the given number of moves.
+	 *
+	 * @param moveCount the number of moves, from {@code 0} to
+	 *        {@link #getMoveCount()}
+	 * @return a new board, independent of the replay
+	 * @throws IOException if the journal is corrupted
+	 */
+	public MineField seek(int moveCount) throws IOException {
+		if(moveCount < 0 || moveCount > getMoveCount()) {
+			throw new IndexOutOfBoundsException("Move count " + moveCount + " is out of bounds [0, " + getMoveCount() + "].");
+		}
+		
+		MineField field = null;
+		int move = 0;
+		
+		for(int i = snapshots.size() - 1; i >= 0; i--) {
+			if(snapshotMoves.get(i) <= moveCount) {
+				field = GameFile.read(journal.duplicate().position(snapshots.get(i)));
+				move = snapshotMoves.get(i);
+				break;
+			}
+		}
+		
+		if(field == null) {
+			field = new MineField(ROWS, COLUMNS, mineCount, null, topology);
+			field.setRevealMode(revealMode);
+		}
+		
+		for(; move < moveCount; move++) {
+			replay(field, move);
+		}
+		
+		return field;
+	}
+	
+	/**
+	 * Makes the given move again on the given board.
+	 *
+	 * @param field the board
+	 * @param move the index of the move
+	 * @throws IOException if the move needs the mines, but they have not
+	 *         been recorded
+	 */
+	private void replay(MineField field, int move) throws IOException {
+		int index = getField(move);
+		int row = field.rowOf(index);
+		int column = field.columnOf(index);
+		MineFieldEvent.Type type = getType(move);
+		
+		if(type == MineFieldEvent.Type.FLAG_PLACE || type == MineFieldEvent.Type.FLAG_REMOVE) {
+			field.toggleFlag(row, column);
+			return;
+		}
+		
+		if(!field.areMinesPlaced()) throw new IOException("Corrupted journal: the mines were not recorded.");
+		
+		if(type == MineFieldEvent.Type.CHORD) {
+			field.chord(row, column);
+		} else {
+			field.toggleField(row, column);
+		}
+	}
+	
+	/**
+	 * Prints the moves of the recorded game and the board after the given
+	 * move.
+	 *
+	 * @param args the journal file, and optionally the number of moves to
+	 *        seek to, all of them by default
+	 * @throws IOException if the journal could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if(args.length < 1) {
+			System.out.println("Usage: Replay <journal> [moves]");
+			return;
+		}
+		
+		Replay replay = new Replay(Paths.get(args[0]));
+		int moveCount = args.length > 1 ? Integer.parseInt(args[1]) : replay.getMoveCount();
+		
+		for(int i = 0; i < moveCount; i++) {
+			int field = replay.getField(i);
+			System.out.printf("%5d %10.3f s  %-11s (%d, %d)%n", i + 1, replay.getTime(i) / 1e9, replay.getType(i),
+							  field / replay.COLUMNS, field % replay.COLUMNS);
+		}
+		
+		MineField field = replay.seek(moveCount);
+		System.out.println(field.getDiscoveredCount() + " discovered, " + field.getFlagCount() + " flags"
+						   + (field.isExploded() ? ", exploded" : field.isWon() ? ", won" : ""));
+	}
+}
@@ -0,0 +1,84 @@
+package minesweeper;
+
+/**
+ * A game held by the {@link SessionRegistry}. Every command on a session
+ * runs while holding the session's lock, see
+ * {@link SessionRegistry#execute(long, java.util.function.Function)}, so
+ * the commands of one session run one at a time, while different sessions
+ * never wait for each other.
+ * <p>
+ * The session remembers the change caused by the last command, so the
+ * command can report what it changed.
+ *
+ * @author Filip Nemec
+ */
+public final class Session implements MineFieldListener {
+	
+	/** The id of the session. */
+	private final long id;
+	
+	/** The mine-field of the game. */
+	private final MineField field;
+	
+	/** The time of the last command, as of {@link System#nanoTime()}. */
+	private volatile long lastAccess;
+	
+	/** The change caused by the last command, or {@code null}. */
+	private MineFieldEvent lastChange;
+	
+	/**
+	 * Creates a new session.
+	 *
+	 * @param id the id of the session
+	 * @param field the mine-field of the game
+	 */
+	Session(long id, MineField field) {
+		this.id = id;
+		this.field = field;
+		this.lastAccess = System.nanoTime();
+		
+		field.addMineFieldListener(this);
+	}
+	
+	@Override
+	public void onMineFieldChange(MineFieldEvent event) {
+		lastChange = event;
+	}
+	
+	/**
+	 * Marks the session as used now and forgets the last change.
+	 */
+	void touch() {
+		lastAccess = System.nanoTime();
+		lastChange = null;
+	}
+	
+	/**
+	 * @return the id of the session
+	 */
+	public long getId() {
+		return id;
+	}
+	
+	/**
+	 * @return the mine-field of the game
+	 */
+	public MineField getField() {
+		return field;
+	}
+	
+	/**
+	 * @return the change caused by the current command, or {@code null}
+	 *         if it has not changed anything
+	 */
+	public MineFieldEvent getLastChange() {
+		return lastChange;
+	}
+	
+	/**
+	 * @return the time of the last command, as of {@link System#nanoTime()}
+	 */
+	long getLastAccess() {
+		return lastAccess;
+	}
+}
@@ -0,0 +1,267 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Owns the games played in this process, by their session id.
+ * <p>
+ * The sessions are kept in a concurrent map, so looking one up never
+ * blocks, and every command runs under the lock of its own session: the
+ * commands of one game are serialized, while commands for different games
+ * never contend.
+ * <p>
+ * A background sweep takes care of the memory. A session left untouched
+ * for a whole sweep period is trimmed down to its bit-sets, and sessions
+ * idle for longer than the time-to-live are evicted. If the sessions
+ * still take more than the memory cap, the least recently used ones are
+ * trimmed, and then evicted, until they fit.
+ *
+ * @author Filip Nemec
+ */
+public class SessionRegistry implements Closeable {
+	
+	/** The default time-to-live of an idle session, in milliseconds. */
+	public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(10);
+	
+	/** The default memory cap, in bytes. */
+	public static final long DEFAULT_MEMORY_CAP = 256L << 20;
+	
+	/** The sessions, by their id. */
+	private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+	
+	/** The id of the next session. */
+	private final AtomicLong nextId = new AtomicLong(1);
+	
+	/** The time-to-live of an idle session, in nanoseconds. */
+	private final long timeToLive;
+	
+	/** The most memory the sessions may take, in bytes. */
+	private final long memoryCap;
+	
+	/** The period of the sweep, in nanoseconds. */
+	private final long sweepPeriod;
+	
+	/** The executor running the sweep. */
+	private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "session-sweeper");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	/** The number of sessions created. */
+	private final LongAdder created = new LongAdder();
+	
+	/** The number of sessions evicted for being idle. */
+	private final LongAdder expired = new LongAdder();
+	
+	/** The number of sessions evicted to stay under the memory cap. */
+	private final LongAdder evicted = new LongAdder();
+	
+	/** The memory taken by the sessions at the last sweep, in bytes. */
+	private volatile long memory;
+	
+	/**
+	 * Creates a new registry with the default time-to-live and memory cap.
+	 */
+	public SessionRegistry() {
+		this(DEFAULT_TIME_TO_LIVE, DEFAULT_MEMORY_CAP);
+	}
+	
+	/**
+	 * Creates a new registry.
+	 *
+	 * @param timeToLive the time-to-live of an idle session, in milliseconds
+	 * @param memoryCap the most memory the sessions may take, in bytes
+	 */
+	public SessionRegistry(long timeToLive, long memoryCap) {
+		this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+		this.memoryCap = memoryCap;
+		this.sweepPeriod = Math.max(Math.min(this.timeToLive / 4, TimeUnit.MINUTES.toNanos(1)), TimeUnit.MILLISECONDS.toNanos(100));
+		
+		sweeper.scheduleWithFixedDelay(this::sweep, sweepPeriod, sweepPeriod, TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Registers a new session playing the given mine-field.
+	 *
+	 * @param field the mine-field of the game
+	 * @return the new session
+	 */
+	public Session create(MineField field) {
+		Session session = new Session(nextId.getAndIncrement(), field);
+		sessions.put(session.getId(), session);
+		created.increment();
+		
+		return session;
+	}
+	
+	/**
+	 * Checks whether a new session taking the given memory can be created.
+	 * A single session may take at most a quarter of the memory cap,
+	 * otherwise the sweep would have to evict most of the other sessions
+	 * to make room for it.
+	 *
+	 * @param footprint the memory the new session takes, in bytes
+	 * @return {@code true} if the session can be created
+	 */
+	public boolean admits(long footprint) {
+		return footprint <= memoryCap / 4;
+	}
+	
+	/**
+	 * Runs the command on the session, holding the session's lock.
+	 *
+	 * @param <T> the type of the result
+	 * @param id the id of the session
+	 * @param command the command
+	 * @return the result of the command
+	 * @throws NoSuchElementException if there is no such session
+	 */
+	public <T> T execute(long id, Function<Session, T> command) {
+		Session session = sessions.get(id);
+		
+		if(session == null) {
+			throw new NoSuchElementException("Unknown session: " + id);
+		}
+		
+		synchronized(session) {
+			session.touch();
+			return command.apply(session);
+		}
+	}
+	
+	/**
+	 * Removes the session.
+	 *
+	 * @param id the id of the session
+	 * @return {@code true} if there was such a session
+	 */
+	public boolean remove(long id) {
+		return sessions.remove(id) != null;
+	}
+	
+	/**
+	 * Trims the sessions that have been idle for a sweep period and evicts
+	 * the expired ones. While the rest take more memory than the cap, the
+	 * least recently used ones are trimmed, and then evicted. Runs
+	 * periodically in the background.
+	 */
+	public void sweep() {
+		long now = System.nanoTime();
+		long total = 0;
+		List<Session> alive = new ArrayList<>(sessions.size());
+		
+		for(Session session : sessions.values()) {
+			long idle = now - session.getLastAccess();
+			
+			if(idle > timeToLive) {
+				if(sessions.remove(session.getId(), session)) expired.increment();
+				continue;
+			}
+			
+			if(idle > sweepPeriod) trim(session);
+			
+			total += session.getField().footprint();
+			alive.add(session);
+		}
+		
+		if(total > memoryCap) {
+			alive.sort(Comparator.comparingLong(Session::getLastAccess));
+			
+			for(int i = 0; i < alive.size() && total > memoryCap; i++) {
+				total -= trim(alive.get(i));
+			}
+			
+			for(int i = 0; i < alive.size() && total > memoryCap; i++) {
+				Session session = alive.get(i);
+				
+				if(sessions.remove(session.getId(), session)) {
+					total -= session.getField().footprint();
+					evicted.increment();
+				}
+			}
+		}
+		
+		memory = total;
+	}
+	
+	/**
+	 * Trims the mine-field of the session.
+	 *
+	 * @param session the session
+	 * @return the number of bytes released
+	 */
+	private static long trim(Session session) {
+		synchronized(session) {
+			MineField field = session.getField();
+			long before = field.footprint();
+			field.trim();
+			
+			return before - field.footprint();
+		}
+	}
+	
+	/**
+	 * Stops the background sweep.
+	 */
+	@Override
+	public void close() {
+		sweeper.shutdownNow();
+	}
+	
+	//------------------------------------------------------------
+	//						   Counters
+	//------------------------------------------------------------
+	
+	/**
+	 * @return the number of sessions in the registry
+	 */
+	public int getActiveCount() {
+		return sessions.size();
+	}
+	
+	/**
+	 * @return the number of sessions created
+	 */
+	public long getCreatedCount() {
+		return created.sum();
+	}
+	
+	/**
+	 * @return the number of sessions evicted for being idle
+	 */
+	public long getExpiredCount() {
+		return expired.sum();
+	}
+	
+	/**
+	 * @return the number of sessions evicted to stay under the memory cap
+	 */
+	public long getEvictedCount() {
+		return evicted.sum();
+	}
+	
+	/**
+	 * @return the memory taken by the sessions at the last sweep, in bytes
+	 */
+	public long getMemory() {
+		return memory;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("Sessions: %d active, %d created, %d expired, %d evicted, %d KiB",
+				getActiveCount(), getCreatedCount(), getExpiredCount(), getEvictedCount(), memory >> 10);
+	}
+}
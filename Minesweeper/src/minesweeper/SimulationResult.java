@@ -0,0 +1,197 @@
+package minesweeper;
+
+/**
+ * The statistics of the games simulated on one board configuration.
+ * <p>
+ * Every simulation task fills in its own result while it plays, without
+ * any synchronization, and the results are merged once the tasks are
+ * done.
+ *
+ * @author Filip Nemec
+ */
+public final class SimulationResult {
+	
+	/** The number of rows. */
+	public final int rows;
+	
+	/** The number of columns. */
+	public final int columns;
+	
+	/** The number of mines. */
+	public final int mines;
+	
+	/** The number of games played. */
+	private long games;
+	
+	/** The number of games won. */
+	private long wins;
+	
+	/** The number of moves made, in all of the games. */
+	private long moves;
+	
+	/** The number of moves made in the games that were won. */
+	private long winningMoves;
+	
+	/** The number of moves that discovered at least one field. */
+	private long cascades;
+	
+	/** The number of fields discovered by those moves. */
+	private long cascadeFields;
+	
+	/** The largest number of fields discovered by a single move. */
+	private int largestCascade;
+	
+	/** The time the simulation took, in nanoseconds. */
+	private long duration;
+	
+	/** The number of threads the simulation ran on. */
+	private int parallelism;
+	
+	/**
+	 * Creates a new, empty result.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 */
+	SimulationResult(int rows, int columns, int mines) {
+		this.rows = rows;
+		this.columns = columns;
+		this.mines = mines;
+	}
+	
+	/**
+	 * Records a finished game.
+	 *
+	 * @param won {@code true} if the game was won
+	 * @param gameMoves the number of moves the game took
+	 */
+	void recordGame(boolean won, int gameMoves) {
+		games++;
+		moves += gameMoves;
+		
+		if(won) {
+			wins++;
+			winningMoves += gameMoves;
+		}
+	}
+	
+	/**
+	 * Records a move that discovered some fields.
+	 *
+	 * @param size the number of fields discovered
+	 */
+	void recordCascade(int size) {
+		cascades++;
+		cascadeFields += size;
+		largestCascade = Math.max(largestCascade, size);
+	}
+	
+	/**
+	 * Adds the statistics of the other result to this one.
+	 *
+	 * @param other the result to be merged into this one
+	 * @return this result
+	 */
+	SimulationResult merge(SimulationResult other) {
+		games += other.games;
+		wins += other.wins;
+		moves += other.moves;
+		winningMoves += other.winningMoves;
+		cascades += other.cascades;
+		cascadeFields += other.cascadeFields;
+		largestCascade = Math.max(largestCascade, other.largestCascade);
+		return this;
+	}
+	
+	/**
+	 * @param duration the time the simulation took, in nanoseconds
+	 * @param parallelism the number of threads the simulation ran on
+	 */
+	void setTiming(long duration, int parallelism) {
+		this.duration = duration;
+		this.parallelism = parallelism;
+	}
+	
+	//------------------------------------------------------------
+	//						   Getters
+	//------------------------------------------------------------
+	
+	/**
+	 * @return the number of games played
+	 */
+	public long getGames() {
+		return games;
+	}
+	
+	/**
+	 * @return the number of games won
+	 */
+	public long getWins() {
+		return wins;
+	}
+	
+	/**
+	 * @return the share of games won
+	 */
+	public double getWinRate() {
+		return games == 0 ? 0 : (double) wins / games;
+	}
+	
+	/**
+	 * @return the average number of moves per game
+	 */
+	public double getAverageMoves() {
+		return games == 0 ? 0 : (double) moves / games;
+	}
+	
+	/**
+	 * @return the average number of moves per game won
+	 */
+	public double getAverageWinningMoves() {
+		return wins == 0 ? 0 : (double) winningMoves / wins;
+	}
+	
+	/**
+	 * @return the average number of fields discovered by a single move
+	 */
+	public double getAverageCascade() {
+		return cascades == 0 ? 0 : (double) cascadeFields / cascades;
+	}
+	
+	/**
+	 * @return the largest number of fields discovered by a single move
+	 */
+	public int getLargestCascade() {
+		return largestCascade;
+	}
+	
+	/**
+	 * @return the time the simulation took, in milliseconds
+	 */
+	public double getDuration() {
+		return duration / 1e6;
+	}
+	
+	/**
+	 * @return the number of games played per second
+	 */
+	public double getGamesPerSecond() {
+		return duration == 0 ? 0 : games * 1e9 / duration;
+	}
+	
+	/**
+	 * @return the number of games played per second on each thread
+	 */
+	public double getGamesPerSecondPerCore() {
+		return parallelism == 0 ? 0 : getGamesPerSecond() / parallelism;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%dx%d, %d mines: %d games, %.2f%% won, %.1f moves (%.1f when won), "
+				+ "cascades %.1f avg / %d max, %.0f games/s (%.0f per core)",
+				rows, columns, mines, games, getWinRate() * 100, getAverageMoves(), getAverageWinningMoves(),
+				getAverageCascade(), largestCascade, getGamesPerSecond(), getGamesPerSecondPerCore());
+	}
+}
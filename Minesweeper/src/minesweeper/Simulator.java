@@ -0,0 +1,214 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many games headlessly to measure how well a {@link Strategy}
+ * does on a board configuration.
+ * <p>
+ * The games are split into tasks on a fork-join pool, so idle threads
+ * steal work from busy ones. Every task plays with its own strategy
+ * instance and fills in its own {@link SimulationResult}; the results are
+ * merged as the tasks are joined, so the threads share nothing while they
+ * play. Game {@code i} is always played with the same randomness for the
+ * same seed, however the games are split among the threads.
+ *
+ * @author Filip Nemec
+ */
+public class Simulator {
+	
+	/** The number of games played by a task that is not split any further. */
+	private static final int GAMES_PER_TASK = 64;
+	
+	/** The pool the games are played on. */
+	private final ForkJoinPool pool;
+	
+	/**
+	 * Creates a new simulator that plays on the common fork-join pool.
+	 */
+	public Simulator() {
+		this(ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a new simulator.
+	 *
+	 * @param pool the pool the games are played on
+	 */
+	public Simulator(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	
+	/**
+	 * Plays the given number of games on boards of the given configuration.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param mines the number of mines
+	 * @param strategy creates the strategy instances; every task gets its own
+	 * @param games the number of games to be played
+	 * @param seed the seed the randomness of every game is derived from
+	 * @return the statistics of the games
+	 */
+	public SimulationResult simulate(int rows, int columns, int mines, Supplier<? extends Strategy> strategy,
+			long games, long seed) {
+		if(rows <= 0 || columns <= 0 || mines < 0 || mines >= rows * columns) {
+			throw new IllegalArgumentException("Invalid board: " + rows + "x" + columns + ", " + mines + " mines.");
+		}
+		
+		long start = System.nanoTime();
+		SimulationResult result = pool.invoke(new Games(rows, columns, mines, strategy, seed, 0, games));
+		result.setTiming(System.nanoTime() - start, pool.getParallelism());
+		
+		return result;
+	}
+	
+	/**
+	 * Plays a single game until it is won or lost.
+	 *
+	 * @param field the mine-field, nothing discovered yet
+	 * @param strategy the strategy to play with
+	 * @param random the source of randomness for the game
+	 * @param result the statistics the game is recorded into
+	 */
+	private static void play(MineField field, Strategy strategy, SplittableRandom random, SimulationResult result) {
+		MineFieldListener cascades = event -> {
+			if(event.getType() == MineFieldEvent.Type.DISCOVER || event.getType() == MineFieldEvent.Type.CHORD) {
+				result.recordCascade(event.getChangedFieldCount());
+			}
+		};
+		
+		field.addMineFieldListener(cascades);
+		strategy.start(field, random);
+		
+		int safeFields = field.FIELD_COUNT - field.getMineCount();
+		int moves = 0;
+		
+		while(!field.isExploded() && field.getDiscoveredCount() < safeFields) {
+			int index = strategy.nextField();
+			
+			if(index < 0 || index >= field.FIELD_COUNT || field.isDiscovered(index)) {
+				throw new IllegalStateException("The strategy chose an invalid field: " + index);
+			}
+			
+			field.toggleField(field.rowOf(index), field.columnOf(index));
+			moves++;
+		}
+		
+		strategy.finish();
+		result.recordGame(!field.isExploded(), moves);
+	}
+	
+	/**
+	 * A range of games, split in halves until it is small enough to be
+	 * played by a single thread.
+	 */
+	private static class Games extends RecursiveTask<SimulationResult> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int rows;
+		private final int columns;
+		private final int mines;
+		private final Supplier<? extends Strategy> strategy;
+		private final long seed;
+		private final long from;
+		private final long to;
+		
+		Games(int rows, int columns, int mines, Supplier<? extends Strategy> strategy, long seed, long from, long to) {
+			this.rows = rows;
+			this.columns = columns;
+			this.mines = mines;
+			this.strategy = strategy;
+			this.seed = seed;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected SimulationResult compute() {
+			if(to - from > GAMES_PER_TASK) {
+				long middle = (from + to) >>> 1;
+				Games left = new Games(rows, columns, mines, strategy, seed, from, middle);
+				Games right = new Games(rows, columns, mines, strategy, seed, middle, to);
+				
+				left.fork();
+				return right.compute().merge(left.join());
+			}
+			
+			SimulationResult result = new SimulationResult(rows, columns, mines);
+			Strategy player = strategy.get();
+			
+			for(long game = from; game < to; game++) {
+				SplittableRandom random = new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L);
+				MineField field = new MineField(rows, columns, mines, new RandomMineGenerator(random.nextLong()));
+				play(field, player, random, result);
+			}
+			
+			return result;
+		}
+	}
+	
+	//------------------------------------------------------------
+	//						  Command line
+	//------------------------------------------------------------
+	
+	/**
+	 * @param name the name of the strategy: random, solver or probability
+	 * @return creates instances of the strategy with the given name
+	 */
+	private static Supplier<Strategy> strategy(String name) {
+		switch(name) {
+			case "random":		return RandomStrategy::new;
+			case "solver":		return SolverStrategy::new;
+			case "probability":	return ProbabilityStrategy::new;
+			default: throw new IllegalArgumentException("Unknown strategy: " + name);
+		}
+	}
+	
+	/**
+	 * Runs the simulation from the command line:
+	 * <pre>
+	 * Simulator [strategy|all] [games] [ROWSxCOLUMNSxMINES ...]
+	 * </pre>
+	 * By default all of the strategies play 100 000 games on each of the
+	 * classic beginner, intermediate and expert boards.
+	 *
+	 * @param args the strategy, the number of games and the boards
+	 */
+	public static void main(String[] args) {
+		String strategyName = args.length > 0 ? args[0] : "all";
+		long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+		
+		List<int[]> boards = new ArrayList<>();
+		
+		for(int i = 2; i < args.length; i++) {
+			String[] parts = args[i].split("x");
+			boards.add(new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2])});
+		}
+		
+		if(boards.isEmpty()) {
+			boards.add(new int[] {9, 9, 10});
+			boards.add(new int[] {16, 16, 40});
+			boards.add(new int[] {16, 30, 99});
+		}
+		
+		String[] strategies = strategyName.equals("all")
+				? new String[] {"random", "solver", "probability"}
+				: new String[] {strategyName};
+		
+		Simulator simulator = new Simulator();
+		
+		for(String name : strategies) {
+			for(int[] board : boards) {
+				SimulationResult result = simulator.simulate(board[0], board[1], board[2], strategy(name), games, 42);
+				System.out.println(name + " - " + result);
+			}
+		}
+	}
+}
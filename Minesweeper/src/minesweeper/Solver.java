@@ -0,0 +1,626 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Deduces which undiscovered fields are provably safe and which are
+ * provably mines, looking only at what the player can see: the discovered
+ * fields and their numbers. Flags are ignored, because the player may
+ * have placed them wrongly.
+ * <p>
+ * The solver listens to the mine-field and keeps its state up to date
+ * incrementally. Only the constraints (discovered numbers) around the
+ * fields that changed are re-examined, first with the single constraint
+ * rule, then with the subset rule on pairs of nearby constraints. What
+ * remains undecided is split into independent frontier components, and
+ * the small ones are solved by exact enumeration, in parallel on a
+ * fork-join pool when there is enough work.
+ *
+ * @author Filip Nemec
+ */
+public class Solver implements MineFieldListener {
+	
+	/** The largest frontier component that is solved by enumeration. */
+	public static final int MAX_ENUMERATION_SIZE = 24;
+	
+	/** The smallest total component size worth enumerating in parallel. */
+	private static final int PARALLEL_THRESHOLD = 48;
+	
+	/** The mine-field being solved. */
+	private final MineField field;
+	
+	/** The neighbours of every field of the mine-field. */
+	private final Neighbours neighbours;
+	
+	/** The pool the frontier components are enumerated on. */
+	private final ForkJoinPool pool;
+	
+	/** Bit-set of the fields proven to be mines. */
+	private final long[] mines;
+	
+	/** Bit-set of the fields proven to be safe. */
+	private final long[] safe;
+	
+	/** Bit-set of the constraints waiting to be examined. */
+	private final long[] dirty;
+	
+	/** The constraints waiting to be examined. */
+	private final IntList dirtyConstraints = new IntList();
+	
+	/** Bit-set of the undecided frontier fields changed since the last enumeration. */
+	private final long[] touched;
+	
+	/** The undecided frontier fields changed since the last enumeration. */
+	private final IntList touchedFields = new IntList();
+	
+	/** Bit-set used for marking the visited fields while building components. */
+	private final long[] visited;
+	
+	/** The fields marked in the visited bit-set, so it can be cleared quickly. */
+	private final IntList visitedFields = new IntList();
+	
+	/** The proven safe fields, in the order they were found. */
+	private final IntList safeFields = new IntList();
+	
+	/** The number of fields proven to be mines. */
+	private int mineCount;
+	
+	/** The unknown fields around the constraint being examined. */
+	private final int[] unknownA;
+	
+	/** The unknown fields around the other constraint of the subset rule. */
+	private final int[] unknownB;
+	
+	/** The fields of one constraint that are not around the other one. */
+	private final int[] difference;
+	
+	/** The constraints that may share an unknown field with the constraint being examined. */
+	private final int[] candidates;
+	
+	/**
+	 * Creates a new solver for the given mine-field that enumerates the
+	 * frontier components on the common fork-join pool.
+	 *
+	 * @param field the mine-field to be solved
+	 */
+	public Solver(MineField field) {
+		this(field, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Creates a new solver for the given mine-field.
+	 *
+	 * @param field the mine-field to be solved
+	 * @param pool the pool the frontier components are enumerated on
+	 */
+	public Solver(MineField field, ForkJoinPool pool) {
+		this.field = field;
+		this.pool = pool;
+		this.neighbours = field.getNeighbours();
+		
+		int max = neighbours.getMaxNeighbours();
+		this.unknownA = new int[max];
+		this.unknownB = new int[max];
+		this.difference = new int[max];
+		this.candidates = new int[max * max];
+		
+		this.mines = Bits.create(field.FIELD_COUNT);
+		this.safe = Bits.create(field.FIELD_COUNT);
+		this.dirty = Bits.create(field.FIELD_COUNT);
+		this.touched = Bits.create(field.FIELD_COUNT);
+		this.visited = Bits.create(field.FIELD_COUNT);
+		
+		for(int i = 0; i < field.FIELD_COUNT; i++) {
+			if(field.isDiscovered(i)) fieldChanged(i);
+		}
+		
+		field.addMineFieldListener(this);
+	}
+	
+	//------------------------------------------------------------
+	//					   Tracking changes
+	//------------------------------------------------------------
+	
+	@Override
+	public void onMineFieldChange(MineFieldEvent event) {
+		MineFieldEvent.Type type = event.getType();
+		if(type != MineFieldEvent.Type.DISCOVER && type != MineFieldEvent.Type.CHORD) return;
+		
+		for(int i = 0, n = event.getChangedFieldCount(); i < n; i++) {
+			fieldChanged(event.getChangedField(i));
+		}
+	}
+	
+	/**
+	 * Marks the discovered field, and all of the constraints around it,
+	 * as waiting to be examined.
+	 *
+	 * @param index the index of the discovered field
+	 */
+	private void fieldChanged(int index) {
+		if(field.isExploded()) return;
+		
+		markDirty(index);
+		markDirtyAround(index);
+	}
+	
+	/**
+	 * Queues the constraints around the given field for examination.
+	 *
+	 * @param index the index of the field
+	 */
+	private void markDirtyAround(int index) {
+		int pattern = neighbours.pattern(index);
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			markDirty(index + neighbours.offset(i));
+		}
+	}
+	
+	/**
+	 * Queues the given field for examination, if it is a constraint.
+	 *
+	 * @param index the index of the field
+	 */
+	private void markDirty(int index) {
+		if(!isConstraint(index) || Bits.get(dirty, index)) return;
+		
+		Bits.set(dirty, index);
+		dirtyConstraints.add(index);
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the field is a discovered number
+	 */
+	private boolean isConstraint(int index) {
+		return field.isDiscovered(index) && field.getMineCountAround(index) > 0;
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if nothing is known about the field yet
+	 */
+	private boolean isUnknown(int index) {
+		return !field.isDiscovered(index) && !Bits.get(mines, index) && !Bits.get(safe, index);
+	}
+	
+	//------------------------------------------------------------
+	//						   Solving
+	//------------------------------------------------------------
+	
+	/**
+	 * Examines everything that changed since the last call, until nothing
+	 * more can be deduced.
+	 */
+	public void solve() {
+		do {
+			while(!dirtyConstraints.isEmpty()) {
+				int constraint = dirtyConstraints.pop();
+				Bits.clear(dirty, constraint);
+				
+				if(isConstraint(constraint)) {
+					applySingleRule(constraint);
+					applySubsetRule(constraint);
+				}
+			}
+		} while(enumerateComponents());
+	}
+	
+	/**
+	 * If the constraint has no mines left, all of its unknown fields are
+	 * safe; if it has as many mines left as unknown fields, they are all
+	 * mines.
+	 *
+	 * @param constraint the index of the constraint
+	 */
+	private void applySingleRule(int constraint) {
+		int count = unknownFields(constraint, unknownA);
+		if(count == 0) return;
+		
+		int remaining = remainingMines(constraint);
+		
+		if(remaining == 0) {
+			markSafe(unknownA, count);
+		} else if(remaining == count) {
+			markMines(unknownA, count);
+		} else {
+			touch(unknownA, count);
+		}
+	}
+	
+	/**
+	 * For every nearby constraint whose unknown fields are a subset of the
+	 * fields of another, the difference holds exactly the difference of
+	 * their remaining mines.
+	 *
+	 * @param a the index of the constraint
+	 */
+	private void applySubsetRule(int a) {
+		int countA = unknownFields(a, unknownA);
+		if(countA == 0) return;
+		
+		int remainingA = remainingMines(a);
+		int candidateCount = candidates(a, countA);
+		
+		for(int i = 0; i < candidateCount; i++) {
+			int b = candidates[i];
+			if(!isConstraint(b)) continue;
+			
+			int countB = unknownFields(b, unknownB);
+			if(countB == 0) continue;
+			
+			if(isSubset(unknownA, countA, unknownB, countB)) {
+				applyDifference(unknownB, countB, unknownA, countA, remainingMines(b) - remainingA);
+			} else if(isSubset(unknownB, countB, unknownA, countA)) {
+				applyDifference(unknownA, countA, unknownB, countB, remainingA - remainingMines(b));
+			}
+			
+			countA = unknownFields(a, unknownA);
+			if(countA == 0) return;
+			remainingA = remainingMines(a);
+		}
+	}
+	
+	/**
+	 * Marks the fields of the larger set that are not in the smaller one,
+	 * if the mines left for them decide them all.
+	 *
+	 * @param larger the larger set of fields, in an ascending order
+	 * @param largerCount the number of fields in the larger set
+	 * @param smaller the smaller set of fields, in an ascending order
+	 * @param smallerCount the number of fields in the smaller set
+	 * @param mines the number of mines in the difference
+	 */
+	private void applyDifference(int[] larger, int largerCount, int[] smaller, int smallerCount, int mines) {
+		int count = 0;
+		
+		for(int i = 0, j = 0; i < largerCount; i++) {
+			while(j < smallerCount && smaller[j] < larger[i]) j++;
+			if(j == smallerCount || smaller[j] != larger[i]) difference[count++] = larger[i];
+		}
+		
+		if(count == 0) return;
+		
+		if(mines == 0) {
+			markSafe(difference, count);
+		} else if(mines == count) {
+			markMines(difference, count);
+		}
+	}
+	
+	/**
+	 * @param a a set of fields, in an ascending order
+	 * @param countA the number of fields in the first set
+	 * @param b a set of fields, in an ascending order
+	 * @param countB the number of fields in the second set
+	 * @return {@code true} if every field of the first set is in the second
+	 */
+	private static boolean isSubset(int[] a, int countA, int[] b, int countB) {
+		if(countA > countB) return false;
+		
+		for(int i = 0, j = 0; i < countA; i++, j++) {
+			while(j < countB && b[j] < a[i]) j++;
+			if(j == countB || b[j] != a[i]) return false;
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Collects the unknown fields around the constraint.
+	 *
+	 * @param constraint the index of the constraint
+	 * @param fields receives the unknown fields, in an ascending order
+	 * @return the number of unknown fields
+	 */
+	private int unknownFields(int constraint, int[] fields) {
+		int pattern = neighbours.pattern(constraint);
+		int count = 0;
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			int neighbour = constraint + neighbours.offset(i);
+			if(isUnknown(neighbour)) fields[count++] = neighbour;
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Collects the fields next to the unknown fields around the given
+	 * constraint, other than the constraint itself: the only constraints
+	 * that can share an unknown field with it. The unknown fields only get
+	 * fewer while the constraint is examined, so no others show up later.
+	 *
+	 * @param constraint the index of the constraint
+	 * @param unknownCount the number of its unknown fields, stored in
+	 *        {@link #unknownA}
+	 * @return the number of fields, stored in an ascending order at the
+	 *         start of {@link #candidates}
+	 */
+	private int candidates(int constraint, int unknownCount) {
+		int count = 0;
+		
+		for(int i = 0; i < unknownCount; i++) {
+			int unknown = unknownA[i];
+			int pattern = neighbours.pattern(unknown);
+			
+			for(int j = neighbours.from(pattern), end = neighbours.to(pattern); j < end; j++) {
+				candidates[count++] = unknown + neighbours.offset(j);
+			}
+		}
+		
+		Arrays.sort(candidates, 0, count);
+		int unique = 0;
+		
+		for(int i = 0; i < count; i++) {
+			if(candidates[i] == constraint || unique > 0 && candidates[unique - 1] == candidates[i]) continue;
+			candidates[unique++] = candidates[i];
+		}
+		
+		return unique;
+	}
+	
+	/**
+	 * @param constraint the index of the constraint
+	 * @return the number of mines around the constraint not yet proven
+	 */
+	private int remainingMines(int constraint) {
+		int remaining = field.getMineCountAround(constraint);
+		int pattern = neighbours.pattern(constraint);
+		
+		for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+			if(Bits.get(mines, constraint + neighbours.offset(i))) remaining--;
+		}
+		
+		return remaining;
+	}
+	
+	private void markSafe(int[] fields, int count) {
+		for(int i = 0; i < count; i++) {
+			markSafe(fields[i]);
+		}
+	}
+	
+	private void markMines(int[] fields, int count) {
+		for(int i = 0; i < count; i++) {
+			markMine(fields[i]);
+		}
+	}
+	
+	private void touch(int[] fields, int count) {
+		for(int i = 0; i < count; i++) {
+			int index = fields[i];
+			
+			if(!Bits.get(touched, index)) {
+				Bits.set(touched, index);
+				touchedFields.add(index);
+			}
+		}
+	}
+	
+	private void markSafe(int index) {
+		if(!isUnknown(index)) return;
+		
+		Bits.set(safe, index);
+		safeFields.add(index);
+		markDirtyAround(index);
+	}
+	
+	private void markMine(int index) {
+		if(!isUnknown(index)) return;
+		
+		Bits.set(mines, index);
+		mineCount++;
+		markDirtyAround(index);
+	}
+	
+	//------------------------------------------------------------
+	//						 Enumeration
+	//------------------------------------------------------------
+	
+	/**
+	 * Splits the undecided fields touched since the last enumeration into
+	 * frontier components and enumerates those small enough.
+	 *
+	 * @return {@code true} if anything new has been deduced
+	 */
+	private boolean enumerateComponents() {
+		List<FrontierComponent> components = new ArrayList<>();
+		int totalSize = 0;
+		
+		for(int i = 0; i < touchedFields.size(); i++) {
+			int index = touchedFields.get(i);
+			Bits.clear(touched, index);
+			
+			if(isUnknown(index) && !Bits.get(visited, index)) {
+				FrontierComponent component = buildComponent(index);
+				
+				if(component != null) {
+					components.add(component);
+					totalSize += component.size();
+				}
+			}
+		}
+		
+		touchedFields.clear();
+		
+		for(int i = 0; i < visitedFields.size(); i++) {
+			Bits.clear(visited, visitedFields.get(i));
+		}
+		
+		visitedFields.clear();
+		if(components.isEmpty()) return false;
+		
+		if(components.size() > 1 && totalSize >= PARALLEL_THRESHOLD) {
+			pool.invoke(new RecursiveAction() {
+				
+				private static final long serialVersionUID = 1L;
+				
+				@Override
+				protected void compute() {
+					List<RecursiveAction> tasks = new ArrayList<>(components.size());
+					
+					for(FrontierComponent component : components) {
+						tasks.add(new RecursiveAction() {
+							
+							private static final long serialVersionUID = 1L;
+							
+							@Override
+							protected void compute() {
+								component.enumerate();
+							}
+						});
+					}
+					
+					ForkJoinTask.invokeAll(tasks);
+				}
+			});
+		} else {
+			components.forEach(FrontierComponent::enumerate);
+		}
+		
+		boolean progress = false;
+		
+		for(FrontierComponent component : components) {
+			if(component.solutions == 0) continue;
+			
+			for(int i = 0; i < component.size(); i++) {
+				if(component.mineSolutions[i] == 0) {
+					markSafe(component.fields[i]);
+					progress = true;
+				} else if(component.mineSolutions[i] == component.solutions) {
+					markMine(component.fields[i]);
+					progress = true;
+				}
+			}
+		}
+		
+		return progress;
+	}
+	
+	/**
+	 * Collects the frontier component containing the given field: all of
+	 * the unknown fields reachable through shared constraints.
+	 *
+	 * @param start the index of an unknown field
+	 * @return the component, or {@code null} if it is too large to be
+	 *         enumerated
+	 */
+	private FrontierComponent buildComponent(int start) {
+		IntList fields = new IntList();
+		IntList constraints = new IntList();
+		IntList queue = new IntList();
+		
+		Bits.set(visited, start);
+		queue.add(start);
+		
+		for(int head = 0; head < queue.size(); head++) {
+			int index = queue.get(head);
+			boolean unknown = !field.isDiscovered(index);
+			(unknown ? fields : constraints).add(index);
+			
+			int pattern = neighbours.pattern(index);
+			
+			for(int i = neighbours.from(pattern), end = neighbours.to(pattern); i < end; i++) {
+				int neighbour = index + neighbours.offset(i);
+				if(Bits.get(visited, neighbour)) continue;
+				
+				if(unknown ? isConstraint(neighbour) : isUnknown(neighbour)) {
+					Bits.set(visited, neighbour);
+					queue.add(neighbour);
+				}
+			}
+		}
+		
+		for(int i = 0; i < queue.size(); i++) {
+			visitedFields.add(queue.get(i));
+		}
+		
+		if(fields.size() > MAX_ENUMERATION_SIZE) return null;
+		
+		int[] fieldArray = fields.toArray();
+		int[][] constraintFields = new int[constraints.size()][];
+		int[] constraintMines = new int[constraints.size()];
+		
+		for(int i = 0; i < constraints.size(); i++) {
+			int constraint = constraints.get(i);
+			IntList local = new IntList(8);
+			
+			int pattern = neighbours.pattern(constraint);
+			
+			for(int j = 0; j < fieldArray.length; j++) {
+				int offset = fieldArray[j] - constraint;
+				
+				for(int k = neighbours.from(pattern), end = neighbours.to(pattern); k < end; k++) {
+					if(neighbours.offset(k) == offset) {
+						local.add(j);
+						break;
+					}
+				}
+			}
+			
+			constraintFields[i] = local.toArray();
+			constraintMines[i] = remainingMines(constraint);
+		}
+		
+		return new FrontierComponent(fieldArray, constraintFields, constraintMines);
+	}
+	
+	//------------------------------------------------------------
+	//						   Results
+	//------------------------------------------------------------
+	
+	/**
+	 * Returns an undiscovered field proven to be safe, solving first if
+	 * there is anything new to examine.
+	 *
+	 * @return the index of a safe field, or {@code -1} if there is none
+	 */
+	public int nextSafeField() {
+		solve();
+		
+		while(!safeFields.isEmpty()) {
+			int index = safeFields.get(safeFields.size() - 1);
+			if(!field.isDiscovered(index)) return index;
+			safeFields.pop();
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the field is proven to be a mine
+	 */
+	public boolean isMine(int index) {
+		return Bits.get(mines, index);
+	}
+	
+	/**
+	 * @param index the index of the field
+	 * @return {@code true} if the field is proven to be safe
+	 */
+	public boolean isSafe(int index) {
+		return Bits.get(safe, index) || field.isDiscovered(index);
+	}
+	
+	/**
+	 * @return the number of fields proven to be mines
+	 */
+	public int getMineCount() {
+		return mineCount;
+	}
+	
+	/**
+	 * Stops listening to the mine-field.
+	 */
+	public void dispose() {
+		field.removeMineFieldListener(this);
+	}
+}
@@ -0,0 +1,53 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * Plays the way a careful player would: the first click goes to the
+ * center, after that every field the {@link Solver} proves to be safe is
+ * discovered, and only when nothing more can be deduced is a guess made.
+ * This strategy guesses at random among the fields not proven to be
+ * mines.
+ *
+ * @author Filip Nemec
+ */
+public class SolverStrategy implements Strategy {
+	
+	/** The mine-field being played. */
+	protected MineField field;
+	
+	/** The solver of the current game. */
+	protected Solver solver;
+	
+	/** The source of randomness for the current game. */
+	protected SplittableRandom random;
+	
+	@Override
+	public void start(MineField field, SplittableRandom random) {
+		this.field = field;
+		this.random = random;
+		this.solver = new Solver(field);
+	}
+	
+	@Override
+	public int nextField() {
+		if(!field.areMinesPlaced()) return field.indexOf(field.ROWS / 2, field.COLUMNS / 2);
+		
+		int index = solver.nextSafeField();
+		return index >= 0 ? index : guess();
+	}
+	
+	/**
+	 * Chooses the field to be discovered when no field is proven safe.
+	 *
+	 * @return the index of an undiscovered field
+	 */
+	protected int guess() {
+		return RandomStrategy.randomField(field, random, solver::isMine);
+	}
+	
+	@Override
+	public void finish() {
+		solver.dispose();
+	}
+}
@@ -0,0 +1,151 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A response of the {@link GameServer}: the fields changed by a request,
+ * with their new states, and the state of the whole game.
+ * <p>
+ * State diffs are immutable.
+ *
+ * @author Filip Nemec
+ */
+public final class StateDiff {
+	
+	/**
+	 * The states of a game.
+	 */
+	public enum Status {
+		
+		/** The game is still being played. */
+		PLAYING,
+		
+		/** Every field that is not a mine has been discovered. */
+		WON,
+		
+		/** The player has stepped on a mine. */
+		LOST
+	}
+	
+	/** The id of the game. */
+	private final long game;
+	
+	/** The state of the game. */
+	private final Status status;
+	
+	/** The number of discovered fields. */
+	private final int discoveredCount;
+	
+	/** The number of flags. */
+	private final int flagCount;
+	
+	/** The indices of the changed fields. */
+	private final int[] fields;
+	
+	/** The new states of the changed fields, see {@link FieldState}. */
+	private final byte[] states;
+	
+	private StateDiff(long game, Status status, int discoveredCount, int flagCount, int[] fields, byte[] states) {
+		this.game = game;
+		this.status = status;
+		this.discoveredCount = discoveredCount;
+		this.flagCount = flagCount;
+		this.fields = fields;
+		this.states = states;
+	}
+	
+	/**
+	 * Decodes the response frame, without its length.
+	 *
+	 * @param frame the frame, starting with the opcode
+	 * @return the state diff
+	 * @throws IllegalArgumentException if the server answered with an error
+	 */
+	static StateDiff decode(ByteBuffer frame) {
+		byte opcode = frame.get();
+		long game = frame.getLong();
+		
+		if(opcode == GameProtocol.ERROR) {
+			byte[] message = new byte[frame.getShort()];
+			frame.get(message);
+			throw new IllegalArgumentException(new String(message, StandardCharsets.UTF_8));
+		}
+		
+		if(opcode != GameProtocol.DIFF) {
+			throw new IllegalArgumentException("Unknown response: " + opcode);
+		}
+		
+		Status status = Status.values()[frame.get()];
+		int discoveredCount = frame.getInt();
+		int flagCount = frame.getInt();
+		int count = frame.getInt();
+		
+		int[] fields = new int[count];
+		byte[] states = new byte[count];
+		
+		for(int i = 0; i < count; i++) {
+			fields[i] = frame.getInt();
+			states[i] = frame.get();
+		}
+		
+		return new StateDiff(game, status, discoveredCount, flagCount, fields, states);
+	}
+	
+	/**
+	 * @return the id of the game
+	 */
+	public long getGame() {
+		return game;
+	}
+	
+	/**
+	 * @return the state of the game
+	 */
+	public Status getStatus() {
+		return status;
+	}
+	
+	/**
+	 * @return the number of discovered fields
+	 */
+	public int getDiscoveredCount() {
+		return discoveredCount;
+	}
+	
+	/**
+	 * @return the number of flags
+	 */
+	public int getFlagCount() {
+		return flagCount;
+	}
+	
+	/**
+	 * @return the number of changed fields
+	 */
+	public int getChangedFieldCount() {
+		return fields.length;
+	}
+	
+	/**
+	 * @param i the position of the changed field
+	 * @return the index of the changed field
+	 */
+	public int getChangedField(int i) {
+		return fields[i];
+	}
+	
+	/**
+	 * @param i the position of the changed field
+	 * @return the new state of the changed field, see {@link FieldState}
+	 */
+	public byte getState(int i) {
+		return states[i];
+	}
+	
+	@Override
+	public String toString() {
+		return "StateDiff[game " + game + ", " + status + ", " + fields.length + " fields, discovered="
+				+ discoveredCount + ", flags=" + flagCount + "]";
+	}
+}
@@ -0,0 +1,34 @@
+package minesweeper;
+
+import java.util.SplittableRandom;
+
+/**
+ * A way of playing the game, used by the {@link Simulator}. The strategy
+ * only chooses which field to discover next; the simulator makes the move
+ * and decides when the game is over.
+ * <p>
+ * A strategy may keep state between the moves of a game, so an instance
+ * is only ever used by one thread, one game after another.
+ *
+ * @author Filip Nemec
+ */
+public interface Strategy {
+	
+	/**
+	 * Prepares the strategy for a new game.
+	 *
+	 * @param field the mine-field of the new game, nothing discovered yet
+	 * @param random the source of randomness for this game
+	 */
+	void start(MineField field, SplittableRandom random);
+	
+	/**
+	 * @return the index of an undiscovered field to be discovered next
+	 */
+	int nextField();
+	
+	/**
+	 * Called once the game is over. Does nothing by default.
+	 */
+	default void finish() {}
+}
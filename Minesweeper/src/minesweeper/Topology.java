@@ -0,0 +1,247 @@
+package minesweeper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ways the fields of a board are connected to each other. Every
+ * topology keeps the fields in rows and columns, so the boards of all of
+ * them are stored, saved and displayed the same way; only the neighbours
+ * of the fields differ.
+ * <p>
+ * The neighbours are looked up in a {@link Neighbours} table built once
+ * for every board shape and shared by all of the boards of that shape.
+ *
+ * @author Filip Nemec
+ */
+public enum Topology {
+	
+	/** The classic board: a field touches the 8 fields around it. */
+	SQUARE("Square") {
+		
+		@Override
+		int neighbours(int rows, int columns, int row, int column, int[] neighbours) {
+			int count = 0;
+			
+			for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++) {
+				for(int c = Math.max(column - 1, 0); c <= Math.min(column + 1, columns - 1); c++) {
+					if(r != row || c != column) neighbours[count++] = r * columns + c;
+				}
+			}
+			
+			return count;
+		}
+	},
+	
+	/**
+	 * A square board whose edges wrap around: the first row touches the
+	 * last one and the first column touches the last one, so every field
+	 * has 8 neighbours.
+	 */
+	TORUS("Torus") {
+		
+		@Override
+		int neighbours(int rows, int columns, int row, int column, int[] neighbours) {
+			int count = 0;
+			
+			for(int dr = -1; dr <= 1; dr++) {
+				for(int dc = -1; dc <= 1; dc++) {
+					if(dr == 0 && dc == 0) continue;
+					
+					int r = Math.floorMod(row + dr, rows);
+					int c = Math.floorMod(column + dc, columns);
+					neighbours[count++] = r * columns + c;
+				}
+			}
+			
+			return count;
+		}
+	},
+	
+	/**
+	 * A board of hexagons: the odd rows are shifted right by half a field,
+	 * and a field touches the 2 fields beside it and the 2 fields above
+	 * and below it it overlaps with.
+	 */
+	HEX("Hexagonal") {
+		
+		@Override
+		int rowKey(int rows, int columns, int row) {
+			return edgeKey(row, rows) | (row & 1) << 2;
+		}
+		
+		@Override
+		int neighbours(int rows, int columns, int row, int column, int[] neighbours) {
+			int count = 0;
+			int shift = row & 1;
+			
+			for(int r = Math.max(row - 1, 0); r <= Math.min(row + 1, rows - 1); r++) {
+				int fromColumn = r == row ? column - 1 : column - 1 + shift;
+				int toColumn = r == row ? column + 1 : column + shift;
+				
+				for(int c = Math.max(fromColumn, 0); c <= Math.min(toColumn, columns - 1); c++) {
+					if(r != row || c != column) neighbours[count++] = r * columns + c;
+				}
+			}
+			
+			return count;
+		}
+	},
+	
+	/**
+	 * A stack of square layers, each as many rows tall as the board has
+	 * columns, displayed one below the other. A field touches the 26
+	 * fields of the 3x3x3 cube around it.
+	 */
+	LAYERED("3D layers") {
+		
+		@Override
+		int rowKey(int rows, int columns, int row) {
+			return edgeKey(row % columns, columns) | edgeKey(row / columns, rows / columns) << 2;
+		}
+		
+		@Override
+		int neighbours(int rows, int columns, int row, int column, int[] neighbours) {
+			int layer = row / columns;
+			int layerRow = row % columns;
+			int count = 0;
+			
+			for(int l = Math.max(layer - 1, 0); l <= Math.min(layer + 1, rows / columns - 1); l++) {
+				for(int r = Math.max(layerRow - 1, 0); r <= Math.min(layerRow + 1, columns - 1); r++) {
+					for(int c = Math.max(column - 1, 0); c <= Math.min(column + 1, columns - 1); c++) {
+						if(l != layer || r != layerRow || c != column) {
+							neighbours[count++] = (l * columns + r) * columns + c;
+						}
+					}
+				}
+			}
+			
+			return count;
+		}
+		
+		@Override
+		public void checkShape(int rows, int columns) {
+			super.checkShape(rows, columns);
+			
+			if(rows % columns != 0) {
+				throw new IllegalArgumentException("Number of rows of a layered board must be a multiple of the number of columns!");
+			}
+		}
+	};
+	
+	/** The largest number of neighbours a field can have in any topology. */
+	public static final int MAX_NEIGHBOURS = 26;
+	
+	/** The largest number of board shapes whose tables are kept. */
+	private static final int MAX_TABLES = 16;
+	
+	/** The name shown to the player. */
+	private final String name;
+	
+	/** The tables of the recently used board shapes, by their shape. */
+	private final Map<Long, Neighbours> tables = new LinkedHashMap<Long, Neighbours>(MAX_TABLES, 0.75f, true) {
+		
+		/** Used for serialization. */
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, Neighbours> eldest) {
+			return size() > MAX_TABLES;
+		}
+	};
+	
+	/**
+	 * @param name the name shown to the player
+	 */
+	Topology(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Returns the neighbour table of the boards of the given shape,
+	 * building it if it is not cached.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @return the neighbour table
+	 * @throws IllegalArgumentException if the board can not have this
+	 *         topology
+	 */
+	public Neighbours neighbours(int rows, int columns) {
+		checkShape(rows, columns);
+		long shape = (long) rows << 32 | columns;
+		
+		synchronized(tables) {
+			return tables.computeIfAbsent(shape, s -> new Neighbours(this, rows, columns));
+		}
+	}
+	
+	/**
+	 * Checks whether the boards of the given shape can have this topology.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @throws IllegalArgumentException if they can not
+	 */
+	public void checkShape(int rows, int columns) {
+		if(rows <= 0 || columns <= 0) {
+			throw new IllegalArgumentException("Invalid board: " + rows + "x" + columns + ".");
+		}
+	}
+	
+	/**
+	 * Writes the indices of the neighbours of the given field, in any
+	 * order. This is the slow way of finding the neighbours,
+	 * used only to build the tables.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param row the row of the field
+	 * @param column the column of the field
+	 * @param neighbours receives the indices of the neighbours, has to
+	 *        have room for {@link #MAX_NEIGHBOURS} of them
+	 * @return the number of neighbours written, possibly with duplicates
+	 */
+	abstract int neighbours(int rows, int columns, int row, int column, int[] neighbours);
+	
+	/**
+	 * Returns the key of the given row. The fields in the rows with the
+	 * same key, and in the columns with the same key, have their
+	 * neighbours at the same distances from themselves.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param row the row
+	 * @return the key of the row, smaller than 16
+	 */
+	int rowKey(int rows, int columns, int row) {
+		return edgeKey(row, rows);
+	}
+	
+	/**
+	 * Returns the key of the given column, see {@link #rowKey(int, int, int)}.
+	 *
+	 * @param rows the number of rows
+	 * @param columns the number of columns
+	 * @param column the column
+	 * @return the key of the column, smaller than 16
+	 */
+	int columnKey(int rows, int columns, int column) {
+		return edgeKey(column, columns);
+	}
+	
+	/**
+	 * @param position the position of the row or column
+	 * @param size the number of rows or columns
+	 * @return bit 0 set if the position is the first one, bit 1 if it is
+	 *         the last one
+	 */
+	private static int edgeKey(int position, int size) {
+		return (position == 0 ? 1 : 0) | (position == size - 1 ? 2 : 0);
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
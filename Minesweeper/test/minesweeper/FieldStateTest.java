@@ -0,0 +1,51 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the states of the fields of every topology are told apart,
+ * however many mines are around a field.
+ *
+ * @author Filip Nemec
+ */
+class FieldStateTest {
+	
+	/**
+	 * The center of a board of three 3x3 layers, all of whose other fields
+	 * are mines, has the most mines around it any field can have.
+	 */
+	@Test
+	void highestCountOfLayeredBoard() {
+		int center = 4 * 3 + 1;
+		long[] mines = Bits.create(9 * 3);
+		
+		for(int i = 0; i < 9 * 3; i++) {
+			if(i != center) Bits.set(mines, i);
+		}
+		
+		MineField field = new MineField(9, 3, mines, Topology.LAYERED);
+		assertEquals(FieldState.UNDISCOVERED, FieldState.of(field, center));
+		assertFalse(FieldState.isDiscovered(FieldState.of(field, center)));
+		
+		field.toggleField(4, 1);
+		byte state = FieldState.of(field, center);
+		
+		assertEquals(Topology.MAX_NEIGHBOURS, state);
+		assertTrue(FieldState.isDiscovered(state));
+	}
+	
+	@Test
+	void everyCountIsDiscovered() {
+		for(byte count = 0; count <= Topology.MAX_NEIGHBOURS; count++) {
+			assertTrue(FieldState.isDiscovered(count), "count " + count);
+		}
+		
+		for(byte state : new byte[] { FieldState.UNDISCOVERED, FieldState.FLAGGED, FieldState.MINE, FieldState.EXPLODED, FieldState.WRONG_FLAG }) {
+			assertFalse(FieldState.isDiscovered(state), "state " + state);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Plays games on a {@link GameServer} over the loopback interface.
+ *
+ * @author Filip Nemec
+ */
+class GameServerTest {
+	
+	/** How long a client that never reads may keep writing, in milliseconds. */
+	private static final long STALL_TIMEOUT = 10_000;
+	
+	/** The server under test. */
+	private GameServer server;
+	
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new GameServer(0).start();
+	}
+	
+	@AfterEach
+	void closeServer() throws IOException {
+		server.close();
+	}
+	
+	@Test
+	void newGameMoveAndState() throws IOException {
+		try(GameClient client = connect()) {
+			StateDiff game = client.newGame(9, 9, 0);
+			long id = game.getGame();
+			
+			assertEquals(StateDiff.Status.PLAYING, game.getStatus());
+			assertEquals(0, game.getChangedFieldCount());
+			
+			StateDiff flag = client.flag(id, 4, 4);
+			assertEquals(1, flag.getFlagCount());
+			assertEquals(1, flag.getChangedFieldCount());
+			assertEquals(4 * 9 + 4, flag.getChangedField(0));
+			assertEquals(FieldState.FLAGGED, flag.getState(0));
+			
+			client.flag(id, 4, 4);
+			StateDiff reveal = client.reveal(id, 0, 0);
+			assertEquals(StateDiff.Status.WON, reveal.getStatus());
+			assertEquals(81, reveal.getDiscoveredCount());
+			assertEquals(81, reveal.getChangedFieldCount());
+			
+			StateDiff state = client.state(id);
+			assertEquals(id, state.getGame());
+			assertEquals(StateDiff.Status.WON, state.getStatus());
+			assertEquals(81, state.getChangedFieldCount());
+		}
+	}
+	
+	@Test
+	void invalidRequestsAreAnsweredWithErrors() throws IOException {
+		try(GameClient client = connect()) {
+			long id = client.newGame(9, 9, 10).getGame();
+			
+			assertThrows(IllegalArgumentException.class, () -> client.reveal(id, 9, 0));
+			assertThrows(IllegalArgumentException.class, () -> client.state(id + 1));
+			assertThrows(IllegalArgumentException.class, () -> client.newGame(9, 9, -1));
+			assertThrows(IllegalArgumentException.class, () -> client.newGame(GameProtocol.MAX_SIZE + 1, 9, 10));
+			
+			assertEquals(id, client.state(id).getGame());
+		}
+	}
+	
+	/**
+	 * A client that keeps asking for the state without ever reading the
+	 * answers must be stopped by its socket filling up, rather than have the
+	 * server queue answers for as long as it writes, and must not hold up
+	 * the other clients.
+	 */
+	@Test
+	void clientThatNeverReadsIsNotServedFurther() throws IOException {
+		try(GameClient client = connect(); SocketChannel greedy = SocketChannel.open()) {
+			long id = client.newGame(9, 9, 10).getGame();
+			
+			greedy.connect(new InetSocketAddress("localhost", server.getPort()));
+			greedy.configureBlocking(false);
+			
+			ByteBuffer request = GameProtocol.state(id);
+			long deadline = System.currentTimeMillis() + STALL_TIMEOUT;
+			
+			while(greedy.write(request) > 0) {
+				if(!request.hasRemaining()) request.rewind();
+				
+				assertTrue(System.currentTimeMillis() < deadline, "The server kept reading requests whose answers were not taken.");
+			}
+			
+			assertEquals(id, client.state(id).getGame());
+			assertEquals(1, client.flag(id, 0, 0).getFlagCount());
+		}
+	}
+	
+	private GameClient connect() throws IOException {
+		return new GameClient("localhost", server.getPort());
+	}
+}
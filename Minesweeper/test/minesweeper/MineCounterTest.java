@@ -0,0 +1,77 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the row at a time counting of {@link MineCounter} gives
+ * exactly the counts of adding up the mines one by one.
+ *
+ * @author Filip Nemec
+ */
+class MineCounterTest {
+	
+	/** The mine densities every shape is checked with. */
+	private static final double[] DENSITIES = { 0, 0.15, 0.5, 1 };
+	
+	/** The source of the mine layouts, seeded so a failure can be repeated. */
+	private final SplittableRandom random = new SplittableRandom(42);
+	
+	@Test
+	void singleRowAndColumn() {
+		checkShapes(new int[][] {
+			{ 1, 1 }, { 1, 2 }, { 2, 1 }, { 1, 63 }, { 1, 64 }, { 1, 65 }, { 1, 1000 },
+			{ 63, 1 }, { 64, 1 }, { 65, 1 }, { 1000, 1 }
+		});
+	}
+	
+	@Test
+	void widthsAcrossWordAndByteBoundaries() {
+		checkShapes(new int[][] {
+			{ 2, 2 }, { 3, 7 }, { 8, 8 }, { 9, 9 }, { 5, 15 }, { 16, 30 }, { 13, 63 },
+			{ 17, 64 }, { 11, 65 }, { 7, 127 }, { 6, 129 }, { 30, 200 }
+		});
+	}
+	
+	@Test
+	void bandsCountedInParallel() {
+		checkShapes(new int[][] { { 1025, 1031 }, { 3, 400_001 } });
+	}
+	
+	/**
+	 * Counts the mines of boards of the given shapes, with every density,
+	 * both ways and checks that the counts match.
+	 *
+	 * @param shapes the rows and the columns of every board
+	 */
+	private void checkShapes(int[][] shapes) {
+		for(int[] shape : shapes) {
+			Neighbours neighbours = Topology.SQUARE.neighbours(shape[0], shape[1]);
+			
+			for(double density : DENSITIES) {
+				long[] mines = layout(shape[0] * shape[1], density);
+				
+				assertArrayEquals(MineCounter.countEach(mines, neighbours), MineCounter.count(mines, neighbours),
+						shape[0] + "x" + shape[1] + ", density " + density);
+			}
+		}
+	}
+	
+	/**
+	 * @param fields the number of fields
+	 * @param density the share of the fields that are mines
+	 * @return a random bit-set of the mines
+	 */
+	private long[] layout(int fields, double density) {
+		long[] mines = Bits.create(fields);
+		
+		for(int i = 0; i < fields; i++) {
+			if(random.nextDouble() < density) Bits.set(mines, i);
+		}
+		
+		return mines;
+	}
+}